@@ -0,0 +1,77 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.service.AmendSnapshot;
+import com.patrick.wpb.cmt.ems.fi.service.ColumnarAmendSnapshotCodec;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Amend-log payload round trips: the breakdown list through an {@link ObjectMapper} configured like the
+ * application's (what {@code before_obj}/{@code after_obj} hold), against the columnar snapshot codec that now
+ * backs new revisions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class AmendLogSerializationBenchmark {
+
+    private static final TypeReference<List<ClientAllocationBreakdownRequest>> BREAKDOWN_LIST = new TypeReference<>() {};
+
+    @Param({"100", "1000", "10000"})
+    public int accountCount;
+
+    private ObjectMapper objectMapper;
+    private ColumnarAmendSnapshotCodec columnarCodec;
+    private List<ClientAllocationBreakdownRequest> rows;
+    private AmendSnapshot snapshot;
+    private byte[] json;
+    private byte[] columnar;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        columnarCodec = new ColumnarAmendSnapshotCodec();
+        rows = BenchmarkData.breakdownRequests(accountCount);
+        snapshot = AmendSnapshot.full(rows);
+        json = objectMapper.writeValueAsBytes(rows);
+        columnar = columnarCodec.encode(snapshot);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws IOException {
+        return objectMapper.writeValueAsBytes(rows);
+    }
+
+    @Benchmark
+    public List<ClientAllocationBreakdownRequest> jsonRead() throws IOException {
+        return objectMapper.readValue(json, BREAKDOWN_LIST);
+    }
+
+    @Benchmark
+    public byte[] columnarEncode() {
+        return columnarCodec.encode(snapshot);
+    }
+
+    @Benchmark
+    public AmendSnapshot columnarDecode() {
+        return columnarCodec.decode(columnar);
+    }
+}
@@ -0,0 +1,103 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic fixtures shared by the suites, shaped like a real book: accounts spread over a handful of
+ * booking countries, scale-4 amounts and a yield limit on every third account.
+ */
+final class BenchmarkData {
+
+    static final String[] COUNTRIES = {"HK", "SG", "GB", "US", "CH", "AE"};
+
+    private BenchmarkData() {
+    }
+
+    static TraderOrderEntity order(String clientOrderId) {
+        return TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .version(3L)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.REGIONAL_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(new BigDecimal("1000000.0000"))
+                .cleanPrice(new BigDecimal("99.8750"))
+                .build();
+    }
+
+    static List<ClientAllocationBreakdownRequest> breakdownRequests(int accountCount) {
+        List<ClientAllocationBreakdownRequest> rows = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            ClientAllocationBreakdownRequest row = new ClientAllocationBreakdownRequest();
+            row.setCountryCode(country(i));
+            row.setAccountNumber(accountNumber(i));
+            row.setOrderQuantity(new BigDecimal("10.0000"));
+            row.setFinalAllocation(new BigDecimal("10.0000"));
+            row.setAllocationPercentage(new BigDecimal("0.0100"));
+            row.setEstimatedOrderSize(new BigDecimal("10.0000"));
+            row.setYieldLimit(i % 3 == 0 ? new BigDecimal("4.2500") : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static List<ClientAllocationBreakdownEntity> clientBreakdowns(int accountCount) {
+        List<ClientAllocationBreakdownEntity> rows = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            rows.add(ClientAllocationBreakdownEntity.builder()
+                    .id((long) i)
+                    .countryCode(country(i))
+                    .accountNumber(accountNumber(i))
+                    .orderQuantity(new BigDecimal("10.0000"))
+                    .finalAllocation(new BigDecimal("10.0000"))
+                    .build());
+        }
+        return rows;
+    }
+
+    /**
+     * HK and SG accounts alternating, order quantities from 1,000 to 7,000 and a size limit on every fifth account.
+     */
+    static List<RegionalAllocationBreakdownRequest> regionalBreakdownRequests(int accountCount) {
+        List<RegionalAllocationBreakdownRequest> rows = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            RegionalAllocationBreakdownRequest row = new RegionalAllocationBreakdownRequest();
+            row.setCountryCode(COUNTRIES[i % 2]);
+            row.setAccountNumber(accountNumber(i));
+            row.setOrderQuantity(BigDecimal.valueOf((i % 7 + 1) * 1000L).setScale(4));
+            row.setFinalAllocation(BigDecimal.ZERO);
+            row.setSizeLimit(i % 5 == 0 ? new BigDecimal("2500.0000") : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static RegionalAllocationEntity regionalAllocation(String clientOrderId) {
+        return RegionalAllocationEntity.builder()
+                .clientOrderId(clientOrderId)
+                .orderQuantity(new BigDecimal("1000000.0000"))
+                .hkOrderQuantity(new BigDecimal("600000.0000"))
+                .sgOrderQuantity(new BigDecimal("400000.0000"))
+                .build();
+    }
+
+    static String country(int account) {
+        return COUNTRIES[account % COUNTRIES.length];
+    }
+
+    static String accountNumber(int account) {
+        return "ACCOUNT-" + account;
+    }
+}
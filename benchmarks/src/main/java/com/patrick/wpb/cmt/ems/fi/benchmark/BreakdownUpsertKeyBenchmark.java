@@ -0,0 +1,152 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.service.AccountKey;
+import com.patrick.wpb.cmt.ems.fi.service.AmendSnapshot;
+import com.patrick.wpb.cmt.ems.fi.service.KeyedReconciler;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching a submitted breakdown list against the stored rows by (country code, account number), the step every
+ * upsert starts with. {@code concatenatedKey} mirrors the {@code country + "|" + account} map the services build
+ * today; {@code recordKey} swaps the concatenated string for a two-field record; {@code amendSnapshotDiff} is the
+ * production {@link AmendSnapshot#diff} the amend log runs on every submission, with 5% of the rows changed.
+ * <p>
+ * {@code stringKeyReconcile} is the full match-and-remove step the regional upsert used to run (string map, then a
+ * string set of request keys to find deletes) and {@code keyedReconciler} is {@link KeyedReconciler} with
+ * {@link AccountKey}, both on a resubmission that drops 10% of the accounts and adds 10% new ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class BreakdownUpsertKeyBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int accountCount;
+
+    private List<ClientAllocationBreakdownEntity> existing;
+    private List<ClientAllocationBreakdownRequest> requests;
+    private List<ClientAllocationBreakdownRequest> resubmitted;
+    private List<ClientAllocationBreakdownRequest> reshaped;
+
+    @Setup
+    public void setUp() {
+        existing = BenchmarkData.clientBreakdowns(accountCount);
+        requests = BenchmarkData.breakdownRequests(accountCount);
+        resubmitted = BenchmarkData.breakdownRequests(accountCount);
+        for (int i = 0; i < accountCount; i += 20) {
+            resubmitted.get(i).setFinalAllocation(new BigDecimal("12.5000"));
+        }
+        List<ClientAllocationBreakdownRequest> grown = BenchmarkData.breakdownRequests(accountCount + accountCount / 10);
+        reshaped = new ArrayList<>(grown.size());
+        for (int i = 0; i < grown.size(); i++) {
+            if (i >= accountCount || i % 10 != 0) {
+                reshaped.add(grown.get(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public int concatenatedKey() {
+        Map<String, ClientAllocationBreakdownEntity> existingByKey = existing.stream()
+                .collect(Collectors.toMap(
+                        b -> b.getCountryCode() + "|" + b.getAccountNumber(),
+                        b -> b,
+                        (first, replacement) -> first,
+                        HashMap::new
+                ));
+        int matched = 0;
+        for (ClientAllocationBreakdownRequest request : requests) {
+            if (existingByKey.remove(request.getCountryCode() + "|" + request.getAccountNumber()) != null) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int recordKey() {
+        Map<BreakdownKey, ClientAllocationBreakdownEntity> existingByKey = existing.stream()
+                .collect(Collectors.toMap(
+                        b -> new BreakdownKey(b.getCountryCode(), b.getAccountNumber()),
+                        b -> b,
+                        (first, replacement) -> first,
+                        HashMap::new
+                ));
+        int matched = 0;
+        for (ClientAllocationBreakdownRequest request : requests) {
+            if (existingByKey.remove(new BreakdownKey(request.getCountryCode(), request.getAccountNumber())) != null) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public int stringKeyReconcile() {
+        Map<String, ClientAllocationBreakdownEntity> existingByKey = existing.stream()
+                .collect(Collectors.toMap(
+                        b -> b.getCountryCode() + "|" + b.getAccountNumber(),
+                        b -> b,
+                        (first, replacement) -> first
+                ));
+        int inserts = 0;
+        for (ClientAllocationBreakdownRequest request : reshaped) {
+            if (existingByKey.get(request.getCountryCode() + "|" + request.getAccountNumber()) == null) {
+                inserts++;
+            }
+        }
+        Set<String> requestKeys = reshaped.stream()
+                .map(r -> r.getCountryCode() + "|" + r.getAccountNumber())
+                .collect(Collectors.toSet());
+        List<ClientAllocationBreakdownEntity> deletes = existing.stream()
+                .filter(b -> !requestKeys.contains(b.getCountryCode() + "|" + b.getAccountNumber()))
+                .collect(Collectors.toList());
+        return inserts + deletes.size();
+    }
+
+    @Benchmark
+    public int keyedReconciler() {
+        KeyedReconciler.Changes<ClientAllocationBreakdownEntity, ClientAllocationBreakdownRequest> changes =
+                KeyedReconciler.reconcile(existing,
+                        b -> new AccountKey(b.getCountryCode(), b.getAccountNumber()),
+                        reshaped,
+                        r -> new AccountKey(r.getCountryCode(), r.getAccountNumber()));
+        int inserts = 0;
+        for (KeyedReconciler.Match<ClientAllocationBreakdownEntity, ClientAllocationBreakdownRequest> match : changes.matches()) {
+            if (match.isInsert()) {
+                inserts++;
+            }
+        }
+        return inserts + changes.deletes().size();
+    }
+
+    @Benchmark
+    public AmendSnapshot amendSnapshotDiff() {
+        return AmendSnapshot.diff(requests, resubmitted);
+    }
+
+    private record BreakdownKey(String countryCode, String accountNumber) {
+    }
+}
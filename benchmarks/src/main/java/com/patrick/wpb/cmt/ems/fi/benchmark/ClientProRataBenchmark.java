@@ -0,0 +1,60 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.service.ClientProRataEngine;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ClientProRataEngine} over an oversubscribed client book: the order is a tenth of total demand, split in
+ * lots of 1 with a minimum of 5 so that the accounts with the smallest demand drop out. Books above
+ * {@code PARALLEL_THRESHOLD} accounts run the per-account passes on the common fork-join pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class ClientProRataBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int accountCount;
+
+    private List<ClientAllocationBreakdownRequest> breakdowns;
+    private long totalUnits;
+    private long lotUnits;
+    private long minimumUnits;
+
+    @Setup
+    public void setUp() {
+        breakdowns = BenchmarkData.breakdownRequests(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            breakdowns.get(i).setEstimatedOrderSize(BigDecimal.valueOf((i % 97 + 1) * 10L));
+        }
+        long demand = 0;
+        for (ClientAllocationBreakdownRequest breakdown : breakdowns) {
+            demand += breakdown.getEstimatedOrderSize().longValue();
+        }
+        totalUnits = Quantity.unitsOf(BigDecimal.valueOf(demand / 10));
+        lotUnits = Quantity.unitsOf(BigDecimal.ONE);
+        minimumUnits = Quantity.unitsOf(BigDecimal.valueOf(5));
+    }
+
+    @Benchmark
+    public ClientProRataEngine.Result proRataEngine() {
+        return ClientProRataEngine.allocate(breakdowns, totalUnits, lotUnits, minimumUnits);
+    }
+}
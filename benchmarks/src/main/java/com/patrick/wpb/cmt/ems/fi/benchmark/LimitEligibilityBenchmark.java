@@ -0,0 +1,80 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalPricedAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.service.LimitEligibilityFilter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Checking a client book's limits against the final prices, every booking country priced on yield.
+ * {@code bigDecimalPerAccount} compares the {@code BigDecimal} fields account by account; {@code filterOnce} is
+ * {@link LimitEligibilityFilter}'s check, which does the same with breach masks and counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class LimitEligibilityBenchmark {
+
+    @Param({"10000", "50000"})
+    public int accountCount;
+
+    private List<ClientAllocationBreakdownRequest> breakdowns;
+    private List<FinalPricedAllocationBreakdownEntity> prices;
+
+    @Setup
+    public void setUp() {
+        breakdowns = BenchmarkData.breakdownRequests(accountCount);
+        for (int i = 0; i < accountCount; i += 7) {
+            breakdowns.get(i).setSizeLimit(new BigDecimal("5.0000"));
+        }
+        prices = new ArrayList<>();
+        for (int c = 0; c < BenchmarkData.COUNTRIES.length; c++) {
+            prices.add(FinalPricedAllocationBreakdownEntity.builder()
+                    .countryCode(BenchmarkData.COUNTRIES[c])
+                    .limitType(LimitEligibilityFilter.YIELD)
+                    .finalPrice(c % 2 == 0 ? new BigDecimal("4.200000") : new BigDecimal("4.300000"))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public int bigDecimalPerAccount() {
+        Map<String, FinalPricedAllocationBreakdownEntity> priceByCountry = prices.stream()
+                .collect(Collectors.toMap(FinalPricedAllocationBreakdownEntity::getCountryCode, Function.identity()));
+        int eligible = 0;
+        for (ClientAllocationBreakdownRequest breakdown : breakdowns) {
+            FinalPricedAllocationBreakdownEntity price = priceByCountry.get(breakdown.getCountryCode());
+            boolean yieldBreach = price != null && breakdown.getYieldLimit() != null
+                    && LimitEligibilityFilter.YIELD.equals(price.getLimitType())
+                    && price.getFinalPrice().compareTo(breakdown.getYieldLimit()) < 0;
+            boolean sizeBreach = breakdown.getSizeLimit() != null
+                    && breakdown.getFinalAllocation().compareTo(breakdown.getSizeLimit()) > 0;
+            eligible += yieldBreach || sizeBreach ? 0 : 1;
+        }
+        return eligible;
+    }
+
+    @Benchmark
+    public LimitEligibilityFilter.Result filterOnce() {
+        return LimitEligibilityFilter.evaluate(breakdowns, prices);
+    }
+}
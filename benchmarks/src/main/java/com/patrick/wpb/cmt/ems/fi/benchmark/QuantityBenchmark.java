@@ -0,0 +1,73 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Summing the final allocations of a submission, the check {@code validateFinalAllocations} runs on every client
+ * allocation submit. {@code bigDecimalReduce} is the previous stream reduction, {@code scaledUnits} the
+ * {@link Quantity#unitsOf} loop the service runs now, and {@code quantityPlus} the same sum over {@link Quantity}
+ * values already held as such. Run with {@code -prof gc} for bytes per op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class QuantityBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int accountCount;
+
+    private List<ClientAllocationBreakdownRequest> requests;
+    private Quantity[] quantities;
+
+    @Setup
+    public void setUp() {
+        requests = BenchmarkData.breakdownRequests(accountCount);
+        quantities = requests.stream()
+                .map(request -> Quantity.of(request.getFinalAllocation()))
+                .toArray(Quantity[]::new);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        return requests.stream()
+                .map(ClientAllocationBreakdownRequest::getFinalAllocation)
+                .filter(Objects::nonNull)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public long scaledUnits() {
+        long total = 0;
+        for (ClientAllocationBreakdownRequest request : requests) {
+            total = Math.addExact(total, Quantity.unitsOrZero(request.getFinalAllocation()));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long quantityPlus() {
+        long total = 0;
+        for (Quantity quantity : quantities) {
+            total = Math.addExact(total, quantity.units());
+        }
+        return total;
+    }
+}
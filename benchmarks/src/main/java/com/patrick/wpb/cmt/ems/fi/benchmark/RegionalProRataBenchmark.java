@@ -0,0 +1,76 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.service.RegionalProRataEngine;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Splitting the HK and SG amounts over a regional book. {@code bigDecimalPerAccount} is the per-account
+ * {@code BigDecimal} division a client would run, rounding each share on its own so the shares need not add up to
+ * the market amount; {@code proRataEngine} is {@link RegionalProRataEngine}, exact to the unit with the leftover
+ * handed out by largest remainder.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class RegionalProRataBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int accountCount;
+
+    private RegionalAllocationEntity allocation;
+    private List<RegionalAllocationBreakdownRequest> breakdowns;
+
+    @Setup
+    public void setUp() {
+        allocation = BenchmarkData.regionalAllocation("PRORATA-BENCH");
+        breakdowns = BenchmarkData.regionalBreakdownRequests(accountCount);
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalPerAccount() {
+        Map<String, BigDecimal> effectiveByMarket = new HashMap<>();
+        BigDecimal[] effective = new BigDecimal[breakdowns.size()];
+        for (int i = 0; i < effective.length; i++) {
+            RegionalAllocationBreakdownRequest breakdown = breakdowns.get(i);
+            effective[i] = breakdown.getSizeLimit() == null
+                    ? breakdown.getOrderQuantity()
+                    : breakdown.getOrderQuantity().min(breakdown.getSizeLimit());
+            effectiveByMarket.merge(breakdown.getCountryCode(), effective[i], BigDecimal::add);
+        }
+        Map<String, BigDecimal> amounts = Map.of(
+                "HK", allocation.getHkOrderQuantity(),
+                "SG", allocation.getSgOrderQuantity());
+        BigDecimal[] shares = new BigDecimal[effective.length];
+        for (int i = 0; i < shares.length; i++) {
+            String market = breakdowns.get(i).getCountryCode();
+            BigDecimal total = effectiveByMarket.get(market);
+            shares[i] = effective[i].multiply(amounts.get(market).min(total)).divide(total, 4, RoundingMode.HALF_UP);
+        }
+        return shares;
+    }
+
+    @Benchmark
+    public RegionalProRataEngine.Result proRataEngine() {
+        return RegionalProRataEngine.allocate(allocation, breakdowns);
+    }
+}
@@ -0,0 +1,118 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.service.StatusService;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable.State;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Transition check used by every workflow call: the precomputed bit matrix in {@link StatusTransitionTable}
+ * against the previous list + stream scan over the same transitions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class StatusTransitionBenchmark {
+
+    private StatusTransitionTable table;
+    private List<Transition> transitionList;
+    private IPOOrderStatus[] fromStatuses;
+    private IPOOrderSubStatus[] fromSubStatuses;
+    private IPOOrderStatus[] toStatuses;
+    private IPOOrderSubStatus[] toSubStatuses;
+
+    @Setup
+    public void setUp() {
+        table = new StatusService(null, null, null, null).getTransitionTable();
+
+        // Every (from, to) pair over all states, so hits and misses are both exercised
+        transitionList = new ArrayList<>();
+        List<IPOOrderStatus> fromS = new ArrayList<>();
+        List<IPOOrderSubStatus> fromSub = new ArrayList<>();
+        List<IPOOrderStatus> toS = new ArrayList<>();
+        List<IPOOrderSubStatus> toSub = new ArrayList<>();
+        for (IPOOrderStatus status : IPOOrderStatus.values()) {
+            for (IPOOrderSubStatus subStatus : IPOOrderSubStatus.values()) {
+                for (State next : table.nextStates(status, subStatus)) {
+                    if (next.status() != IPOOrderStatus.CANCELLED) {
+                        transitionList.add(new Transition(status, subStatus, next.status(), next.subStatus()));
+                    }
+                }
+                for (IPOOrderStatus targetStatus : IPOOrderStatus.values()) {
+                    for (IPOOrderSubStatus targetSubStatus : IPOOrderSubStatus.values()) {
+                        fromS.add(status);
+                        fromSub.add(subStatus);
+                        toS.add(targetStatus);
+                        toSub.add(targetSubStatus);
+                    }
+                }
+            }
+        }
+        fromStatuses = fromS.toArray(IPOOrderStatus[]::new);
+        fromSubStatuses = fromSub.toArray(IPOOrderSubStatus[]::new);
+        toStatuses = toS.toArray(IPOOrderStatus[]::new);
+        toSubStatuses = toSub.toArray(IPOOrderSubStatus[]::new);
+    }
+
+    @Benchmark
+    public void transitionTable(Blackhole blackhole) {
+        for (int i = 0; i < fromStatuses.length; i++) {
+            blackhole.consume(table.isAllowed(fromStatuses[i], fromSubStatuses[i], toStatuses[i], toSubStatuses[i]));
+        }
+    }
+
+    @Benchmark
+    public void streamOverTransitionList(Blackhole blackhole) {
+        for (int i = 0; i < fromStatuses.length; i++) {
+            blackhole.consume(legacyIsAllowed(fromStatuses[i], fromSubStatuses[i], toStatuses[i], toSubStatuses[i]));
+        }
+    }
+
+    private boolean legacyIsAllowed(IPOOrderStatus fromStatus,
+                                    IPOOrderSubStatus fromSubStatus,
+                                    IPOOrderStatus toStatus,
+                                    IPOOrderSubStatus toSubStatus) {
+        if (Objects.equals(fromStatus, toStatus) && Objects.equals(fromSubStatus, toSubStatus)) {
+            return true;
+        }
+        if (toStatus == IPOOrderStatus.CANCELLED) {
+            return true;
+        }
+        return transitionList.stream()
+                .anyMatch(transition -> transition.matches(fromStatus, fromSubStatus, toStatus, toSubStatus));
+    }
+
+    private record Transition(IPOOrderStatus fromStatus,
+                              IPOOrderSubStatus fromSubStatus,
+                              IPOOrderStatus toStatus,
+                              IPOOrderSubStatus toSubStatus) {
+
+        private boolean matches(IPOOrderStatus currentStatus,
+                                IPOOrderSubStatus currentSubStatus,
+                                IPOOrderStatus targetStatus,
+                                IPOOrderSubStatus targetSubStatus) {
+            return fromStatus == currentStatus
+                    && fromSubStatus == currentSubStatus
+                    && toStatus == targetStatus
+                    && toSubStatus == targetSubStatus;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.patrick.wpb.cmt.ems.fi.benchmark;
+
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.util.TraderOrderCloneUtil;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link TraderOrderCloneUtil} as used when an order is split or grouped: one clone per target order, with a
+ * new country and quantity. The generated-id variant includes the {@code UUID.randomUUID()} the split path pays
+ * for; the given-id variant isolates the property copy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class TraderOrderCloneBenchmark {
+
+    @Param({"10", "1000"})
+    public int orderCount;
+
+    private TraderOrderEntity source;
+    private String[] clientOrderIds;
+    private BigDecimal quantity;
+
+    @Setup
+    public void setUp() {
+        source = BenchmarkData.order("SOURCE-ORDER");
+        clientOrderIds = new String[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            clientOrderIds[i] = "SPLIT-" + i;
+        }
+        quantity = new BigDecimal("2500.0000");
+    }
+
+    @Benchmark
+    public void cloneWithGeneratedId(Blackhole blackhole) {
+        for (int i = 0; i < orderCount; i++) {
+            blackhole.consume(TraderOrderCloneUtil.cloneWithNewCountryAndQuantity(
+                    source, BenchmarkData.country(i), quantity));
+        }
+    }
+
+    @Benchmark
+    public void cloneWithGivenId(Blackhole blackhole) {
+        for (int i = 0; i < orderCount; i++) {
+            blackhole.consume(TraderOrderCloneUtil.clone(
+                    source, clientOrderIds[i], BenchmarkData.country(i), quantity));
+        }
+    }
+}
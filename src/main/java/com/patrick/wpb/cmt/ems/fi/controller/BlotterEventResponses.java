@@ -0,0 +1,49 @@
+package com.patrick.wpb.cmt.ems.fi.controller;
+
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterEventService;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Connects a server-sent events response to {@link BlotterEventService}; the subscription ends with the response.
+ */
+@Component
+@RequiredArgsConstructor
+class BlotterEventResponses {
+
+    private final BlotterEventService blotterEventService;
+
+    @Value("${ems.blotter.events.timeout:PT30M}")
+    private Duration timeout;
+
+    SseEmitter sse(Set<BlotterBucket> buckets) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        BlotterEventService.Subscription subscription = blotterEventService.subscribe(buckets, new BlotterEventService.Sink() {
+            @Override
+            public void send(String event, String json) throws IOException {
+                emitter.send(SseEmitter.event().name(event).data(json, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(() -> blotterEventService.unsubscribe(subscription));
+        emitter.onTimeout(() -> blotterEventService.unsubscribe(subscription));
+        emitter.onError(error -> blotterEventService.unsubscribe(subscription));
+        return emitter;
+    }
+}
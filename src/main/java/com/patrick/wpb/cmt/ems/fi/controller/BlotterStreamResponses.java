@@ -0,0 +1,46 @@
+package com.patrick.wpb.cmt.ems.fi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterService;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Writes a blotter bucket as newline-delimited JSON, one {@code TraderOrderSummaryDto} per line, straight from
+ * the repository stream to the response.
+ */
+@Component
+@RequiredArgsConstructor
+class BlotterStreamResponses {
+
+    private static final int NEWLINE = '\n';
+
+    private final BlotterService blotterService;
+    private final ObjectMapper objectMapper;
+
+    ResponseEntity<StreamingResponseBody> ndjson(BlotterBucket bucket) {
+        StreamingResponseBody body = responseStream -> {
+            OutputStream out = new BufferedOutputStream(responseStream);
+            blotterService.streamBucket(bucket, order -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(order));
+                    out.write(NEWLINE);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -1,11 +1,18 @@
 package com.patrick.wpb.cmt.ems.fi.controller;
 
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterPageDto;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownDto;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationDetailDto;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientProRataDto;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientProRataRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.LimitEligibilityDto;
+import com.patrick.wpb.cmt.ems.fi.dto.LimitEligibilityRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.StatusUpdateRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.SubmitClientAllocationRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
 import com.patrick.wpb.cmt.ems.fi.dto.UpdateClientAllocationsRequest;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterService;
 import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,7 +25,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,6 +35,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class ClientAllocationController {
 
     private final ClientAllocationService clientAllocationService;
+    private final BlotterService blotterService;
+    private final BlotterStreamResponses blotterStreamResponses;
 
     @GetMapping("/client-allocation")
     public ResponseEntity<List<TraderOrderSummaryDto>> getPendingClientAllocationOrders() {
@@ -35,6 +46,17 @@ public class ClientAllocationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/client-allocation/page")
+    public ResponseEntity<BlotterPageDto> getPendingClientAllocationOrdersPage(@RequestParam(required = false) String cursor,
+                                                                               @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(blotterService.fetchPage(BlotterBucket.CLIENT_ALLOCATION, cursor, size));
+    }
+
+    @GetMapping("/client-allocation/stream")
+    public ResponseEntity<StreamingResponseBody> getPendingClientAllocationOrdersStream() {
+        return blotterStreamResponses.ndjson(BlotterBucket.CLIENT_ALLOCATION);
+    }
+
     @GetMapping("/client-allocation/approvals")
     public ResponseEntity<List<TraderOrderSummaryDto>> getPendingClientAllocationApprovals() {
         List<TraderOrderSummaryDto> response = clientAllocationService.fetchPendingClientAllocationApprovals().stream()
@@ -43,6 +65,17 @@ public class ClientAllocationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/client-allocation/approvals/page")
+    public ResponseEntity<BlotterPageDto> getPendingClientAllocationApprovalsPage(@RequestParam(required = false) String cursor,
+                                                                                  @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(blotterService.fetchPage(BlotterBucket.CLIENT_ALLOCATION_APPROVAL, cursor, size));
+    }
+
+    @GetMapping("/client-allocation/approvals/stream")
+    public ResponseEntity<StreamingResponseBody> getPendingClientAllocationApprovalsStream() {
+        return blotterStreamResponses.ndjson(BlotterBucket.CLIENT_ALLOCATION_APPROVAL);
+    }
+
     @GetMapping("/{clientOrderId}/client-allocations")
     public ResponseEntity<List<ClientAllocationBreakdownDto>> getClientAllocations(@PathVariable String clientOrderId) {
         List<ClientAllocationBreakdownDto> response = clientAllocationService.getBreakdowns(clientOrderId).stream()
@@ -61,6 +94,31 @@ public class ClientAllocationController {
         );
     }
 
+    @PostMapping("/{clientOrderId}/client-allocations/pro-rata")
+    public ResponseEntity<ClientProRataDto> computeProRata(@PathVariable String clientOrderId,
+                                                           @Valid @RequestBody ClientProRataRequest request) {
+        return ResponseEntity.ok(
+                clientAllocationService.computeProRata(
+                        clientOrderId,
+                        request.getBreakdowns(),
+                        request.getLotSize(),
+                        request.getMinimumDenomination()
+                )
+        );
+    }
+
+    @PostMapping("/{clientOrderId}/client-allocations/eligibility")
+    public ResponseEntity<LimitEligibilityDto> evaluateLimits(@PathVariable String clientOrderId,
+                                                              @RequestBody LimitEligibilityRequest request) {
+        return ResponseEntity.ok(
+                clientAllocationService.evaluateLimits(
+                        clientOrderId,
+                        request.getBreakdowns(),
+                        request.isExcludeIneligible()
+                )
+        );
+    }
+
     @PostMapping("/{clientOrderId}/client-allocations/submit")
     public ResponseEntity<TraderOrderSummaryDto> submitForApproval(@PathVariable String clientOrderId,
                                                                    @Valid @RequestBody SubmitClientAllocationRequest request) {
@@ -0,0 +1,90 @@
+package com.patrick.wpb.cmt.ems.fi.controller;
+
+import com.patrick.wpb.cmt.ems.fi.service.AmendLogArchivedException;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterCapacityException;
+import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionJobNotFoundException;
+import com.patrick.wpb.cmt.ems.fi.service.OrderStateConflictException;
+import com.patrick.wpb.cmt.ems.fi.service.TraderOrderNotFoundException;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the exceptions the services throw to {@link ProblemDetail} responses. Kept in one advice so the handler for
+ * the closest exception type always wins; any other {@code IllegalStateException} is left to the default 500
+ * handling, which does not echo its message.
+ */
+@RestControllerAdvice
+class ErrorResponses {
+
+    @Value("${ems.blotter.events.retry-after:PT5S}")
+    private Duration blotterRetryAfter;
+
+    /**
+     * Input the services cannot act on (a quantity outside its lots, a malformed cursor): 400 with the service's
+     * message.
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    ProblemDetail invalidRequest(IllegalArgumentException ex) {
+        return problem(HttpStatus.BAD_REQUEST, "Invalid request", ex.getMessage());
+    }
+
+    /**
+     * An order or job the path names but the database does not hold: 404, so a client polling a job it never
+     * submitted is told so instead of getting a bad request.
+     */
+    @ExceptionHandler({TraderOrderNotFoundException.class, IPOExecutionJobNotFoundException.class})
+    ProblemDetail notFound(RuntimeException ex) {
+        return problem(HttpStatus.NOT_FOUND, "Not found", ex.getMessage());
+    }
+
+    /**
+     * The order changed under the caller after the service's retries were used up: 409.
+     */
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    ProblemDetail concurrentModification(ConcurrencyFailureException ex) {
+        return problem(HttpStatus.CONFLICT, "Concurrent modification",
+                "Order was modified concurrently, reload and try again.");
+    }
+
+    /**
+     * Another caller already moved the order (e.g. the competing approver won), so the request no longer applies to
+     * its current state: 409.
+     */
+    @ExceptionHandler(OrderStateConflictException.class)
+    ProblemDetail invalidState(OrderStateConflictException ex) {
+        return problem(HttpStatus.CONFLICT, "Order state conflict", ex.getMessage());
+    }
+
+    /**
+     * Amend history that reaches into an archived partition: 410, so a client can tell "moved off the database"
+     * apart from a server error.
+     */
+    @ExceptionHandler(AmendLogArchivedException.class)
+    ProblemDetail archived(AmendLogArchivedException ex) {
+        return problem(HttpStatus.GONE, "Amend history archived", ex.getMessage());
+    }
+
+    /**
+     * A refusal caused by a temporary lack of capacity: 503 with a {@code Retry-After} telling the client when to
+     * try again.
+     */
+    @ExceptionHandler(BlotterCapacityException.class)
+    ResponseEntity<ProblemDetail> blotterBusy(BlotterCapacityException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(blotterRetryAfter.toSeconds()))
+                .body(problem(HttpStatus.SERVICE_UNAVAILABLE, "Blotter events busy", ex.getMessage()));
+    }
+
+    private static ProblemDetail problem(HttpStatus status, String title, String detail) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, detail);
+        problem.setTitle(title);
+        return problem;
+    }
+}
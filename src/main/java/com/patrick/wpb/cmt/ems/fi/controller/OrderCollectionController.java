@@ -1,23 +1,39 @@
 package com.patrick.wpb.cmt.ems.fi.controller;
 
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterPageDto;
+import com.patrick.wpb.cmt.ems.fi.dto.BulkStatusUpdateRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.BulkStatusUpdateResultDto;
 import com.patrick.wpb.cmt.ems.fi.dto.GroupOrdersRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.IPOExecutionJobDto;
+import com.patrick.wpb.cmt.ems.fi.dto.StatusTransitionDto;
 import com.patrick.wpb.cmt.ems.fi.dto.StatusUpdateRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
 import com.patrick.wpb.cmt.ems.fi.request.IPOExecRequest;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterService;
+import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionJobService;
 import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionService;
 import com.patrick.wpb.cmt.ems.fi.service.StatusService;
 import com.patrick.wpb.cmt.ems.fi.service.TraderOrderService;
 import jakarta.validation.Valid;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -27,13 +43,51 @@ public class OrderCollectionController {
     private final TraderOrderService traderOrderService;
     private final StatusService statusService;
     private final IPOExecutionService ipoExecutionService;
+    private final IPOExecutionJobService ipoExecutionJobService;
+    private final BlotterService blotterService;
+    private final BlotterStreamResponses blotterStreamResponses;
+    private final BlotterEventResponses blotterEventResponses;
 
     @GetMapping("/collection")
     public ResponseEntity<List<TraderOrderSummaryDto>> getOrderCollection() {
-        List<TraderOrderSummaryDto> response = traderOrderService.fetchOrderCollectionBlotter().stream()
-                .map(TraderOrderSummaryDto::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(traderOrderService.fetchOrderCollectionBlotterSummaries());
+    }
+
+    @GetMapping("/collection/page")
+    public ResponseEntity<BlotterPageDto> getOrderCollectionPage(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(blotterService.fetchPage(BlotterBucket.COLLECTION, cursor, size));
+    }
+
+    @GetMapping("/collection/stream")
+    public ResponseEntity<StreamingResponseBody> getOrderCollectionStream() {
+        return blotterStreamResponses.ndjson(BlotterBucket.COLLECTION);
+    }
+
+    /**
+     * Server-sent events: a snapshot of the requested buckets (all by default), then coalesced deltas.
+     */
+    @GetMapping(value = "/blotter/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getBlotterEvents(@RequestParam(required = false) Set<BlotterBucket> buckets) {
+        return blotterEventResponses.sse(buckets == null || buckets.isEmpty() ? EnumSet.allOf(BlotterBucket.class) : buckets);
+    }
+
+    @GetMapping("/status-transitions")
+    public ResponseEntity<List<StatusTransitionDto>> getStatusTransitions() {
+        return ResponseEntity.ok(StatusTransitionDto.fromTable(statusService.getTransitionTable()));
+    }
+
+    @PostMapping("/status/bulk")
+    public ResponseEntity<List<BulkStatusUpdateResultDto>> updateStatuses(@Valid @RequestBody BulkStatusUpdateRequest request) {
+        return ResponseEntity.ok(
+                statusService.updateStatuses(
+                        request.getClientOrderIds(),
+                        request.getTargetStatus(),
+                        request.getTargetSubStatus(),
+                        request.getChangedBy(),
+                        request.getNote()
+                )
+        );
     }
 
     @PostMapping("/group")
@@ -86,5 +140,30 @@ public class OrderCollectionController {
                 .collect(Collectors.toList());
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Asynchronous variant of {@link #executeIPOOrder}: returns 202 with the job right away and a Location to poll.
+     * Resubmitting with the same {@code Idempotency-Key} returns the same job instead of splitting again.
+     */
+    @PostMapping("/{clientOrderId}/ipo-execution/jobs")
+    public ResponseEntity<IPOExecutionJobDto> submitIPOExecutionJob(@PathVariable String clientOrderId,
+                                                                    @RequestHeader("Idempotency-Key") String idempotencyKey,
+                                                                    @Valid @RequestBody IPOExecRequest request) {
+        if (idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency-Key header must not be blank");
+        }
+        IPOExecutionJobDto job = ipoExecutionJobService.submit(clientOrderId, idempotencyKey, request);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{jobId}")
+                        .buildAndExpand(job.getJobId())
+                        .toUri())
+                .body(job);
+    }
+
+    @GetMapping("/{clientOrderId}/ipo-execution/jobs/{jobId}")
+    public ResponseEntity<IPOExecutionJobDto> getIPOExecutionJob(@PathVariable String clientOrderId,
+                                                                 @PathVariable String jobId) {
+        return ResponseEntity.ok(ipoExecutionJobService.getJob(clientOrderId, jobId));
+    }
+}
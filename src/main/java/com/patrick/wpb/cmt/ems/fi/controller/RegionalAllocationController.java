@@ -1,11 +1,16 @@
 package com.patrick.wpb.cmt.ems.fi.controller;
 
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterPageDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationDetailDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalProRataPreviewDto;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalProRataPreviewRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.StatusUpdateRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.SubmitRegionalAllocationRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterService;
 import com.patrick.wpb.cmt.ems.fi.service.RegionalAllocationService;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -18,7 +23,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -26,6 +33,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class RegionalAllocationController {
 
     private final RegionalAllocationService regionalAllocationService;
+    private final BlotterService blotterService;
+    private final BlotterStreamResponses blotterStreamResponses;
 
     @GetMapping("/regional-allocation")
     public ResponseEntity<List<TraderOrderSummaryDto>> getRegionalAllocationOrders() {
@@ -35,6 +44,17 @@ public class RegionalAllocationController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/regional-allocation/page")
+    public ResponseEntity<BlotterPageDto> getRegionalAllocationOrdersPage(@RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(blotterService.fetchPage(BlotterBucket.REGIONAL_ALLOCATION, cursor, size));
+    }
+
+    @GetMapping("/regional-allocation/stream")
+    public ResponseEntity<StreamingResponseBody> getRegionalAllocationOrdersStream() {
+        return blotterStreamResponses.ndjson(BlotterBucket.REGIONAL_ALLOCATION);
+    }
+
     @PutMapping("/{clientOrderId}/regional-allocation")
     public ResponseEntity<RegionalAllocationDto> upsertRegionalAllocation(@PathVariable String clientOrderId,
                                                                           @Valid @RequestBody RegionalAllocationRequest request) {
@@ -69,6 +89,14 @@ public class RegionalAllocationController {
         );
     }
 
+    @PostMapping("/{clientOrderId}/regional-allocation/pro-rata/preview")
+    public ResponseEntity<RegionalProRataPreviewDto> previewRegionalProRata(@PathVariable String clientOrderId,
+                                                                            @Valid @RequestBody RegionalProRataPreviewRequest request) {
+        return ResponseEntity.ok(
+                regionalAllocationService.previewProRata(clientOrderId, request.getRegionalAllocationBreakdowns())
+        );
+    }
+
     @PostMapping("/{clientOrderId}/regional-allocation/approve")
     public ResponseEntity<TraderOrderSummaryDto> approveRegionalAllocation(@PathVariable String clientOrderId,
                                                                            @Valid @RequestBody StatusUpdateRequest request) {
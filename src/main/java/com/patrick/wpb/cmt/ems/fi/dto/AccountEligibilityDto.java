@@ -0,0 +1,18 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.LimitBreach;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@AllArgsConstructor
+public class AccountEligibilityDto {
+
+    String countryCode;
+    String accountNumber;
+    boolean eligible;
+    List<LimitBreach> breaches;
+}
@@ -0,0 +1,50 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import lombok.Value;
+
+/**
+ * Keyset position in a blotter, i.e. the {@code (updated_at, client_order_id)} of the last row already returned.
+ * Exchanged with clients as an opaque URL-safe token.
+ */
+@Value
+public class BlotterCursor {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Position before the first row of any blotter.
+     */
+    public static final BlotterCursor START = new BlotterCursor(Instant.EPOCH, "");
+
+    Instant updatedAt;
+    String clientOrderId;
+
+    public static BlotterCursor after(TraderOrderSummaryDto last) {
+        return new BlotterCursor(last.getUpdatedAt(), last.getClientOrderId());
+    }
+
+    public static BlotterCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid blotter cursor " + token);
+            }
+            return new BlotterCursor(Instant.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid blotter cursor " + token, ex);
+        }
+    }
+
+    public String encode() {
+        String raw = updatedAt.toString() + SEPARATOR + clientOrderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
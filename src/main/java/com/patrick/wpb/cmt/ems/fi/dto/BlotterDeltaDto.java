@@ -0,0 +1,26 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Latest state of one changed order on the blotter event stream. Several changes to an order within one coalescing
+ * window arrive as a single delta.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class BlotterDeltaDto {
+    String clientOrderId;
+    /**
+     * The bucket the order is in now; {@code null}, or a bucket the subscriber did not ask for, means it left the
+     * subscriber's blotters.
+     */
+    BlotterBucket bucket;
+    /**
+     * Current summary, {@code null} if the order no longer exists.
+     */
+    TraderOrderSummaryDto order;
+}
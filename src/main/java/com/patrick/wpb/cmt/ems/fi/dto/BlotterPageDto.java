@@ -0,0 +1,15 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BlotterPageDto {
+    List<TraderOrderSummaryDto> items;
+    /**
+     * Token to pass as {@code cursor} for the next page, {@code null} once the blotter is exhausted.
+     */
+    String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * One chunk of a bucket's initial contents on the blotter event stream, in keyset order.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class BlotterSnapshotDto {
+    BlotterBucket bucket;
+    List<TraderOrderSummaryDto> orders;
+}
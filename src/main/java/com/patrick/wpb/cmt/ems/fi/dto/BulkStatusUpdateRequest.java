@@ -0,0 +1,31 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BulkStatusUpdateRequest {
+
+    // Each id list is bound into single IN (...) statements, so a request stays well under PostgreSQL's 32767
+    // bind parameters
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@NotBlank String> clientOrderIds;
+
+    @NotNull
+    private IPOOrderStatus targetStatus;
+
+    @NotNull
+    private IPOOrderSubStatus targetSubStatus;
+
+    @NotBlank
+    private String changedBy;
+
+    private String note;
+}
@@ -0,0 +1,18 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class BulkStatusUpdateResultDto {
+    String clientOrderId;
+    boolean updated;
+    IPOOrderStatus fromStatus;
+    IPOOrderSubStatus fromSubStatus;
+    IPOOrderStatus status;
+    IPOOrderSubStatus subStatus;
+    String error;
+}
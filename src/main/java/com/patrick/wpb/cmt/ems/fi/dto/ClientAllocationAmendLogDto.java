@@ -33,5 +33,23 @@ public class ClientAllocationAmendLogDto {
                 .createdBy(entity.getCreatedBy())
                 .build();
     }
+
+    /**
+     * For rows whose snapshots are stored encoded; the JSON is rendered from the decoded breakdown lists.
+     */
+    public static ClientAllocationAmendLogDto fromEntity(ClientAllocationAmendLogEntity entity,
+                                                         String beforeObjectJson,
+                                                         String afterObjectJson) {
+        return ClientAllocationAmendLogDto.builder()
+                .id(entity.getId())
+                .revision(entity.getRevision())
+                .refId(entity.getRefId())
+                .objectType(entity.getObjectType())
+                .beforeObjectJson(beforeObjectJson)
+                .afterObjectJson(afterObjectJson)
+                .action(entity.getAction())
+                .createdBy(entity.getCreatedBy())
+                .build();
+    }
 }
 
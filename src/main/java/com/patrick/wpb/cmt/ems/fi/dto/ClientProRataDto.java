@@ -0,0 +1,27 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Server-computed client allocations of an order, split per market from its final regional allocations;
+ * {@code totalQuantity} is the sum of the market amounts. {@code breakdowns} carry {@code finalAllocation} and
+ * {@code allocationPercentage} and can be posted unchanged to the client allocation submit; nothing is saved.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class ClientProRataDto {
+
+    BigDecimal totalQuantity;
+    BigDecimal allocatedQuantity;
+    BigDecimal unallocatedQuantity;
+    BigDecimal lotSize;
+    BigDecimal minimumDenomination;
+    int allocatedAccounts;
+    int belowMinimumAccounts;
+    List<ClientAllocationBreakdownRequest> breakdowns;
+}
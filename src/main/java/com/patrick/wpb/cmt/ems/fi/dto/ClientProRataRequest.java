@@ -0,0 +1,21 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class ClientProRataRequest {
+
+    /**
+     * Accounts to allocate; {@code finalAllocation} may be omitted. Defaults to the order's saved breakdowns.
+     */
+    private List<ClientAllocationBreakdownRequest> breakdowns;
+
+    @Positive
+    private BigDecimal lotSize;
+
+    @Positive
+    private BigDecimal minimumDenomination;
+}
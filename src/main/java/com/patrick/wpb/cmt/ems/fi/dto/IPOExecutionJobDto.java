@@ -0,0 +1,44 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.patrick.wpb.cmt.ems.fi.entity.IPOExecutionJobEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOExecutionJobStatus;
+import java.time.Instant;
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IPOExecutionJobDto {
+
+    String jobId;
+    String idempotencyKey;
+    String clientOrderId;
+    IPOExecutionJobStatus status;
+    List<String> groupOrderIds;
+    String errorMessage;
+    Integer attempts;
+    Instant createdAt;
+    Instant startedAt;
+    Instant completedAt;
+
+    public static IPOExecutionJobDto fromEntity(IPOExecutionJobEntity entity) {
+        String groupOrderIds = entity.getGroupOrderIds();
+        return IPOExecutionJobDto.builder()
+                .jobId(entity.getJobId())
+                .idempotencyKey(entity.getIdempotencyKey())
+                .clientOrderId(entity.getClientOrderId())
+                .status(entity.getStatus())
+                .groupOrderIds(groupOrderIds == null || groupOrderIds.isEmpty()
+                        ? List.of()
+                        : List.of(groupOrderIds.split(",")))
+                .errorMessage(entity.getErrorMessage())
+                .attempts(entity.getAttempts())
+                .createdAt(entity.getCreatedAt())
+                .startedAt(entity.getStartedAt())
+                .completedAt(entity.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Limit check of an order's client breakdowns against its final prices. {@code flaggedAccounts} lists every account
+ * with a breach or without a price, in input order; {@code breakdowns} are the checked accounts, without the
+ * ineligible ones when exclusion was requested, ready for the pro-rata or submit endpoints. Nothing is saved.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class LimitEligibilityDto {
+
+    int totalAccounts;
+    int eligibleAccounts;
+    int yieldBreaches;
+    int spreadBreaches;
+    int sizeBreaches;
+    int unpricedAccounts;
+    List<AccountEligibilityDto> flaggedAccounts;
+    List<ClientAllocationBreakdownRequest> breakdowns;
+}
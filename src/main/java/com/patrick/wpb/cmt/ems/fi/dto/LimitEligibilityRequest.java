@@ -0,0 +1,18 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class LimitEligibilityRequest {
+
+    /**
+     * Accounts to check; defaults to the order's saved client breakdowns.
+     */
+    private List<ClientAllocationBreakdownRequest> breakdowns;
+
+    /**
+     * Leave accounts with a yield, spread or size breach out of the returned breakdowns.
+     */
+    private boolean excludeIneligible;
+}
@@ -0,0 +1,21 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class OrderStateDto {
+    IPOOrderStatus status;
+    IPOOrderSubStatus subStatus;
+
+    public static OrderStateDto fromState(StatusTransitionTable.State state) {
+        return OrderStateDto.builder()
+                .status(state.status())
+                .subStatus(state.subStatus())
+                .build();
+    }
+}
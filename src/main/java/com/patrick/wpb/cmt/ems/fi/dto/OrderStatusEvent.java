@@ -0,0 +1,43 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.entity.OrderStatusOutboxEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Order status change as published to downstream systems. Delivery is at-least-once, so consumers should ignore
+ * an {@code eventId} they have already processed; the ids of one order's events increase in the order the changes
+ * were made.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class OrderStatusEvent {
+    long eventId;
+    String clientOrderId;
+    IPOOrderStatus fromStatus;
+    IPOOrderSubStatus fromSubStatus;
+    IPOOrderStatus toStatus;
+    IPOOrderSubStatus toSubStatus;
+    String changedBy;
+    Instant changedAt;
+    String note;
+
+    public static OrderStatusEvent fromEntity(OrderStatusOutboxEntity entity) {
+        return OrderStatusEvent.builder()
+                .eventId(entity.getId())
+                .clientOrderId(entity.getClientOrderId())
+                .fromStatus(entity.getFromStatus())
+                .fromSubStatus(entity.getFromSubStatus())
+                .toStatus(entity.getToStatus())
+                .toSubStatus(entity.getToSubStatus())
+                .changedBy(entity.getChangedBy())
+                .changedAt(entity.getChangedAt())
+                .note(entity.getNote())
+                .build();
+    }
+}
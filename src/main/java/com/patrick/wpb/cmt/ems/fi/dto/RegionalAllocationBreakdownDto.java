@@ -4,11 +4,13 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationBreakdownEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.RegionalAllocationStatus;
 import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 
 @Value
 @Builder
+@AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class RegionalAllocationBreakdownDto {
 
@@ -1,17 +1,23 @@
 package com.patrick.wpb.cmt.ems.fi.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
-import java.math.BigDecimal;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 
+/**
+ * Order and allocated quantities of an order's regional breakdowns summed per country, as read from the
+ * {@code regional_allocation_country_summary} table by
+ * {@code RegionalAllocationCountrySummaryRepository.findSummariesByClientOrderId}.
+ */
 @Value
 @Builder
+@AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class RegionalAllocationBreakdownSummaryDto {
 
     String countryCode;
-    BigDecimal totalOrderQuantity;
-    BigDecimal totalAllocatedQuantity;
+    Quantity totalOrderQuantity;
+    Quantity totalAllocatedQuantity;
 }
-
@@ -0,0 +1,19 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Server-side pro-rata split of an order's HK and SG amounts: one row per market and the submitted breakdowns with
+ * {@code allocatedQuantity} filled in, in submission order. Nothing is saved.
+ */
+@Value
+@Builder
+@AllArgsConstructor
+public class RegionalProRataPreviewDto {
+
+    List<FinalRegionalAllocationDto> finalRegionalAllocations;
+    List<RegionalAllocationBreakdownDto> regionalAllocationBreakdowns;
+}
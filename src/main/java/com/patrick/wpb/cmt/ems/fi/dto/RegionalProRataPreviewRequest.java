@@ -0,0 +1,14 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class RegionalProRataPreviewRequest {
+
+    @NotEmpty
+    @Valid
+    private List<RegionalAllocationBreakdownRequest> regionalAllocationBreakdowns;
+}
@@ -0,0 +1,31 @@
+package com.patrick.wpb.cmt.ems.fi.dto;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class StatusTransitionDto {
+    IPOOrderStatus status;
+    IPOOrderSubStatus subStatus;
+    List<OrderStateDto> allowedNextStates;
+
+    public static List<StatusTransitionDto> fromTable(StatusTransitionTable table) {
+        List<StatusTransitionDto> result = new ArrayList<>();
+        table.asMap().forEach((status, bySubStatus) -> bySubStatus.forEach((subStatus, nextStates) ->
+                result.add(StatusTransitionDto.builder()
+                        .status(status)
+                        .subStatus(subStatus)
+                        .allowedNextStates(nextStates.stream()
+                                .map(OrderStateDto::fromState)
+                                .collect(Collectors.toList()))
+                        .build())));
+        return result;
+    }
+}
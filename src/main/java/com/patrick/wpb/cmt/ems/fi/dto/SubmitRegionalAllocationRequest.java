@@ -22,7 +22,9 @@ public class SubmitRegionalAllocationRequest {
     @Valid
     private List<FinalPricedAllocationBreakdownRequest> finalPricedAllocationBreakdowns;
 
-    @NotEmpty
+    /**
+     * Omit to have the server compute the market split and each breakdown's {@code allocatedQuantity}.
+     */
     @Valid
     private List<FinalRegionalAllocationRequest> finalRegionalAllocations;
 }
@@ -4,12 +4,15 @@ import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Value;
 
 @Value
 @Builder
+@AllArgsConstructor
 public class TraderOrderSummaryDto {
     String clientOrderId;
     LocalDate tradeDate;
@@ -20,6 +23,7 @@ public class TraderOrderSummaryDto {
     String securityId;
     BigDecimal orderQuantity;
     BigDecimal cleanPrice;
+    Instant updatedAt;
 
     public static TraderOrderSummaryDto fromEntity(TraderOrderEntity entity) {
         return TraderOrderSummaryDto.builder()
@@ -32,6 +36,7 @@ public class TraderOrderSummaryDto {
                 .securityId(entity.getSecurityId())
                 .orderQuantity(entity.getOrderQuantity())
                 .cleanPrice(entity.getCleanPrice())
+                .updatedAt(entity.getUpdatedAt())
                 .build();
     }
 }
@@ -27,6 +27,10 @@ import lombok.NoArgsConstructor;
 @EqualsAndHashCode(callSuper = false)
 public class ClientAllocationAmendLogEntity extends BaseAuditEntity {
 
+    // bytea on PostgreSQL (length ignored); on H2 a larger length would map to BLOB, which PostgreSQL mode rejects.
+    // A 5k-account columnar snapshot is ~16 KB
+    private static final int MAX_SNAPSHOT_BYTES = 1_000_000;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -49,6 +53,25 @@ public class ClientAllocationAmendLogEntity extends BaseAuditEntity {
     @Column(name = "after_obj")
     private String afterObjectJson;
 
+    /**
+     * Codec of {@link #beforeSnapshot}/{@link #afterSnapshot}; null for rows written before snapshots were
+     * encoded, which keep their content in {@link #beforeObjectJson}/{@link #afterObjectJson}.
+     */
+    @Column(name = "snapshot_codec", length = 32)
+    private String snapshotCodec;
+
+    @Column(name = "before_snapshot", length = MAX_SNAPSHOT_BYTES)
+    private byte[] beforeSnapshot;
+
+    /**
+     * Revision whose after snapshot {@link #beforeSnapshot} is a delta against; null when it is a full snapshot.
+     */
+    @Column(name = "before_base_revision")
+    private Integer beforeBaseRevision;
+
+    @Column(name = "after_snapshot", length = MAX_SNAPSHOT_BYTES)
+    private byte[] afterSnapshot;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "action", nullable = false, length = 32)
     @Builder.Default
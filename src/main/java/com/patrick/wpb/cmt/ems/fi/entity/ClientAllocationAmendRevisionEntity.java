@@ -0,0 +1,37 @@
+package com.patrick.wpb.cmt.ems.fi.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-ref revision counter for {@link ClientAllocationAmendLogEntity}. Incremented in the same transaction as the
+ * amend log insert, so a rolled back amendment also rolls back its revision and the sequence stays gap-free.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "client_allocation_amend_revision")
+public class ClientAllocationAmendRevisionEntity {
+
+    @Id
+    @Column(name = "ref_id", length = 64)
+    private String refId;
+
+    @Column(name = "last_revision", nullable = false)
+    private Integer lastRevision;
+
+    /**
+     * No amend log row of this ref was created before this instant. Lets reads by ref skip older partitions.
+     */
+    @Column(name = "first_logged_at")
+    private Instant firstLoggedAt;
+}
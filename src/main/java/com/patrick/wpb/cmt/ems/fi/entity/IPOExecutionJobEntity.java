@@ -0,0 +1,72 @@
+package com.patrick.wpb.cmt.ems.fi.entity;
+
+import com.patrick.wpb.cmt.ems.fi.entity.base.BaseAuditEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOExecutionJobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * One asynchronous IPO execution split, keyed by the caller's idempotency key. The split itself and the move to
+ * {@code SUCCEEDED} commit in the same transaction, so a job either has its group orders or can be run again.
+ */
+@Entity
+@Table(name = "ipo_execution_job")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class IPOExecutionJobEntity extends BaseAuditEntity {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @Column(name = "job_id", nullable = false, length = 36)
+    private String jobId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "idempotency_key", nullable = false, unique = true, length = 128)
+    private String idempotencyKey;
+
+    @Column(name = "request_fingerprint", nullable = false, length = 64)
+    private String requestFingerprint;
+
+    @Column(name = "client_order_id", nullable = false, length = 64)
+    private String clientOrderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private IPOExecutionJobStatus status;
+
+    /**
+     * Comma-separated client order ids of the group orders created by the split, in request order.
+     */
+    @Column(name = "group_order_ids", columnDefinition = "TEXT")
+    private String groupOrderIds;
+
+    @Column(name = "error_message", length = MAX_ERROR_LENGTH)
+    private String errorMessage;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -3,12 +3,21 @@ package com.patrick.wpb.cmt.ems.fi.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 
@@ -18,7 +27,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @Entity
 @Table(name = "order_execution_detail")
-public class OrderExecutionDetailEntity {
+public class OrderExecutionDetailEntity implements Persistable<String> {
     @Id
     @Column(name = "execution_id")
     private String executionId;
@@ -54,5 +63,32 @@ public class OrderExecutionDetailEntity {
     @Column(name = "executed_price")
     private BigDecimal executedPrice;
 
+    /**
+     * The execution id is assigned by the application, so Spring Data cannot tell a new row from its id. Without
+     * this, {@code save} merges and issues a SELECT per row before inserting.
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted = false;
+
+    @Override
+    public String getId() {
+        return executionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 
 }
@@ -0,0 +1,97 @@
+package com.patrick.wpb.cmt.ems.fi.entity;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An order status change waiting to be published downstream, written in the same transaction as the status audit
+ * row. Ids are taken one at a time from the sequence rather than in pooled blocks: two changes of the same order are
+ * serialized by the order's version check, so the later change always draws the higher id, and publishing in id
+ * order keeps each order's events in commit order across nodes.
+ */
+@Entity
+@Table(name = "order_status_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusOutboxEntity {
+
+    public static final int MAX_ERROR_LENGTH = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_outbox_seq")
+    @SequenceGenerator(name = "order_status_outbox_seq", sequenceName = "order_status_outbox_id_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "client_order_id", nullable = false, length = 64)
+    private String clientOrderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 32)
+    private IPOOrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_sub_status", length = 64)
+    private IPOOrderSubStatus fromSubStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 32)
+    private IPOOrderStatus toStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_sub_status", nullable = false, length = 64)
+    private IPOOrderSubStatus toSubStatus;
+
+    @Column(name = "changed_by", nullable = false, length = 64)
+    private String changedBy;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    @Column(name = "note", length = 256)
+    private String note;
+
+    /**
+     * Failed publish attempts so far; a published row keeps the count it was delivered with.
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "last_error", length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    /**
+     * Null until the relay has handed the event to the publisher.
+     */
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    public static OrderStatusOutboxEntity of(TraderOrderStatusAuditEntity audit) {
+        return OrderStatusOutboxEntity.builder()
+                .clientOrderId(audit.getOrder().getClientOrderId())
+                .fromStatus(audit.getFromStatus())
+                .fromSubStatus(audit.getFromSubStatus())
+                .toStatus(audit.getToStatus())
+                .toSubStatus(audit.getToSubStatus())
+                .changedBy(audit.getChangedBy())
+                .changedAt(audit.getChangedAt())
+                .note(audit.getNote())
+                .attempts(0)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package com.patrick.wpb.cmt.ems.fi.entity;
+
+import com.patrick.wpb.cmt.ems.fi.entity.base.BaseAuditEntity;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import com.patrick.wpb.cmt.ems.fi.util.QuantityConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running per-country totals of an order's {@link RegionalAllocationBreakdownEntity} rows. Maintained by
+ * {@code RegionalAllocationService} with the deltas of every breakdown it inserts, updates or deletes, so readers
+ * get the totals without scanning the breakdowns. A row is removed when its country has no breakdowns left.
+ */
+@Entity
+@Table(name = "regional_allocation_country_summary")
+@IdClass(RegionalAllocationCountrySummaryEntity.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class RegionalAllocationCountrySummaryEntity extends BaseAuditEntity {
+
+    @Id
+    @Column(name = "client_order_id", length = 64)
+    private String clientOrderId;
+
+    @Id
+    @Column(name = "country_code", length = 8)
+    private String countryCode;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Convert(converter = QuantityConverter.class)
+    @Column(name = "total_order_quantity", nullable = false, precision = 24, scale = 4)
+    private Quantity totalOrderQuantity;
+
+    @Convert(converter = QuantityConverter.class)
+    @Column(name = "total_allocated_quantity", nullable = false, precision = 24, scale = 4)
+    private Quantity totalAllocatedQuantity;
+
+    @Column(name = "breakdown_count", nullable = false)
+    private Integer breakdownCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String clientOrderId;
+        private String countryCode;
+    }
+}
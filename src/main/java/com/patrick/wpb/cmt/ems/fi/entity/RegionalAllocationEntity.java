@@ -1,6 +1,7 @@
 package com.patrick.wpb.cmt.ems.fi.entity;
 
 import com.patrick.wpb.cmt.ems.fi.entity.base.BaseAuditEntity;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
@@ -9,14 +10,19 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.MapsId;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "regional-allocation")
 @Table(name = "regional_allocation")
 @Data
 @Builder
@@ -29,6 +35,10 @@ public class RegionalAllocationEntity extends BaseAuditEntity {
     @Column(name = "client_order_id", length = 64)
     private String clientOrderId;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @OneToOne(fetch = FetchType.LAZY)
     @MapsId
     @JoinColumn(name = "client_order_id", referencedColumnName = "client_order_id")
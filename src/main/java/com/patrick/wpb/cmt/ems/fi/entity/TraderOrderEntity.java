@@ -3,6 +3,8 @@ package com.patrick.wpb.cmt.ems.fi.entity;
 import com.patrick.wpb.cmt.ems.fi.entity.base.BaseAuditEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import jakarta.persistence.AttributeOverride;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,6 +15,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -22,9 +25,14 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "trader-order")
 @Table(name = "trader_order")
+@AttributeOverride(name = "updatedAt", column = @Column(name = "updated_at", nullable = false))
 @Data
 @Builder
 @NoArgsConstructor
@@ -36,6 +44,10 @@ public class TraderOrderEntity extends BaseAuditEntity {
     @Column(name = "client_order_id", nullable = false, length = 64)
     private String clientOrderId;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "trade_date", nullable = false)
     private LocalDate tradeDate;
 
@@ -0,0 +1,48 @@
+package com.patrick.wpb.cmt.ems.fi.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Blotter views served by the list endpoints, expressed as the status / sub status filter each one applies.
+ */
+public enum BlotterBucket {
+    COLLECTION(IPOOrderStatus.NEW, EnumSet.of(IPOOrderSubStatus.NONE), true),
+    REGIONAL_ALLOCATION(IPOOrderStatus.REGIONAL_ALLOCATION, EnumSet.allOf(IPOOrderSubStatus.class), false),
+    CLIENT_ALLOCATION(IPOOrderStatus.CLIENT_ALLOCATION, EnumSet.of(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION), false),
+    CLIENT_ALLOCATION_APPROVAL(IPOOrderStatus.CLIENT_ALLOCATION, EnumSet.of(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL), false);
+
+    private final IPOOrderStatus status;
+    private final Set<IPOOrderSubStatus> subStatuses;
+    private final boolean ipoFlagRequired;
+
+    BlotterBucket(IPOOrderStatus status, Set<IPOOrderSubStatus> subStatuses, boolean ipoFlagRequired) {
+        this.status = status;
+        this.subStatuses = subStatuses;
+        this.ipoFlagRequired = ipoFlagRequired;
+    }
+
+    public IPOOrderStatus getStatus() {
+        return status;
+    }
+
+    public Set<IPOOrderSubStatus> getSubStatuses() {
+        return subStatuses;
+    }
+
+    public boolean isIpoFlagRequired() {
+        return ipoFlagRequired;
+    }
+
+    /**
+     * The bucket whose status filter matches, or null. Buckets do not overlap; the IPO flag is not checked.
+     */
+    public static BlotterBucket of(IPOOrderStatus status, IPOOrderSubStatus subStatus) {
+        for (BlotterBucket bucket : values()) {
+            if (bucket.status == status && bucket.subStatuses.contains(subStatus)) {
+                return bucket;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.patrick.wpb.cmt.ems.fi.enums;
+
+public enum IPOExecutionJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
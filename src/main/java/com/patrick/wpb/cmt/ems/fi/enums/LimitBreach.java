@@ -0,0 +1,29 @@
+package com.patrick.wpb.cmt.ems.fi.enums;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Why an account's limits rule it out at the final price, as evaluated by {@code LimitEligibilityFilter}.
+ * {@link #UNPRICED} is informational: the account has a price limit but its country has no final price.
+ */
+public enum LimitBreach {
+    YIELD,
+    SPREAD,
+    SIZE,
+    UNPRICED;
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public static List<LimitBreach> of(int mask) {
+        List<LimitBreach> breaches = new ArrayList<>(2);
+        for (LimitBreach breach : values()) {
+            if ((mask & breach.mask()) != 0) {
+                breaches.add(breach);
+            }
+        }
+        return breaches;
+    }
+}
@@ -0,0 +1,14 @@
+package com.patrick.wpb.cmt.ems.fi.repo;
+
+/**
+ * Allocates amend log revisions from the per-ref counter row in {@code client_allocation_amend_revision}.
+ */
+public interface AmendRevisionAllocator {
+
+    /**
+     * Atomically increments and returns the next revision for {@code refId}, starting at 1. Concurrent callers
+     * for the same ref are serialized on the counter row until their transaction ends; different refs do not
+     * contend. Must be called inside the transaction that writes the amend log row.
+     */
+    int allocateRevision(String refId);
+}
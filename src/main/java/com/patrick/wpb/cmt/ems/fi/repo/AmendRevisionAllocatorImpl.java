@@ -0,0 +1,86 @@
+package com.patrick.wpb.cmt.ems.fi.repo;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Spring Data fragment behind {@link AmendRevisionAllocator}. The steady state is one statement that bumps the
+ * counter and reads it back: {@code UPDATE ... RETURNING} on PostgreSQL, the equivalent
+ * {@code SELECT ... FROM FINAL TABLE (UPDATE ...)} elsewhere (H2 in tests). The first amendment for a ref seeds the
+ * counter from the highest existing revision, with {@code ON CONFLICT DO NOTHING} so racing first writers both
+ * fall through to the increment. The seed also records the ref's {@code first_logged_at} lower bound, a day early
+ * so amendments stamped by a writer with a slower clock still fall after it.
+ */
+class AmendRevisionAllocatorImpl implements AmendRevisionAllocator {
+
+    private static final String INCREMENT_RETURNING = """
+            update client_allocation_amend_revision
+               set last_revision = last_revision + 1
+             where ref_id = :refId
+            returning last_revision""";
+
+    private static final String INCREMENT_FINAL_TABLE = """
+            select last_revision from final table (
+                update client_allocation_amend_revision
+                   set last_revision = last_revision + 1
+                 where ref_id = :refId)""";
+
+    private static final String SEED_COUNTER = """
+            insert into client_allocation_amend_revision (ref_id, last_revision, first_logged_at)
+            select :refId, coalesce(max(revision), 0), coalesce(min(created_at), :firstLoggedAt)
+              from client_allocation_amend_log
+             where ref_id = :refId
+            on conflict do nothing""";
+
+    private static final Duration FIRST_LOGGED_AT_MARGIN = Duration.ofDays(1);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile String incrementSql;
+
+    @Override
+    public int allocateRevision(String refId) {
+        Integer revision = increment(refId);
+        if (revision == null) {
+            // Without a declared query space a native update evicts every second-level cache region
+            entityManager.createNativeQuery(SEED_COUNTER)
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedQuerySpace("client_allocation_amend_revision")
+                    .setParameter("refId", refId)
+                    .setParameter("firstLoggedAt", Instant.now().minus(FIRST_LOGGED_AT_MARGIN))
+                    .executeUpdate();
+            revision = increment(refId);
+        }
+        if (revision == null) {
+            throw new IllegalStateException("Could not allocate amend log revision for refId " + refId);
+        }
+        return revision;
+    }
+
+    private Integer increment(String refId) {
+        List<?> result = entityManager.createNativeQuery(incrementSql())
+                .setParameter("refId", refId)
+                .getResultList();
+        return result.isEmpty() ? null : ((Number) result.get(0)).intValue();
+    }
+
+    private String incrementSql() {
+        String sql = incrementSql;
+        if (sql == null) {
+            boolean postgres = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices()
+                    .getDialect() instanceof PostgreSQLDialect;
+            sql = postgres ? INCREMENT_RETURNING : INCREMENT_FINAL_TABLE;
+            incrementSql = sql;
+        }
+        return sql;
+    }
+}
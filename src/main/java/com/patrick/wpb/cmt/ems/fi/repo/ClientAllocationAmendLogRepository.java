@@ -1,16 +1,56 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
 import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+/**
+ * The amend log is range partitioned on {@code created_at} on PostgreSQL. Reads by ref also bound
+ * {@code created_at} below by the ref's {@code first_logged_at} from the revision counter, which PostgreSQL
+ * evaluates at execution time to skip the partitions before it. Refs without a counter row fall back to
+ * {@link #UNBOUNDED} and scan every partition.
+ */
 @Repository
-public interface ClientAllocationAmendLogRepository extends JpaRepository<ClientAllocationAmendLogEntity, Long> {
+public interface ClientAllocationAmendLogRepository extends JpaRepository<ClientAllocationAmendLogEntity, Long>,
+        AmendRevisionAllocator {
 
-    Optional<ClientAllocationAmendLogEntity> findFirstByRefIdOrderByRevisionDesc(String refId);
+    Instant UNBOUNDED = Instant.EPOCH;
 
-    List<ClientAllocationAmendLogEntity> findByRefIdOrderByRevisionDesc(String refId);
-}
+    String FROM_REF = """
+        FROM ClientAllocationAmendLogEntity l
+        WHERE l.refId = :refId
+          AND l.createdAt >= COALESCE(
+              (SELECT r.firstLoggedAt FROM ClientAllocationAmendRevisionEntity r WHERE r.refId = :refId),
+              :unbounded)
+        """;
+
+    default Optional<ClientAllocationAmendLogEntity> findFirstByRefIdOrderByRevisionDesc(String refId) {
+        return findLatestByRefId(refId, UNBOUNDED);
+    }
+
+    default List<ClientAllocationAmendLogEntity> findByRefIdOrderByRevisionDesc(String refId) {
+        return findAllByRefId(refId, UNBOUNDED);
+    }
+
+    default Optional<ClientAllocationAmendLogEntity> findByRefIdAndRevision(String refId, Integer revision) {
+        return findByRefIdAndRevision(refId, revision, UNBOUNDED);
+    }
 
+    @Query("SELECT l " + FROM_REF + " ORDER BY l.revision DESC LIMIT 1")
+    Optional<ClientAllocationAmendLogEntity> findLatestByRefId(@Param("refId") String refId,
+                                                               @Param("unbounded") Instant unbounded);
+
+    @Query("SELECT l " + FROM_REF + " ORDER BY l.revision DESC")
+    List<ClientAllocationAmendLogEntity> findAllByRefId(@Param("refId") String refId,
+                                                        @Param("unbounded") Instant unbounded);
+
+    @Query("SELECT l " + FROM_REF + " AND l.revision = :revision")
+    Optional<ClientAllocationAmendLogEntity> findByRefIdAndRevision(@Param("refId") String refId,
+                                                                    @Param("revision") Integer revision,
+                                                                    @Param("unbounded") Instant unbounded);
+}
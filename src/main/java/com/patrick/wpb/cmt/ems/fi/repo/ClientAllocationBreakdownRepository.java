@@ -1,12 +1,47 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownDto;
 import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ClientAllocationBreakdownRepository extends JpaRepository<ClientAllocationBreakdownEntity, Long> {
     List<ClientAllocationBreakdownEntity> findByOrderClientOrderId(String clientOrderId);
-}
 
+    /**
+     * Breakdowns of an order projected straight into {@link ClientAllocationBreakdownDto}, for read-only views.
+     */
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownDto(
+            b.id, b.countryCode, b.accountNumber, b.orderQuantity, b.clientAllocationStatus, b.finalAllocation,
+            b.allocationPercentage, b.estimatedOrderSize, b.yieldLimit, b.spreadLimit, b.sizeLimit)
+        FROM ClientAllocationBreakdownEntity b
+        WHERE b.order.clientOrderId = :clientOrderId
+        ORDER BY b.id
+        """)
+    List<ClientAllocationBreakdownDto> findDtosByClientOrderId(@Param("clientOrderId") String clientOrderId);
+
+    /**
+     * Flips the status of the given rows in one statement. Pending changes are flushed first and the
+     * persistence context is cleared afterwards, so callers must not rely on previously loaded instances.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE ClientAllocationBreakdownEntity b
+        SET b.clientAllocationStatus = :status,
+            b.updatedAt = :updatedAt,
+            b.version = b.version + 1
+        WHERE b.id IN :ids
+        """)
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("status") ClientAllocationStatus status,
+                           @Param("updatedAt") Instant updatedAt);
+}
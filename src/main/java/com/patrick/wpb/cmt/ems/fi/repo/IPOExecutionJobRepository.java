@@ -0,0 +1,12 @@
+package com.patrick.wpb.cmt.ems.fi.repo;
+
+import com.patrick.wpb.cmt.ems.fi.entity.IPOExecutionJobEntity;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IPOExecutionJobRepository extends JpaRepository<IPOExecutionJobEntity, String> {
+
+    Optional<IPOExecutionJobEntity> findByIdempotencyKey(String idempotencyKey);
+}
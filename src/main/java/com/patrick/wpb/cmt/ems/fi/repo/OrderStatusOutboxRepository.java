@@ -0,0 +1,49 @@
+package com.patrick.wpb.cmt.ems.fi.repo;
+
+import com.patrick.wpb.cmt.ems.fi.entity.OrderStatusOutboxEntity;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderStatusOutboxRepository extends JpaRepository<OrderStatusOutboxEntity, Long> {
+
+    /**
+     * The oldest unpublished events, locked until the caller's transaction ends. A second relay blocks here
+     * instead of skipping ahead, so it cannot publish an order's later event before the first relay's batch.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OrderStatusOutboxEntity o WHERE o.publishedAt IS NULL ORDER BY o.id")
+    List<OrderStatusOutboxEntity> findPendingForUpdate(Limit limit);
+
+    @Query("SELECT o.changedAt FROM OrderStatusOutboxEntity o WHERE o.publishedAt IS NULL ORDER BY o.id LIMIT 1")
+    Optional<Instant> findOldestPendingChangedAt();
+
+    long countByPublishedAtIsNull();
+
+    @Modifying
+    @Query("UPDATE OrderStatusOutboxEntity o SET o.publishedAt = :publishedAt WHERE o.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+
+    @Modifying
+    @Query("""
+        UPDATE OrderStatusOutboxEntity o
+        SET o.attempts = o.attempts + 1,
+            o.lastError = :error
+        WHERE o.id IN :ids
+        """)
+    int recordFailure(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+    @Modifying
+    @Query("DELETE FROM OrderStatusOutboxEntity o WHERE o.publishedAt < :publishedBefore")
+    int deletePublishedBefore(@Param("publishedBefore") Instant publishedBefore);
+}
@@ -1,12 +1,27 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownDto;
 import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationBreakdownEntity;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RegionalAllocationBreakdownRepository extends JpaRepository<RegionalAllocationBreakdownEntity, Long> {
     List<RegionalAllocationBreakdownEntity> findByOrderClientOrderId(String clientOrderId);
-}
 
+    /**
+     * Breakdowns of an order projected straight into {@link RegionalAllocationBreakdownDto}, for read-only views.
+     */
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownDto(
+            b.id, b.countryCode, b.accountNumber, b.orderQuantity, b.allocatedQuantity, b.regionalAllocationStatus,
+            b.finalAllocation, b.allocationPercentage, b.estimatedOrderSize, b.yieldLimit, b.spreadLimit, b.sizeLimit)
+        FROM RegionalAllocationBreakdownEntity b
+        WHERE b.order.clientOrderId = :clientOrderId
+        ORDER BY b.id
+        """)
+    List<RegionalAllocationBreakdownDto> findDtosByClientOrderId(@Param("clientOrderId") String clientOrderId);
+}
@@ -0,0 +1,30 @@
+package com.patrick.wpb.cmt.ems.fi.repo;
+
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationCountrySummaryEntity;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RegionalAllocationCountrySummaryRepository
+        extends JpaRepository<RegionalAllocationCountrySummaryEntity, RegionalAllocationCountrySummaryEntity.Key> {
+
+    List<RegionalAllocationCountrySummaryEntity> findByClientOrderId(String clientOrderId);
+
+    /**
+     * The order's per-country totals, left-joined from the order so a missing order returns no rows while an order
+     * without breakdowns returns one row with a null country code.
+     */
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownSummaryDto(
+            s.countryCode, s.totalOrderQuantity, s.totalAllocatedQuantity)
+        FROM TraderOrderEntity o
+        LEFT JOIN RegionalAllocationCountrySummaryEntity s ON s.clientOrderId = o.clientOrderId
+        WHERE o.clientOrderId = :clientOrderId
+        ORDER BY s.countryCode
+        """)
+    List<RegionalAllocationBreakdownSummaryDto> findSummariesByClientOrderId(@Param("clientOrderId") String clientOrderId);
+}
@@ -1,10 +1,24 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
 import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface RegionalAllocationRepository extends JpaRepository<RegionalAllocationEntity, String> {
-}
 
+    /**
+     * The order's regional allocation, left-joined from the order so one statement also checks the order exists:
+     * a missing order returns an empty list, an order without an allocation a single {@code null} element.
+     */
+    @Query("""
+        SELECT a
+        FROM TraderOrderEntity o
+        LEFT JOIN o.regionalAllocation a
+        WHERE o.clientOrderId = :clientOrderId
+        """)
+    List<RegionalAllocationEntity> findByOrderClientOrderIdIncludingMissing(@Param("clientOrderId") String clientOrderId);
+}
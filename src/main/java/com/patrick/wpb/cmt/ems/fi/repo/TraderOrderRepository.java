@@ -1,20 +1,189 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TraderOrderRepository extends JpaRepository<TraderOrderEntity, String> {
 
+    /**
+     * Blotter queries keyed only by enums are served from the {@code blotter-queries} query cache region. Hibernate
+     * invalidates them on any write to {@code trader_order} or {@code trader_sub_order} it performs, including
+     * bulk updates; rows inserted by other writers show up when the region expires.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "blotter-queries")
+    })
     List<TraderOrderEntity> findByStatusAndSubStatus(IPOOrderStatus status, IPOOrderSubStatus subStatus);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "blotter-queries")
+    })
     List<TraderOrderEntity> findByStatus(IPOOrderStatus status);
 
+    /**
+     * Finds orders in the given status that have at least one sub order flagged for IPO issuance.
+     * The flag check is resolved as an EXISTS semi-join so the whole blotter is one statement.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "blotter-queries")
+    })
+    @Query("""
+        SELECT o
+        FROM TraderOrderEntity o
+        WHERE o.status = :status
+          AND o.subStatus = :subStatus
+          AND EXISTS (
+              SELECT 1
+              FROM TraderSubOrderEntity s
+              WHERE s.order = o
+                AND s.issueIPOFlag = true
+          )
+        """)
+    List<TraderOrderEntity> findIpoFlaggedByStatusAndSubStatus(@Param("status") IPOOrderStatus status,
+                                                               @Param("subStatus") IPOOrderSubStatus subStatus);
+
+    /**
+     * Same filter as {@link #findIpoFlaggedByStatusAndSubStatus} but projected straight into
+     * {@link TraderOrderSummaryDto}, so no entities are hydrated or tracked by the persistence context.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "blotter-queries")
+    })
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto(
+            o.clientOrderId, o.tradeDate, o.countryCode, o.status, o.subStatus,
+            o.originalClientOrderId, o.securityId, o.orderQuantity, o.cleanPrice, o.updatedAt)
+        FROM TraderOrderEntity o
+        WHERE o.status = :status
+          AND o.subStatus = :subStatus
+          AND EXISTS (
+              SELECT 1
+              FROM TraderSubOrderEntity s
+              WHERE s.order = o
+                AND s.issueIPOFlag = true
+          )
+        """)
+    List<TraderOrderSummaryDto> findIpoFlaggedSummariesByStatusAndSubStatus(@Param("status") IPOOrderStatus status,
+                                                                           @Param("subStatus") IPOOrderSubStatus subStatus);
+
+    /**
+     * Keyset page of a blotter ordered by {@code (updated_at, client_order_id)}, starting strictly after the given
+     * position. The page size is taken from {@code pageable}; its offset is ignored by callers (always page zero).
+     */
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto(
+            o.clientOrderId, o.tradeDate, o.countryCode, o.status, o.subStatus,
+            o.originalClientOrderId, o.securityId, o.orderQuantity, o.cleanPrice, o.updatedAt)
+        FROM TraderOrderEntity o
+        WHERE o.status = :status
+          AND o.subStatus IN :subStatuses
+          AND (:ipoFlagRequired = false OR EXISTS (
+              SELECT 1
+              FROM TraderSubOrderEntity s
+              WHERE s.order = o
+                AND s.issueIPOFlag = true
+          ))
+          AND (o.updatedAt > :afterUpdatedAt
+               OR (o.updatedAt = :afterUpdatedAt AND o.clientOrderId > :afterClientOrderId))
+        ORDER BY o.updatedAt, o.clientOrderId
+        """)
+    List<TraderOrderSummaryDto> findBlotterPage(@Param("status") IPOOrderStatus status,
+                                                @Param("subStatuses") Collection<IPOOrderSubStatus> subStatuses,
+                                                @Param("ipoFlagRequired") boolean ipoFlagRequired,
+                                                @Param("afterUpdatedAt") Instant afterUpdatedAt,
+                                                @Param("afterClientOrderId") String afterClientOrderId,
+                                                Pageable pageable);
+
+    /**
+     * Whole blotter in keyset order as a JDBC-cursor backed stream. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto(
+            o.clientOrderId, o.tradeDate, o.countryCode, o.status, o.subStatus,
+            o.originalClientOrderId, o.securityId, o.orderQuantity, o.cleanPrice, o.updatedAt)
+        FROM TraderOrderEntity o
+        WHERE o.status = :status
+          AND o.subStatus IN :subStatuses
+          AND (:ipoFlagRequired = false OR EXISTS (
+              SELECT 1
+              FROM TraderSubOrderEntity s
+              WHERE s.order = o
+                AND s.issueIPOFlag = true
+          ))
+        ORDER BY o.updatedAt, o.clientOrderId
+        """)
+    Stream<TraderOrderSummaryDto> streamBlotter(@Param("status") IPOOrderStatus status,
+                                                @Param("subStatuses") Collection<IPOOrderSubStatus> subStatuses,
+                                                @Param("ipoFlagRequired") boolean ipoFlagRequired);
+
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto(
+            o.clientOrderId, o.tradeDate, o.countryCode, o.status, o.subStatus,
+            o.originalClientOrderId, o.securityId, o.orderQuantity, o.cleanPrice, o.updatedAt)
+        FROM TraderOrderEntity o
+        WHERE o.clientOrderId IN :clientOrderIds
+        """)
+    List<TraderOrderSummaryDto> findSummariesByClientOrderIdIn(@Param("clientOrderIds") Collection<String> clientOrderIds);
+
+    /**
+     * Moves every listed order that is still in the given from state to the target state in one statement.
+     * Orders that left the from state in the meantime are not touched, so the returned count can be lower
+     * than the number of ids.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE TraderOrderEntity o
+        SET o.status = :toStatus,
+            o.subStatus = :toSubStatus,
+            o.updatedAt = :updatedAt,
+            o.version = o.version + 1
+        WHERE o.clientOrderId IN :clientOrderIds
+          AND o.status = :fromStatus
+          AND o.subStatus = :fromSubStatus
+        """)
+    int updateStatusWhereCurrent(@Param("clientOrderIds") Collection<String> clientOrderIds,
+                                 @Param("fromStatus") IPOOrderStatus fromStatus,
+                                 @Param("fromSubStatus") IPOOrderSubStatus fromSubStatus,
+                                 @Param("toStatus") IPOOrderStatus toStatus,
+                                 @Param("toSubStatus") IPOOrderSubStatus toSubStatus,
+                                 @Param("updatedAt") Instant updatedAt);
+
+    /**
+     * The listed orders whose {@code updatedAt} is exactly {@code updatedAt}: after
+     * {@link #updateStatusWhereCurrent}, the ones that statement moved. Orders another caller moved carry that
+     * caller's timestamp instead.
+     */
+    @Query("""
+        SELECT o.clientOrderId
+        FROM TraderOrderEntity o
+        WHERE o.clientOrderId IN :clientOrderIds
+          AND o.updatedAt = :updatedAt
+        """)
+    List<String> findClientOrderIdsUpdatedAt(@Param("clientOrderIds") Collection<String> clientOrderIds,
+                                             @Param("updatedAt") Instant updatedAt);
+
     List<TraderOrderEntity> findByTradeDateAndSecurityIdAndStatusAndSubStatusAndRegionalAllocationIsNull(
             LocalDate tradeDate,
             String securityId,
@@ -22,4 +191,32 @@ public interface TraderOrderRepository extends JpaRepository<TraderOrderEntity,
             IPOOrderSubStatus subStatus);
 
     List<TraderOrderEntity> findByOriginalClientOrderId(String originalClientOrderId);
+
+    /**
+     * Children of a group order projected into {@link TraderOrderSummaryDto}, for callers that only need ids,
+     * countries and quantities and will change the rows with a bulk statement.
+     */
+    @Query("""
+        SELECT new com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto(
+            o.clientOrderId, o.tradeDate, o.countryCode, o.status, o.subStatus,
+            o.originalClientOrderId, o.securityId, o.orderQuantity, o.cleanPrice, o.updatedAt)
+        FROM TraderOrderEntity o
+        WHERE o.originalClientOrderId = :originalClientOrderId
+        """)
+    List<TraderOrderSummaryDto> findSummariesByOriginalClientOrderId(@Param("originalClientOrderId") String originalClientOrderId);
+
+    /**
+     * Re-points every listed order at a new group order in one statement.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE TraderOrderEntity o
+        SET o.originalClientOrderId = :originalClientOrderId,
+            o.updatedAt = :updatedAt,
+            o.version = o.version + 1
+        WHERE o.clientOrderId IN :clientOrderIds
+        """)
+    int updateOriginalClientOrderIdByClientOrderIdIn(@Param("clientOrderIds") Collection<String> clientOrderIds,
+                                                      @Param("originalClientOrderId") String originalClientOrderId,
+                                                      @Param("updatedAt") Instant updatedAt);
 }
@@ -1,12 +1,26 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
 import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TraderSubOrderRepository extends JpaRepository<TraderSubOrderEntity, Long> {
     long countByOrderClientOrderIdAndIssueIPOFlagTrue(String clientOrderId);
     List<TraderSubOrderEntity> findByOrderClientOrderId(String clientOrderId);
+
+    /**
+     * The ids among {@code clientOrderIds} with at least one IPO-flagged sub order.
+     */
+    @Query("""
+        SELECT DISTINCT s.order.clientOrderId
+        FROM TraderSubOrderEntity s
+        WHERE s.order.clientOrderId IN :clientOrderIds
+          AND s.issueIPOFlag = true
+        """)
+    List<String> findIpoFlaggedClientOrderIdIn(@Param("clientOrderIds") Collection<String> clientOrderIds);
 }
@@ -1,10 +1,13 @@
 package com.patrick.wpb.cmt.ems.fi.repo;
 
 import com.patrick.wpb.cmt.ems.fi.entity.TsoxClientOrderMappingEntity;
+import jakarta.persistence.QueryHint;
 import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,6 +42,9 @@ public interface TsoxClientOrderMappingRepository extends JpaRepository<TsoxClie
     /**
      * Updates active_flag to 'N' for records matching the given tsox_client_order_id
      * or previous_tsox_client_order_id.
+     * <p>
+     * The native query space is declared so Hibernate invalidates only this table's cache entries, not every
+     * second-level cache region.
      * 
      * @param tsoxClientOrderId The tsox_client_order_id to match
      * @param previousTsoxClientOrderId The previous_tsox_client_order_id to match
@@ -46,6 +52,7 @@ public interface TsoxClientOrderMappingRepository extends JpaRepository<TsoxClie
      */
     @Modifying
     @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tsox_client_order_mapping"))
     @Query(value = """
         UPDATE tsox_client_order_mapping
         SET active_flag = 'N',
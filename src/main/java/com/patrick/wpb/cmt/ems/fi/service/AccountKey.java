@@ -0,0 +1,8 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * Identity of a breakdown row within an order. Hashes the two fields directly (both strings cache their hash), so
+ * keying a row allocates one small record instead of a concatenated string.
+ */
+public record AccountKey(String countryCode, String accountNumber) {
+}
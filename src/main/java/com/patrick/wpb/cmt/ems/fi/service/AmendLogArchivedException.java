@@ -0,0 +1,12 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * An amend log revision needed to rebuild a snapshot is no longer in the database, because its partition was
+ * archived by {@link AuditPartitionService}. Mapped to 410 Gone; the row is in the partition's archive file.
+ */
+public class AmendLogArchivedException extends IllegalStateException {
+
+    public AmendLogArchivedException(String refId, int revision) {
+        super("Amend log revision " + revision + " of " + refId + " has been archived.");
+    }
+}
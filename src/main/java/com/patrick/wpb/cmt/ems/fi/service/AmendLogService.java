@@ -1,36 +1,92 @@
 package com.patrick.wpb.cmt.ems.fi.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationAmendLogDto;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
 import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.AmendmentAction;
 import com.patrick.wpb.cmt.ems.fi.enums.AmendmentObjectType;
 import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationAmendLogRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Client allocation amend log. Snapshots are written with the configured {@link AmendSnapshotCodec}: the after
+ * list as a full snapshot, the before list as a row-level delta against the previous revision's after list
+ * (usually near-empty, since a resubmission starts from what was last submitted). Nothing is decoded when a log
+ * row is loaded; {@link #readAfter} and {@link #readBefore} reconstruct on demand. Rows written before snapshots
+ * were encoded have no codec and are read from their JSON columns.
+ */
 @Service
 @RequiredArgsConstructor
 public class AmendLogService {
 
+    // Above this share of changed rows a full before snapshot is smaller than the delta
+    private static final double MAX_DELTA_RATIO = 0.5;
+
+    private static final TypeReference<List<ClientAllocationBreakdownRequest>> BREAKDOWN_LIST =
+            new TypeReference<>() {};
+
     private final ClientAllocationAmendLogRepository amendLogRepository;
+    private final List<AmendSnapshotCodec> snapshotCodecs;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ems.amend-log.snapshot-codec:" + ColumnarAmendSnapshotCodec.NAME + "}")
+    private String snapshotCodecName;
+
+    private Map<String, AmendSnapshotCodec> codecsByName;
+
+    @PostConstruct
+    void resolveCodecs() {
+        codecsByName = snapshotCodecs.stream()
+                .collect(Collectors.toMap(AmendSnapshotCodec::name, Function.identity()));
+        codec(snapshotCodecName);
+    }
 
     @Transactional
     public ClientAllocationAmendLogEntity recordAmendment(String refId,
                                                           AmendmentObjectType objectType,
-                                                          String beforeJson,
-                                                          String afterJson,
+                                                          List<ClientAllocationBreakdownRequest> before,
+                                                          List<ClientAllocationBreakdownRequest> after,
                                                           String createdBy) {
-        int nextRevision = amendLogRepository.findFirstByRefIdOrderByRevisionDesc(refId)
-                .map(log -> log.getRevision() + 1)
-                .orElse(1);
+        // Counter row bump instead of read-latest-then-insert, so parallel submits cannot take the same revision
+        // (the partitioned log's unique index also covers created_at, so it cannot catch a duplicate revision) and a
+        // rollback leaves no gap
+        int nextRevision = amendLogRepository.allocateRevision(refId);
+
+        AmendSnapshot beforeSnapshot = AmendSnapshot.full(before);
+        Integer beforeBaseRevision = null;
+        if (nextRevision > 1) {
+            Optional<ClientAllocationAmendLogEntity> previous = amendLogRepository.findByRefIdAndRevision(refId, nextRevision - 1);
+            if (previous.isPresent()) {
+                AmendSnapshot delta = AmendSnapshot.diff(readAfter(previous.get()), before);
+                if (delta.size() <= before.size() * MAX_DELTA_RATIO) {
+                    beforeSnapshot = delta;
+                    beforeBaseRevision = nextRevision - 1;
+                }
+            }
+        }
 
+        AmendSnapshotCodec codec = codec(snapshotCodecName);
         ClientAllocationAmendLogEntity logEntry = ClientAllocationAmendLogEntity.builder()
                 .refId(refId)
                 .revision(nextRevision)
                 .objectType(objectType)
-                .beforeObjectJson(beforeJson)
-                .afterObjectJson(afterJson)
+                .snapshotCodec(codec.name())
+                .beforeSnapshot(codec.encode(beforeSnapshot))
+                .beforeBaseRevision(beforeBaseRevision)
+                .afterSnapshot(codec.encode(AmendSnapshot.full(after)))
                 .action(AmendmentAction.PENDING_APPROVAL)
                 .createdBy(createdBy)
                 .build();
@@ -50,5 +106,99 @@ public class AmendLogService {
     public Optional<ClientAllocationAmendLogEntity> findLatestByRefId(String refId) {
         return amendLogRepository.findFirstByRefIdOrderByRevisionDesc(refId);
     }
-}
 
+    /**
+     * The breakdowns proposed by this revision. Decodes a single full snapshot.
+     */
+    public List<ClientAllocationBreakdownRequest> readAfter(ClientAllocationAmendLogEntity log) {
+        if (log.getSnapshotCodec() == null) {
+            return fromJson(log.getAfterObjectJson());
+        }
+        return codec(log.getSnapshotCodec()).decode(log.getAfterSnapshot()).upserts();
+    }
+
+    /**
+     * The breakdowns in place when this revision was submitted. Loads the base revision only when the before
+     * snapshot is stored as a delta.
+     *
+     * @throws AmendLogArchivedException if the base revision has been archived
+     */
+    @Transactional(readOnly = true)
+    public List<ClientAllocationBreakdownRequest> readBefore(ClientAllocationAmendLogEntity log) {
+        return readBefore(log, revision -> readAfter(amendLogRepository.findByRefIdAndRevision(log.getRefId(), revision)
+                .orElseThrow(() -> new AmendLogArchivedException(log.getRefId(), revision))));
+    }
+
+    /**
+     * {@code log}'s before snapshot re-encoded in full with the row's codec, given the after list of its base
+     * revision. Used to cut the dependency on a base revision that is about to be archived.
+     */
+    public byte[] encodeFullBefore(ClientAllocationAmendLogEntity log, List<ClientAllocationBreakdownRequest> baseAfter) {
+        return codec(log.getSnapshotCodec()).encode(AmendSnapshot.full(readBefore(log, revision -> baseAfter)));
+    }
+
+    /**
+     * Every revision for {@code refId}, newest first, with snapshots rendered as JSON. Each after snapshot is
+     * decoded once and reused as the base of the next revision's before delta.
+     *
+     * @throws AmendLogArchivedException if a before delta's base revision has been archived
+     */
+    @Transactional(readOnly = true)
+    public List<ClientAllocationAmendLogDto> findHistory(String refId) {
+        List<ClientAllocationAmendLogEntity> logs = amendLogRepository.findByRefIdOrderByRevisionDesc(refId);
+        Map<Integer, ClientAllocationAmendLogEntity> byRevision = logs.stream()
+                .collect(Collectors.toMap(ClientAllocationAmendLogEntity::getRevision, Function.identity()));
+        Map<Integer, List<ClientAllocationBreakdownRequest>> decodedAfters = new HashMap<>();
+        Function<Integer, List<ClientAllocationBreakdownRequest>> afterOf = revision -> decodedAfters
+                .computeIfAbsent(revision, r -> {
+                    ClientAllocationAmendLogEntity base = byRevision.get(r);
+                    if (base == null) {
+                        throw new AmendLogArchivedException(refId, r);
+                    }
+                    return readAfter(base);
+                });
+
+        return logs.stream()
+                .map(log -> log.getSnapshotCodec() == null
+                        ? ClientAllocationAmendLogDto.fromEntity(log)
+                        : ClientAllocationAmendLogDto.fromEntity(log,
+                                toJson(readBefore(log, afterOf)),
+                                toJson(afterOf.apply(log.getRevision()))))
+                .collect(Collectors.toList());
+    }
+
+    private List<ClientAllocationBreakdownRequest> readBefore(ClientAllocationAmendLogEntity log,
+                                                              Function<Integer, List<ClientAllocationBreakdownRequest>> afterOfRevision) {
+        if (log.getSnapshotCodec() == null) {
+            return fromJson(log.getBeforeObjectJson());
+        }
+        AmendSnapshot snapshot = codec(log.getSnapshotCodec()).decode(log.getBeforeSnapshot());
+        return log.getBeforeBaseRevision() == null
+                ? snapshot.upserts()
+                : snapshot.applyTo(afterOfRevision.apply(log.getBeforeBaseRevision()));
+    }
+
+    private AmendSnapshotCodec codec(String name) {
+        AmendSnapshotCodec codec = codecsByName.get(name);
+        if (codec == null) {
+            throw new IllegalStateException("Unknown amend snapshot codec " + name);
+        }
+        return codec;
+    }
+
+    private String toJson(Object object) {
+        try {
+            return objectMapper.writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize object to JSON", e);
+        }
+    }
+
+    private List<ClientAllocationBreakdownRequest> fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, BREAKDOWN_LIST);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to deserialize client allocation breakdown JSON", e);
+        }
+    }
+}
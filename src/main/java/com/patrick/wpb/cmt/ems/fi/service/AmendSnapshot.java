@@ -0,0 +1,85 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoded content of an amend log snapshot. A full snapshot is just {@code upserts}; a delta also lists the
+ * accounts dropped from its base in {@code removals} (country code and account number only), and is turned back
+ * into a full list with {@link #applyTo}. Rows are keyed on (country code, account number).
+ */
+public record AmendSnapshot(List<ClientAllocationBreakdownRequest> upserts,
+                            List<ClientAllocationBreakdownRequest> removals) {
+
+    public static AmendSnapshot full(List<ClientAllocationBreakdownRequest> rows) {
+        return new AmendSnapshot(rows, List.of());
+    }
+
+    /**
+     * Rows of {@code target} that are new or changed relative to {@code base}, plus the base rows it no longer has.
+     */
+    public static AmendSnapshot diff(List<ClientAllocationBreakdownRequest> base,
+                                     List<ClientAllocationBreakdownRequest> target) {
+        Map<AccountKey, ClientAllocationBreakdownRequest> remaining = byKey(base);
+        List<ClientAllocationBreakdownRequest> upserts = new ArrayList<>();
+        for (ClientAllocationBreakdownRequest row : target) {
+            ClientAllocationBreakdownRequest previous = remaining.remove(key(row));
+            if (previous == null || !sameValues(previous, row)) {
+                upserts.add(row);
+            }
+        }
+        List<ClientAllocationBreakdownRequest> removals = new ArrayList<>(remaining.size());
+        remaining.values().forEach(row -> removals.add(keyOnly(row)));
+        return new AmendSnapshot(upserts, removals);
+    }
+
+    /**
+     * Rebuilds the full list: base order is kept, upserted rows replace their base row in place, new rows are
+     * appended and removed rows are dropped.
+     */
+    public List<ClientAllocationBreakdownRequest> applyTo(List<ClientAllocationBreakdownRequest> base) {
+        Map<AccountKey, ClientAllocationBreakdownRequest> rows = byKey(base);
+        removals.forEach(row -> rows.remove(key(row)));
+        upserts.forEach(row -> rows.put(key(row), row));
+        return new ArrayList<>(rows.values());
+    }
+
+    public int size() {
+        return upserts.size() + removals.size();
+    }
+
+    private static Map<AccountKey, ClientAllocationBreakdownRequest> byKey(List<ClientAllocationBreakdownRequest> rows) {
+        Map<AccountKey, ClientAllocationBreakdownRequest> byKey = new LinkedHashMap<>(rows.size() * 2);
+        rows.forEach(row -> byKey.put(key(row), row));
+        return byKey;
+    }
+
+    private static AccountKey key(ClientAllocationBreakdownRequest row) {
+        return new AccountKey(row.getCountryCode(), row.getAccountNumber());
+    }
+
+    private static ClientAllocationBreakdownRequest keyOnly(ClientAllocationBreakdownRequest row) {
+        ClientAllocationBreakdownRequest key = new ClientAllocationBreakdownRequest();
+        key.setCountryCode(row.getCountryCode());
+        key.setAccountNumber(row.getAccountNumber());
+        return key;
+    }
+
+    private static boolean sameValues(ClientAllocationBreakdownRequest a, ClientAllocationBreakdownRequest b) {
+        return sameAmount(a.getOrderQuantity(), b.getOrderQuantity())
+                && sameAmount(a.getFinalAllocation(), b.getFinalAllocation())
+                && sameAmount(a.getAllocationPercentage(), b.getAllocationPercentage())
+                && sameAmount(a.getEstimatedOrderSize(), b.getEstimatedOrderSize())
+                && sameAmount(a.getYieldLimit(), b.getYieldLimit())
+                && sameAmount(a.getSpreadLimit(), b.getSpreadLimit())
+                && sameAmount(a.getSizeLimit(), b.getSizeLimit());
+    }
+
+    private static boolean sameAmount(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+}
@@ -0,0 +1,18 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * Storage format for amend log snapshots. Implementations are Spring beans; {@link AmendLogService} writes with
+ * the one named by {@code ems.amend-log.snapshot-codec} and reads each row with the codec recorded on it, so the
+ * default can change without rewriting history.
+ */
+public interface AmendSnapshotCodec {
+
+    /**
+     * Stored in {@code client_allocation_amend_log.snapshot_codec}; must never change for a released format.
+     */
+    String name();
+
+    byte[] encode(AmendSnapshot snapshot);
+
+    AmendSnapshot decode(byte[] bytes);
+}
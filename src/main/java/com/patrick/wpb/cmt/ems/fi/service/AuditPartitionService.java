@@ -0,0 +1,264 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the monthly partitions of the append-only audit tables (see {@code 011-partitioned-audit-tables.xml}):
+ * creates partitions {@code months-ahead} months in advance, and moves partitions older than
+ * {@code retention-months} off the database. An expired partition is detached, copied as gzipped CSV to
+ * {@code archive-dir/<partition>.csv.gz}, synced to disk and only then dropped. A run that stops half way leaves a
+ * detached table behind, which the next run archives. Runs are serialized across nodes with an advisory lock and
+ * skipped on databases other than PostgreSQL.
+ * <p>
+ * An amend log row's before snapshot can be a delta against the previous revision's after snapshot (see
+ * {@link AmendLogService}). Before an amend log partition is archived, every live row whose base revision is in it
+ * gets its before snapshot rewritten in full, so the history left in the database stays readable.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuditPartitionService {
+
+    private static final String AMEND_LOG_TABLE = "client_allocation_amend_log";
+    private static final List<String> PARTITIONED_TABLES = List.of("trader_order_status_audit", AMEND_LOG_TABLE);
+
+    private static final long MAINTENANCE_LOCK_KEY = 0x4155444954L;
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AmendLogService amendLogService;
+
+    @Value("${ems.audit-partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ems.audit-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${ems.audit-partitions.retention-months:24}")
+    private int retentionMonths;
+
+    @Value("${ems.audit-partitions.archive-dir:archive/audit-partitions}")
+    private Path archiveDir;
+
+    private volatile Boolean postgres;
+
+    @Scheduled(initialDelayString = "${ems.audit-partitions.initial-delay:PT1M}",
+            fixedDelayString = "${ems.audit-partitions.interval:PT6H}")
+    public void maintain() {
+        if (!enabled || !isPostgres()) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        createPartitions(current, current.plusMonths(monthsAhead));
+        archivePartitionsBefore(current.minusMonths(retentionMonths));
+    }
+
+    /**
+     * Creates the missing partitions for every month from {@code from} through {@code through} (UTC months). A month
+     * whose rows already landed in the default partition is logged and skipped.
+     */
+    public void createPartitions(YearMonth from, YearMonth through) {
+        withMaintenanceLock(connection -> {
+            for (String table : PARTITIONED_TABLES) {
+                for (YearMonth month = from; !month.isAfter(through); month = month.plusMonths(1)) {
+                    String partition = partitionName(table, month);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + table
+                                + " FOR VALUES FROM ('" + lowerBound(month) + "') TO ('" + lowerBound(month.plusMonths(1)) + "')");
+                    } catch (SQLException ex) {
+                        log.warn("Could not create partition {}: {}", partition, ex.getMessage());
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Detaches, archives and drops every partition of a month before {@code cutoff}, including tables left
+     * detached by an interrupted run. Amend log deltas against a detached partition are rebased first.
+     *
+     * @return the archive files written, in the order they were written
+     */
+    public List<Path> archivePartitionsBefore(YearMonth cutoff) {
+        List<Path> archived = withMaintenanceLock(connection -> {
+            List<Path> files = new ArrayList<>();
+            for (String table : PARTITIONED_TABLES) {
+                for (Map.Entry<String, Boolean> partition : monthlyTables(connection, table).entrySet()) {
+                    String name = partition.getKey();
+                    YearMonth month = YearMonth.parse(name.substring(name.length() - 6), MONTH_SUFFIX);
+                    if (!month.isBefore(cutoff)) {
+                        continue;
+                    }
+                    try (Statement statement = connection.createStatement()) {
+                        if (partition.getValue()) {
+                            statement.execute("ALTER TABLE " + table + " DETACH PARTITION " + name);
+                        }
+                        if (AMEND_LOG_TABLE.equals(table)) {
+                            rebaseDeltasOn(connection, name);
+                        }
+                        files.add(archive(connection, name));
+                        statement.execute("DROP TABLE " + name);
+                    }
+                }
+            }
+            return files;
+        });
+        return archived != null ? archived : List.of();
+    }
+
+    /**
+     * The {@code <table>_pYYYYMM} tables of the current schema, mapped to whether they are still attached.
+     */
+    private static Map<String, Boolean> monthlyTables(Connection connection, String table) throws SQLException {
+        Map<String, Boolean> tables = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT c.relname, c.relispartition
+                FROM pg_class c
+                WHERE c.relkind = 'r'
+                  AND c.relname ~ ('^' || ? || '_p[0-9]{6}$')
+                  AND pg_table_is_visible(c.oid)
+                ORDER BY c.relname
+                """)) {
+            statement.setString(1, table);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    tables.put(rows.getString(1), rows.getBoolean(2));
+                }
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Rewrites in full every before snapshot of the attached amend log that is a delta against an after snapshot in
+     * the detached {@code partition}. Runs after the detach, which waits for in-flight amendments that read their
+     * base from the partition; later amendments no longer find it and write full snapshots. Each row is committed
+     * on its own, so a rerun picks up where an interrupted one stopped.
+     */
+    private void rebaseDeltasOn(Connection connection, String partition) throws SQLException {
+        int rebased = 0;
+        try (Statement select = connection.createStatement();
+             ResultSet rows = select.executeQuery("""
+                     SELECT d.id, d.created_at, d.ref_id, d.snapshot_codec, d.before_snapshot, d.before_base_revision,
+                            b.snapshot_codec, b.after_snapshot, b.after_obj
+                     FROM client_allocation_amend_log d
+                     JOIN %s b ON b.ref_id = d.ref_id AND b.revision = d.before_base_revision
+                     """.formatted(partition));
+             PreparedStatement update = connection.prepareStatement("""
+                     UPDATE client_allocation_amend_log
+                     SET before_snapshot = ?, before_base_revision = NULL
+                     WHERE id = ? AND created_at = ?
+                     """)) {
+            while (rows.next()) {
+                ClientAllocationAmendLogEntity dependent = ClientAllocationAmendLogEntity.builder()
+                        .refId(rows.getString(3))
+                        .snapshotCodec(rows.getString(4))
+                        .beforeSnapshot(rows.getBytes(5))
+                        .beforeBaseRevision(rows.getInt(6))
+                        .build();
+                ClientAllocationAmendLogEntity base = ClientAllocationAmendLogEntity.builder()
+                        .snapshotCodec(rows.getString(7))
+                        .afterSnapshot(rows.getBytes(8))
+                        .afterObjectJson(rows.getString(9))
+                        .build();
+                update.setBytes(1, amendLogService.encodeFullBefore(dependent, amendLogService.readAfter(base)));
+                update.setLong(2, rows.getLong(1));
+                update.setObject(3, rows.getObject(2, OffsetDateTime.class));
+                update.executeUpdate();
+                rebased++;
+            }
+        }
+        if (rebased > 0) {
+            log.info("Rebased {} amend log deltas off {}", rebased, partition);
+        }
+    }
+
+    private Path archive(Connection connection, String table) throws SQLException {
+        Path target = archiveDir.resolve(table + ".csv.gz");
+        Path partial = archiveDir.resolve(table + ".csv.gz.partial");
+        try {
+            Files.createDirectories(archiveDir);
+            long rows;
+            try (FileOutputStream file = new FileOutputStream(partial.toFile())) {
+                GZIPOutputStream gzip = new GZIPOutputStream(new BufferedOutputStream(file, 1 << 16));
+                rows = connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY " + table + " TO STDOUT WITH (FORMAT csv, HEADER)", gzip);
+                gzip.finish();
+                gzip.flush();
+                file.getFD().sync();
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archived {} rows of {} to {}", rows, table, target);
+            return target;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to archive partition " + table + " to " + target, ex);
+        }
+    }
+
+    private <T> T withMaintenanceLock(ConnectionCallback<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet locked = statement.executeQuery("SELECT pg_try_advisory_lock(" + MAINTENANCE_LOCK_KEY + ")")) {
+                if (!locked.next() || !locked.getBoolean(1)) {
+                    log.info("Audit partition maintenance is running on another node");
+                    return null;
+                }
+            }
+            try {
+                return work.doInConnection(connection);
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT pg_advisory_unlock(" + MAINTENANCE_LOCK_KEY + ")");
+                }
+            }
+        });
+    }
+
+    private boolean isPostgres() {
+        Boolean result = postgres;
+        if (result == null) {
+            result = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+            postgres = result;
+        }
+        return result;
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(MONTH_SUFFIX);
+    }
+
+    // Partitions cover whole UTC months
+    private static String lowerBound(YearMonth month) {
+        return month.atDay(1) + " 00:00:00+00";
+    }
+}
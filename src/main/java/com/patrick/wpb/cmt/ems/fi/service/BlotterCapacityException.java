@@ -0,0 +1,12 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * A blotter subscription was refused because the snapshot queue is full. Temporary by nature; mapped to 503 Service
+ * Unavailable with a {@code Retry-After} header.
+ */
+public class BlotterCapacityException extends RuntimeException {
+
+    public BlotterCapacityException(String message) {
+        super(message);
+    }
+}
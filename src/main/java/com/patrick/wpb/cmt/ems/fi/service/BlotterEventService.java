@@ -0,0 +1,492 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterDeltaDto;
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterSnapshotDto;
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderSubOrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Pushes blotter changes to subscribed UIs instead of having them re-scan a status bucket on every poll.
+ * <p>
+ * A subscriber first receives its buckets' contents ({@code snapshot} events, then {@code ready}) and from then on
+ * {@code delta} events. Services report changed order ids; the ids are collected when the transaction commits and
+ * coalesced per order until the next flush, which reads the current state of every changed order in one query and
+ * sends each subscriber at most one {@code delta} event per window. The JSON is built once per distinct bucket
+ * selection, not per subscriber, so fan-out costs one write per subscriber per window however many orders changed.
+ * Deltas that arrive while a snapshot is still streaming are held and sent after {@code ready}.
+ * <p>
+ * The flush and the heartbeat run on this service's own scheduler thread, not the shared {@code @Scheduled} one.
+ * A flush only queues each subscriber's JSON under its lock; the writes happen afterwards, one subscriber at a time,
+ * and a subscriber whose queue reaches {@code max-queued-deltas} (a stalled connection, or a snapshot that takes too
+ * long) is disconnected and reconnects for a fresh snapshot.
+ * <p>
+ * Changes are only seen by the JVM that committed them: subscribers of another node hear about an order when it
+ * changes there, or on their next snapshot. Deployments with several nodes need a shared channel (the status
+ * outbox, for example) before this stream is consistent across them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BlotterEventService {
+
+    public static final String SNAPSHOT_EVENT = "snapshot";
+    public static final String READY_EVENT = "ready";
+    public static final String DELTA_EVENT = "delta";
+
+    // Stays below the IN-list limits of the supported databases
+    private static final int MAX_IDS_PER_QUERY = 1000;
+
+    private final BlotterService blotterService;
+    private final TraderOrderRepository traderOrderRepository;
+    private final TraderSubOrderRepository traderSubOrderRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ems.blotter.events.snapshot-pool-size:4}")
+    private int snapshotPoolSize;
+
+    @Value("${ems.blotter.events.snapshot-queue-capacity:200}")
+    private int snapshotQueueCapacity;
+
+    @Value("${ems.blotter.events.snapshot-chunk-size:500}")
+    private int snapshotChunkSize;
+
+    @Value("${ems.blotter.events.coalesce-window:PT0.5S}")
+    private Duration coalesceWindow;
+
+    @Value("${ems.blotter.events.heartbeat:PT15S}")
+    private Duration heartbeatInterval;
+
+    @Value("${ems.blotter.events.max-queued-deltas:120}")
+    private int maxQueuedDeltas;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Changed order id to the buckets it may have left since the last flush; merged per order.
+     */
+    private final Map<String, Set<BlotterBucket>> changed = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private ThreadPoolTaskExecutor snapshotExecutor;
+    private ThreadPoolTaskScheduler eventScheduler;
+
+    /**
+     * Transport for one subscriber; a failed send ends the subscription.
+     */
+    public interface Sink {
+
+        void send(String event, String json) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    @PostConstruct
+    void init() {
+        snapshotExecutor = new ThreadPoolTaskExecutor();
+        snapshotExecutor.setCorePoolSize(snapshotPoolSize);
+        snapshotExecutor.setMaxPoolSize(snapshotPoolSize);
+        snapshotExecutor.setQueueCapacity(snapshotQueueCapacity);
+        snapshotExecutor.setThreadNamePrefix("blotter-snapshot-");
+        snapshotExecutor.initialize();
+
+        eventScheduler = new ThreadPoolTaskScheduler();
+        eventScheduler.setPoolSize(1);
+        eventScheduler.setThreadNamePrefix("blotter-events-");
+        eventScheduler.initialize();
+        eventScheduler.scheduleWithFixedDelay(this::flush, Instant.now().plus(coalesceWindow), coalesceWindow);
+        eventScheduler.scheduleWithFixedDelay(this::heartbeat, Instant.now().plus(heartbeatInterval), heartbeatInterval);
+
+        Gauge.builder("ems.blotter.subscribers", subscriptions, List::size)
+                .description("Connected blotter event stream subscribers")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        eventScheduler.shutdown();
+        snapshotExecutor.shutdown();
+        subscriptions.forEach(subscription -> subscription.sink.close());
+        subscriptions.clear();
+    }
+
+    /**
+     * Registers the subscriber and streams the snapshot of {@code buckets} in the background.
+     *
+     * @throws BlotterCapacityException if too many snapshots are already queued
+     */
+    public Subscription subscribe(Set<BlotterBucket> buckets, Sink sink) {
+        Subscription subscription = new Subscription(EnumSet.copyOf(buckets), sink);
+        // Registered before the snapshot is read, so a change committed meanwhile is held rather than lost
+        subscriptions.add(subscription);
+        try {
+            snapshotExecutor.execute(() -> sendSnapshot(subscription));
+        } catch (TaskRejectedException ex) {
+            subscriptions.remove(subscription);
+            throw new BlotterCapacityException("Too many blotter subscriptions are starting, please retry");
+        }
+        return subscription;
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    /**
+     * Records a status change, to be published once the current transaction commits.
+     */
+    public void orderChanged(String clientOrderId, IPOOrderStatus fromStatus, IPOOrderSubStatus fromSubStatus) {
+        BlotterBucket previous = BlotterBucket.of(fromStatus, fromSubStatus);
+        record(Map.of(clientOrderId, previous == null ? EnumSet.noneOf(BlotterBucket.class) : EnumSet.of(previous)));
+    }
+
+    /**
+     * Records orders whose fields changed without a status change (grouping, splits).
+     */
+    public void ordersChanged(Collection<String> clientOrderIds) {
+        Map<String, Set<BlotterBucket>> changes = new HashMap<>();
+        clientOrderIds.forEach(id -> changes.put(id, EnumSet.noneOf(BlotterBucket.class)));
+        record(changes);
+    }
+
+    private void record(Map<String, Set<BlotterBucket>> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markChanged(changes);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Set<BlotterBucket>> pending = (Map<String, Set<BlotterBucket>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<String, Set<BlotterBucket>> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BlotterEventService.this);
+                    if (status == STATUS_COMMITTED) {
+                        markChanged(created);
+                    }
+                }
+            });
+            pending = created;
+        }
+        Map<String, Set<BlotterBucket>> target = pending;
+        changes.forEach((id, buckets) -> target.computeIfAbsent(id, key -> EnumSet.noneOf(BlotterBucket.class)).addAll(buckets));
+    }
+
+    private void markChanged(Map<String, Set<BlotterBucket>> changes) {
+        changes.forEach((id, buckets) -> changed.compute(id, (key, existing) -> {
+            Set<BlotterBucket> merged = EnumSet.noneOf(BlotterBucket.class);
+            if (existing != null) {
+                merged.addAll(existing);
+            }
+            merged.addAll(buckets);
+            return merged;
+        }));
+    }
+
+    /**
+     * Sends the changes collected since the last flush. Runs every coalescing window; safe to call directly. Deltas
+     * are queued per subscriber in flush order under a lock, and written after it is released.
+     */
+    public void flush() {
+        List<Subscription> notified = new ArrayList<>();
+        synchronized (flushLock) {
+            if (changed.isEmpty()) {
+                return;
+            }
+            Map<String, Set<BlotterBucket>> batch = new LinkedHashMap<>();
+            for (String id : new ArrayList<>(changed.keySet())) {
+                Set<BlotterBucket> previous = changed.remove(id);
+                if (previous != null) {
+                    batch.put(id, previous);
+                }
+            }
+            if (subscriptions.isEmpty() || batch.isEmpty()) {
+                return;
+            }
+
+            List<Delta> deltas = loadDeltas(batch);
+            Map<Set<BlotterBucket>, String> jsonBySelection = new HashMap<>();
+            for (Subscription subscription : subscriptions) {
+                String json = jsonBySelection.computeIfAbsent(subscription.buckets, selection -> toJson(deltas.stream()
+                        .filter(delta -> delta.concerns(selection))
+                        .map(Delta::dto)
+                        .toList()));
+                if ("[]".equals(json)) {
+                    continue;
+                }
+                if (subscription.enqueue(json)) {
+                    notified.add(subscription);
+                } else {
+                    log.info("Blotter subscriber for {} fell {} deltas behind, disconnecting", subscription.buckets,
+                            maxQueuedDeltas);
+                    end(subscription);
+                }
+            }
+        }
+        notified.forEach(Subscription::drain);
+    }
+
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.heartbeat();
+        }
+    }
+
+    private List<Delta> loadDeltas(Map<String, Set<BlotterBucket>> batch) {
+        List<String> ids = new ArrayList<>(batch.keySet());
+        Map<String, TraderOrderSummaryDto> current = new HashMap<>();
+        Set<String> ipoFlagged = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += MAX_IDS_PER_QUERY) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_QUERY));
+            current.putAll(traderOrderRepository.findSummariesByClientOrderIdIn(chunk).stream()
+                    .collect(Collectors.toMap(TraderOrderSummaryDto::getClientOrderId, Function.identity())));
+            List<String> collectionCandidates = chunk.stream()
+                    .filter(id -> current.containsKey(id)
+                            && BlotterBucket.of(current.get(id).getStatus(), current.get(id).getSubStatus()) == BlotterBucket.COLLECTION)
+                    .toList();
+            if (!collectionCandidates.isEmpty()) {
+                ipoFlagged.addAll(traderSubOrderRepository.findIpoFlaggedClientOrderIdIn(collectionCandidates));
+            }
+        }
+
+        List<Delta> deltas = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            TraderOrderSummaryDto order = current.get(id);
+            BlotterBucket bucket = order == null ? null : BlotterBucket.of(order.getStatus(), order.getSubStatus());
+            if (bucket != null && bucket.isIpoFlagRequired() && !ipoFlagged.contains(id)) {
+                bucket = null;
+            }
+            deltas.add(new Delta(new BlotterDeltaDto(id, bucket, order), batch.get(id)));
+        }
+        return deltas;
+    }
+
+    private void sendSnapshot(Subscription subscription) {
+        try {
+            for (BlotterBucket bucket : subscription.buckets) {
+                List<TraderOrderSummaryDto> chunk = new ArrayList<>(snapshotChunkSize);
+                blotterService.streamBucket(bucket, order -> {
+                    chunk.add(order);
+                    if (chunk.size() == snapshotChunkSize) {
+                        subscription.sendSnapshot(toJson(new BlotterSnapshotDto(bucket, chunk)));
+                        chunk.clear();
+                    }
+                });
+                if (!chunk.isEmpty()) {
+                    subscription.sendSnapshot(toJson(new BlotterSnapshotDto(bucket, chunk)));
+                }
+            }
+            subscription.ready(toJson(subscription.buckets));
+        } catch (SubscriberGoneException ex) {
+            // Already removed; thrown to stop reading the bucket
+        } catch (RuntimeException ex) {
+            log.warn("Blotter snapshot for {} failed", subscription.buckets, ex);
+            end(subscription);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize blotter event", e);
+        }
+    }
+
+    private void end(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.discard();
+        subscription.sink.close();
+    }
+
+    private record Delta(BlotterDeltaDto dto, Set<BlotterBucket> previousBuckets) {
+
+        boolean concerns(Set<BlotterBucket> selection) {
+            return (dto.getBucket() != null && selection.contains(dto.getBucket()))
+                    || previousBuckets.stream().anyMatch(selection::contains);
+        }
+    }
+
+    /**
+     * One connected subscriber. Sends are serialized by {@code sendLock}; queued deltas are held until the snapshot
+     * is done. The queue itself is guarded by the instance monitor, which is never held while writing.
+     */
+    public final class Subscription {
+
+        private final Set<BlotterBucket> buckets;
+        private final Sink sink;
+        private final ReentrantLock sendLock = new ReentrantLock();
+        private final ArrayDeque<String> queued = new ArrayDeque<>();
+        private boolean ready;
+        private boolean ended;
+
+        private Subscription(Set<BlotterBucket> buckets, Sink sink) {
+            this.buckets = buckets;
+            this.sink = sink;
+        }
+
+        public Set<BlotterBucket> getBuckets() {
+            return buckets;
+        }
+
+        private void sendSnapshot(String json) {
+            sendLock.lock();
+            try {
+                if (!send(SNAPSHOT_EVENT, json)) {
+                    throw new SubscriberGoneException();
+                }
+            } finally {
+                sendLock.unlock();
+            }
+        }
+
+        private void ready(String json) {
+            sendLock.lock();
+            try {
+                if (!send(READY_EVENT, json)) {
+                    return;
+                }
+                synchronized (this) {
+                    ready = true;
+                }
+            } finally {
+                sendLock.unlock();
+            }
+            drain();
+        }
+
+        /**
+         * @return false if the queue is full
+         */
+        private synchronized boolean enqueue(String json) {
+            if (queued.size() >= maxQueuedDeltas) {
+                return false;
+            }
+            queued.add(json);
+            return true;
+        }
+
+        /**
+         * Writes the queued deltas once the snapshot is done. A thread that finds another one writing leaves the
+         * queue to it; the writer checks the queue again after releasing the lock, so nothing is left behind.
+         */
+        private void drain() {
+            while (sendLock.tryLock()) {
+                try {
+                    String json;
+                    while ((json = nextQueued()) != null) {
+                        if (!send(DELTA_EVENT, json)) {
+                            return;
+                        }
+                    }
+                } finally {
+                    sendLock.unlock();
+                }
+                if (!hasQueued()) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void discard() {
+            ended = true;
+            queued.clear();
+        }
+
+        private synchronized boolean isEnded() {
+            return ended;
+        }
+
+        private synchronized String nextQueued() {
+            return ready ? queued.poll() : null;
+        }
+
+        private synchronized boolean hasQueued() {
+            return ready && !queued.isEmpty();
+        }
+
+        private void heartbeat() {
+            synchronized (this) {
+                if (!ready) {
+                    return;
+                }
+            }
+            // A subscriber being written to needs no heartbeat
+            if (!sendLock.tryLock()) {
+                return;
+            }
+            try {
+                sink.heartbeat();
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Blotter subscriber for {} went away: {}", buckets, ex.getMessage());
+                end(this);
+                return;
+            } finally {
+                sendLock.unlock();
+            }
+            drain();
+        }
+
+        private boolean send(String event, String json) {
+            if (isEnded()) {
+                return false;
+            }
+            try {
+                sink.send(event, json);
+                return true;
+            } catch (IOException | RuntimeException ex) {
+                log.debug("Blotter subscriber for {} went away: {}", buckets, ex.getMessage());
+                end(this);
+                return false;
+            }
+        }
+    }
+
+    private static final class SubscriberGoneException extends RuntimeException {
+        SubscriberGoneException() {
+            super(null, null, false, false);
+        }
+    }
+}
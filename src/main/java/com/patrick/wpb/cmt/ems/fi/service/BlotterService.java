@@ -0,0 +1,69 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterCursor;
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterPageDto;
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves blotter buckets either as keyset pages or as a forward-only stream, so memory use does not grow
+ * with the number of orders in a bucket.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlotterService {
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final TraderOrderRepository traderOrderRepository;
+
+    @Transactional(readOnly = true)
+    public BlotterPageDto fetchPage(BlotterBucket bucket, String cursorToken, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        BlotterCursor cursor = BlotterCursor.decode(cursorToken);
+
+        // Read one extra row to find out whether another page exists without a count query
+        List<TraderOrderSummaryDto> rows = traderOrderRepository.findBlotterPage(
+                bucket.getStatus(),
+                bucket.getSubStatuses(),
+                bucket.isIpoFlagRequired(),
+                cursor.getUpdatedAt(),
+                cursor.getClientOrderId(),
+                PageRequest.ofSize(size + 1));
+
+        if (rows.size() <= size) {
+            return BlotterPageDto.builder()
+                    .items(rows)
+                    .build();
+        }
+        List<TraderOrderSummaryDto> items = rows.subList(0, size);
+        return BlotterPageDto.builder()
+                .items(items)
+                .nextCursor(BlotterCursor.after(items.get(size - 1)).encode())
+                .build();
+    }
+
+    /**
+     * Pushes every order in the bucket to {@code sink} in keyset order. The underlying JDBC cursor stays open
+     * for the duration of the call, so the sink should write straight through rather than collect.
+     */
+    @Transactional(readOnly = true)
+    public void streamBucket(BlotterBucket bucket, Consumer<TraderOrderSummaryDto> sink) {
+        try (Stream<TraderOrderSummaryDto> orders = traderOrderRepository.streamBlotter(
+                bucket.getStatus(),
+                bucket.getSubStatuses(),
+                bucket.isIpoFlagRequired())) {
+            orders.forEach(sink);
+        }
+    }
+}
@@ -1,30 +1,42 @@
 package com.patrick.wpb.cmt.ems.fi.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.AccountEligibilityDto;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationAmendLogDto;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownDto;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationDetailDto;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientProRataDto;
+import com.patrick.wpb.cmt.ems.fi.dto.LimitEligibilityDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownSummaryDto;
 import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
-import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalRegionalAllocationEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.AmendmentAction;
 import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.AmendmentObjectType;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
-import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationAmendLogRepository;
+import com.patrick.wpb.cmt.ems.fi.enums.LimitBreach;
 import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
-import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.FinalPricedAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.FinalRegionalAllocationRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationCountrySummaryRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,13 +44,21 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class ClientAllocationService {
 
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
     private final TraderOrderRepository traderOrderRepository;
     private final ClientAllocationBreakdownRepository breakdownRepository;
-    private final ClientAllocationAmendLogRepository amendLogRepository;
-    private final RegionalAllocationBreakdownRepository regionalAllocationBreakdownRepository;
+    private final FinalPricedAllocationBreakdownRepository finalPricedBreakdownRepository;
+    private final FinalRegionalAllocationRepository finalRegionalAllocationRepository;
+    private final RegionalAllocationCountrySummaryRepository countrySummaryRepository;
     private final AmendLogService amendLogService;
     private final StatusService statusService;
-    private final ObjectMapper objectMapper;
+
+    @Value("${ems.client-allocation.pro-rata.lot-size:1}")
+    private BigDecimal defaultLotSize;
+
+    @Value("${ems.client-allocation.pro-rata.minimum-denomination:1}")
+    private BigDecimal defaultMinimumDenomination;
 
     @Transactional(readOnly = true)
     public List<TraderOrderEntity> fetchPendingClientAllocations() {
@@ -59,53 +79,26 @@ public class ClientAllocationService {
         return breakdownRepository.findByOrderClientOrderId(clientOrderId);
     }
 
+    /**
+     * Three statements regardless of the number of breakdowns: the per-country regional summary (read from the
+     * incrementally maintained summary table, one row per country, doubling as the order existence check), the client
+     * breakdowns as a DTO projection, and the amend history.
+     */
     @Transactional(readOnly = true)
     public ClientAllocationDetailDto getClientAllocationDetail(String clientOrderId) {
-        // Verify order exists
-        traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
-
-        // Get Client Allocation Breakdowns
-        List<ClientAllocationBreakdownDto> breakdownDtos = breakdownRepository
-                .findByOrderClientOrderId(clientOrderId).stream()
-                .map(ClientAllocationBreakdownDto::fromEntity)
-                .collect(Collectors.toList());
-
-        // Get Client Allocation Amend Logs
-        List<ClientAllocationAmendLogDto> amendLogDtos = amendLogRepository
-                .findByRefIdOrderByRevisionDesc(clientOrderId).stream()
-                .map(ClientAllocationAmendLogDto::fromEntity)
+        List<RegionalAllocationBreakdownSummaryDto> summaryRows = countrySummaryRepository
+                .findSummariesByClientOrderId(clientOrderId);
+        if (summaryRows.isEmpty()) {
+            throw new TraderOrderNotFoundException(clientOrderId);
+        }
+        // An order without regional breakdowns comes back as a single row with no country
+        List<RegionalAllocationBreakdownSummaryDto> summaryDtos = summaryRows.stream()
+                .filter(summary -> summary.getCountryCode() != null)
                 .collect(Collectors.toList());
 
-        // Get Regional Allocation Breakdowns grouped by country code
-        List<RegionalAllocationBreakdownEntity> regionalBreakdowns = regionalAllocationBreakdownRepository
-                .findByOrderClientOrderId(clientOrderId);
+        List<ClientAllocationBreakdownDto> breakdownDtos = breakdownRepository.findDtosByClientOrderId(clientOrderId);
 
-        // Group by country code and sum order quantity and allocated quantity
-        List<RegionalAllocationBreakdownSummaryDto> summaryDtos = regionalBreakdowns.stream()
-                .collect(Collectors.groupingBy(
-                        RegionalAllocationBreakdownEntity::getCountryCode,
-                        Collectors.collectingAndThen(
-                                Collectors.toList(),
-                                breakdowns -> {
-                                    BigDecimal totalOrderQty = breakdowns.stream()
-                                            .map(RegionalAllocationBreakdownEntity::getOrderQuantity)
-                                            .filter(qty -> qty != null)
-                                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                                    BigDecimal totalAllocatedQty = breakdowns.stream()
-                                            .map(RegionalAllocationBreakdownEntity::getAllocatedQuantity)
-                                            .filter(qty -> qty != null)
-                                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-                                    return RegionalAllocationBreakdownSummaryDto.builder()
-                                            .countryCode(breakdowns.get(0).getCountryCode())
-                                            .totalOrderQuantity(totalOrderQty)
-                                            .totalAllocatedQuantity(totalAllocatedQty)
-                                            .build();
-                                }
-                        )
-                ))
-                .values().stream()
-                .collect(Collectors.toList());
+        List<ClientAllocationAmendLogDto> amendLogDtos = amendLogService.findHistory(clientOrderId);
 
         return ClientAllocationDetailDto.builder()
                 .clientAllocationBreakdowns(breakdownDtos)
@@ -114,26 +107,182 @@ public class ClientAllocationService {
                 .build();
     }
 
+    /**
+     * Splits each market's final regional allocation amount over that market's accounts in {@code breakdowns} (the
+     * saved breakdowns when null or empty) with {@link ClientProRataEngine}, using the configured lot size and
+     * minimum denomination unless given. An account's market is its country code, and its allocation percentage is
+     * its share of that market's amount. Nothing is saved; when demand covers every market and the markets add up
+     * to the order quantity, the returned breakdowns pass {@link #submitForApproval} validation as is.
+     *
+     * @throws IllegalArgumentException if the order has no final regional allocations, an account is in a market
+     *                                  without one, or the lot size, minimum denomination or a market amount is
+     *                                  not a whole number of lots
+     */
+    @Transactional(readOnly = true)
+    public ClientProRataDto computeProRata(String clientOrderId,
+                                           List<ClientAllocationBreakdownRequest> breakdowns,
+                                           BigDecimal lotSize,
+                                           BigDecimal minimumDenomination) {
+        if (!traderOrderRepository.existsById(clientOrderId)) {
+            throw new TraderOrderNotFoundException(clientOrderId);
+        }
+        List<ClientAllocationBreakdownRequest> accounts = breakdowns == null || breakdowns.isEmpty()
+                ? breakdownRepository.findByOrderClientOrderId(clientOrderId).stream()
+                        .map(ClientAllocationService::toRequest)
+                        .toList()
+                : breakdowns;
+        BigDecimal lot = lotSize != null ? lotSize : defaultLotSize;
+        BigDecimal minimum = minimumDenomination != null ? minimumDenomination : defaultMinimumDenomination;
+        long lotUnits = Quantity.unitsOf(lot);
+        long minimumUnits = Quantity.unitsOf(minimum);
+        if (lotUnits <= 0 || minimumUnits <= 0) {
+            throw new IllegalArgumentException("Lot size and minimum denomination must be positive.");
+        }
+        if (minimumUnits % lotUnits != 0) {
+            throw new IllegalArgumentException("Minimum denomination " + minimum.toPlainString()
+                    + " is not a whole number of lots of " + lot.toPlainString() + ".");
+        }
+
+        // Market to its allocation amount and the indexes of its accounts, in market order
+        Map<String, Long> marketUnits = new TreeMap<>();
+        for (FinalRegionalAllocationEntity allocation : finalRegionalAllocationRepository.findByClientOrderId(clientOrderId)) {
+            marketUnits.merge(allocation.getMarket(), Quantity.unitsOrZero(allocation.getAllocationAmount()), Math::addExact);
+        }
+        if (marketUnits.isEmpty()) {
+            throw new IllegalArgumentException("Order " + clientOrderId + " has no final regional allocations to split.");
+        }
+        Map<String, List<Integer>> marketAccounts = new TreeMap<>();
+        marketUnits.forEach((market, units) -> {
+            if (units % lotUnits != 0) {
+                throw new IllegalArgumentException("Final regional allocation of " + market + " is not a whole number of lots of "
+                        + lot.toPlainString() + ".");
+            }
+            marketAccounts.put(market, new ArrayList<>());
+        });
+        for (int i = 0; i < accounts.size(); i++) {
+            ClientAllocationBreakdownRequest account = accounts.get(i);
+            List<Integer> members = marketAccounts.get(account.getCountryCode());
+            if (members == null) {
+                throw new IllegalArgumentException("Account " + account.getAccountNumber() + " is in "
+                        + account.getCountryCode() + ", which has no final regional allocation.");
+            }
+            members.add(i);
+        }
+
+        ClientAllocationBreakdownRequest[] allocated = new ClientAllocationBreakdownRequest[accounts.size()];
+        long totalUnits = 0;
+        long allocatedUnits = 0;
+        int allocatedAccounts = 0;
+        int belowMinimumAccounts = 0;
+        for (Map.Entry<String, List<Integer>> market : marketAccounts.entrySet()) {
+            long amountUnits = marketUnits.get(market.getKey());
+            List<Integer> members = market.getValue();
+            ClientProRataEngine.Result result = ClientProRataEngine.allocate(
+                    members.stream().map(accounts::get).toList(), amountUnits, lotUnits, minimumUnits);
+            long[] units = result.allocatedUnits();
+            for (int m = 0; m < units.length; m++) {
+                int i = members.get(m);
+                ClientAllocationBreakdownRequest account = accounts.get(i);
+                ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+                request.setCountryCode(account.getCountryCode());
+                request.setAccountNumber(account.getAccountNumber());
+                request.setOrderQuantity(account.getOrderQuantity());
+                request.setFinalAllocation(Quantity.toBigDecimal(units[m]));
+                // Percentage of the market's amount, four decimals
+                request.setAllocationPercentage(Quantity.toBigDecimal(amountUnits == 0 ? 0
+                        : LargestRemainder.mulDiv(units[m], 1_000_000L, amountUnits)));
+                request.setEstimatedOrderSize(account.getEstimatedOrderSize());
+                request.setYieldLimit(account.getYieldLimit());
+                request.setSpreadLimit(account.getSpreadLimit());
+                request.setSizeLimit(account.getSizeLimit());
+                allocated[i] = request;
+            }
+            totalUnits = Math.addExact(totalUnits, amountUnits);
+            allocatedUnits += result.allocatedTotal();
+            allocatedAccounts += result.allocatedAccounts();
+            belowMinimumAccounts += result.belowMinimumAccounts();
+        }
+
+        return ClientProRataDto.builder()
+                .totalQuantity(Quantity.toBigDecimal(totalUnits))
+                .allocatedQuantity(Quantity.toBigDecimal(allocatedUnits))
+                .unallocatedQuantity(Quantity.toBigDecimal(totalUnits - allocatedUnits))
+                .lotSize(lot)
+                .minimumDenomination(minimum)
+                .allocatedAccounts(allocatedAccounts)
+                .belowMinimumAccounts(belowMinimumAccounts)
+                .breakdowns(List.of(allocated))
+                .build();
+    }
+
+    /**
+     * Runs {@link LimitEligibilityFilter} over {@code breakdowns} (the saved breakdowns when null or empty) against the
+     * order's final priced breakdowns. Nothing is saved.
+     */
+    @Transactional(readOnly = true)
+    public LimitEligibilityDto evaluateLimits(String clientOrderId,
+                                              List<ClientAllocationBreakdownRequest> breakdowns,
+                                              boolean excludeIneligible) {
+        if (!traderOrderRepository.existsById(clientOrderId)) {
+            throw new TraderOrderNotFoundException(clientOrderId);
+        }
+        List<ClientAllocationBreakdownRequest> accounts = breakdowns == null || breakdowns.isEmpty()
+                ? breakdownRepository.findByOrderClientOrderId(clientOrderId).stream()
+                        .map(ClientAllocationService::toRequest)
+                        .toList()
+                : breakdowns;
+
+        LimitEligibilityFilter.Result result = LimitEligibilityFilter.evaluate(
+                accounts, finalPricedBreakdownRepository.findByOrderClientOrderId(clientOrderId));
+
+        int[] breaches = result.breaches();
+        List<AccountEligibilityDto> flagged = new ArrayList<>();
+        for (int i = 0; i < breaches.length; i++) {
+            if (breaches[i] != 0) {
+                ClientAllocationBreakdownRequest account = accounts.get(i);
+                flagged.add(AccountEligibilityDto.builder()
+                        .countryCode(account.getCountryCode())
+                        .accountNumber(account.getAccountNumber())
+                        .eligible(result.isEligible(i))
+                        .breaches(LimitBreach.of(breaches[i]))
+                        .build());
+            }
+        }
+        List<ClientAllocationBreakdownRequest> kept;
+        if (excludeIneligible) {
+            kept = new ArrayList<>(result.eligibleAccounts());
+            for (int i = 0; i < breaches.length; i++) {
+                if (result.isEligible(i)) {
+                    kept.add(accounts.get(i));
+                }
+            }
+        } else {
+            kept = accounts;
+        }
+
+        return LimitEligibilityDto.builder()
+                .totalAccounts(accounts.size())
+                .eligibleAccounts(result.eligibleAccounts())
+                .yieldBreaches(result.yieldBreaches())
+                .spreadBreaches(result.spreadBreaches())
+                .sizeBreaches(result.sizeBreaches())
+                .unpricedAccounts(result.unpricedAccounts())
+                .flaggedAccounts(flagged)
+                .breakdowns(kept)
+                .build();
+    }
+
     @Transactional
     public List<ClientAllocationBreakdownEntity> saveDraftAllocations(String clientOrderId,
                                                                       List<ClientAllocationBreakdownRequest> items) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
         if (order.getStatus() != IPOOrderStatus.CLIENT_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION) {
-            throw new IllegalStateException("Draft allocations can only be saved when order is pending client allocation.");
-        }
-
-        List<ClientAllocationBreakdownEntity> existing = breakdownRepository.findByOrderClientOrderId(clientOrderId);
-        if (!existing.isEmpty()) {
-            breakdownRepository.deleteAll(existing);
+            throw new OrderStateConflictException("Draft allocations can only be saved when order is pending client allocation.");
         }
 
-        List<ClientAllocationBreakdownEntity> newEntities = items.stream()
-                .map(item -> mapToEntity(order, item))
-                .collect(Collectors.toList());
-
-        return breakdownRepository.saveAll(newEntities);
+        return reconcileBreakdowns(order, items, ClientAllocationStatus.NEW);
     }
 
     @Transactional
@@ -142,31 +291,30 @@ public class ClientAllocationService {
                                                String changedBy,
                                                String note) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.CLIENT_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION) {
-            throw new IllegalStateException("Order is not in pending client allocation status.");
+            throw new OrderStateConflictException("Order is not in pending client allocation status.");
         }
 
         validateFinalAllocations(order.getOrderQuantity(), proposedBreakdowns);
 
         // Get existing breakdowns for before state
         List<ClientAllocationBreakdownEntity> existingBreakdowns = breakdownRepository.findByOrderClientOrderId(clientOrderId);
-        String beforeJson = toJson(existingBreakdowns.stream()
-                .map(ClientAllocationBreakdownDto::fromEntity)
-                .toList());
-        String afterJson = toJson(proposedBreakdowns);
+        List<ClientAllocationBreakdownRequest> before = existingBreakdowns.stream()
+                .map(ClientAllocationService::toRequest)
+                .toList();
 
         // Save adjusted data to Client Allocation Breakdown with status=NEW
-        upsertClientAllocationBreakdowns(order, proposedBreakdowns);
+        reconcileBreakdowns(order, proposedBreakdowns, ClientAllocationStatus.NEW);
 
         // Save to amend log
         amendLogService.recordAmendment(
                 clientOrderId,
                 AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN,
-                beforeJson,
-                afterJson,
+                before,
+                proposedBreakdowns,
                 changedBy
         );
 
@@ -179,22 +327,34 @@ public class ClientAllocationService {
         );
     }
 
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 50, multiplier = 2, maxDelay = 500, random = true))
     @Transactional
     public TraderOrderEntity approve(String clientOrderId, String changedBy, String note) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.CLIENT_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL) {
-            throw new IllegalStateException("Order is not pending client allocation approval.");
+            throw new OrderStateConflictException("Order is not pending client allocation approval.");
         }
 
         ClientAllocationAmendLogEntity latestLog = amendLogService.findLatestByRefId(clientOrderId)
                 .orElseThrow(() -> new IllegalStateException("No client allocation amend log found for order " + clientOrderId));
 
-        List<ClientAllocationBreakdownRequest> approvedBreakdowns = fromJson(latestLog.getAfterObjectJson());
+        List<ClientAllocationBreakdownRequest> approvedBreakdowns = amendLogService.readAfter(latestLog);
+        Long readVersion = order.getVersion();
 
-        applyApprovedBreakdowns(order, approvedBreakdowns);
+        // Set status to ACCEPTED when approving
+        reconcileBreakdowns(order, approvedBreakdowns, ClientAllocationStatus.ACCEPTED);
+
+        // The bulk status flip detaches the order, so the version flushed with the status change is the one
+        // re-read below; compare it with the version the approval was checked against
+        if (!readVersion.equals(traderOrderRepository.findById(clientOrderId)
+                .map(TraderOrderEntity::getVersion)
+                .orElse(null))) {
+            throw new ObjectOptimisticLockingFailureException(TraderOrderEntity.class, clientOrderId);
+        }
 
         // Update amend log action to APPROVED
         amendLogService.updateAction(clientOrderId, AmendmentAction.APPROVED);
@@ -208,14 +368,16 @@ public class ClientAllocationService {
         );
     }
 
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 50, multiplier = 2, maxDelay = 500, random = true))
     @Transactional
     public TraderOrderEntity reject(String clientOrderId, String changedBy, String note) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.CLIENT_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL) {
-            throw new IllegalStateException("Order is not pending client allocation approval.");
+            throw new OrderStateConflictException("Order is not pending client allocation approval.");
         }
 
         // Update Client Allocation Breakdown status to NEW
@@ -236,73 +398,111 @@ public class ClientAllocationService {
         );
     }
 
-    private void applyApprovedBreakdowns(TraderOrderEntity order, List<ClientAllocationBreakdownRequest> approvedBreakdowns) {
-        List<ClientAllocationBreakdownEntity> existing = breakdownRepository.findByOrderClientOrderId(order.getClientOrderId());
-        if (!existing.isEmpty()) {
-            breakdownRepository.deleteAll(existing);
+    /**
+     * Brings the order's breakdowns in line with {@code requests}, keyed on (country code, account number),
+     * writing only what differs: inserts for new accounts, updates for rows whose values changed, a bulk
+     * status flip for rows that only need {@code status}, and a bulk delete for accounts no longer present. The
+     * bulk statements run per {@value #MAX_IDS_PER_STATEMENT} ids.
+     *
+     * @return the resulting breakdowns in request order
+     */
+    private List<ClientAllocationBreakdownEntity> reconcileBreakdowns(TraderOrderEntity order,
+                                                                     List<ClientAllocationBreakdownRequest> requests,
+                                                                     ClientAllocationStatus status) {
+        KeyedReconciler.Changes<ClientAllocationBreakdownEntity, ClientAllocationBreakdownRequest> changes =
+                KeyedReconciler.reconcile(
+                        breakdownRepository.findByOrderClientOrderId(order.getClientOrderId()),
+                        b -> new AccountKey(b.getCountryCode(), b.getAccountNumber()),
+                        requests,
+                        r -> new AccountKey(r.getCountryCode(), r.getAccountNumber()));
+
+        List<ClientAllocationBreakdownEntity> result = new ArrayList<>(requests.size());
+        List<ClientAllocationBreakdownEntity> inserts = new ArrayList<>();
+        List<ClientAllocationBreakdownEntity> statusOnly = new ArrayList<>();
+        for (KeyedReconciler.Match<ClientAllocationBreakdownEntity, ClientAllocationBreakdownRequest> match : changes.matches()) {
+            ClientAllocationBreakdownRequest request = match.request();
+            ClientAllocationBreakdownEntity breakdown = match.existing();
+
+            if (match.isInsert()) {
+                breakdown = mapToEntity(order, request);
+                breakdown.setClientAllocationStatus(status);
+                inserts.add(breakdown);
+            } else if (hasSameValues(breakdown, request)) {
+                if (breakdown.getClientAllocationStatus() != status) {
+                    statusOnly.add(breakdown);
+                }
+            } else {
+                // Managed entity, flushed as a batched UPDATE by dirty checking
+                copyValues(request, breakdown);
+                breakdown.setClientAllocationStatus(status);
+            }
+            result.add(breakdown);
         }
 
-        List<ClientAllocationBreakdownEntity> entities = approvedBreakdowns.stream()
-                .map(item -> {
-                    ClientAllocationBreakdownEntity entity = mapToEntity(order, item);
-                    // Set status to ACCEPTED when approving
-                    entity.setClientAllocationStatus(ClientAllocationStatus.ACCEPTED);
-                    return entity;
-                })
+        if (!inserts.isEmpty()) {
+            breakdownRepository.saveAll(inserts);
+        }
+        // Chunked so each IN list stays well under PostgreSQL's 32767 bind parameters
+        List<Long> deleteIds = changes.deletes().stream()
+                .map(ClientAllocationBreakdownEntity::getId)
                 .collect(Collectors.toList());
-        breakdownRepository.saveAll(entities);
-    }
-
-    private void upsertClientAllocationBreakdowns(TraderOrderEntity order, List<ClientAllocationBreakdownRequest> breakdownRequests) {
-        // Get existing breakdowns for this order
-        List<ClientAllocationBreakdownEntity> existingBreakdowns = breakdownRepository
-                .findByOrderClientOrderId(order.getClientOrderId());
-        
-        // Create a map of existing breakdowns by account number and country code for quick lookup
-        var existingMap = existingBreakdowns.stream()
-                .collect(Collectors.toMap(
-                        b -> b.getCountryCode() + "|" + b.getAccountNumber(),
-                        b -> b,
-                        (existing, replacement) -> existing
-                ));
-
-        // Upsert breakdowns from request with status=NEW
-        for (ClientAllocationBreakdownRequest request : breakdownRequests) {
-            String key = request.getCountryCode() + "|" + request.getAccountNumber();
-            ClientAllocationBreakdownEntity breakdown = existingMap.get(key);
-            
-            if (breakdown == null) {
-                breakdown = ClientAllocationBreakdownEntity.builder()
-                        .order(order)
-                        .countryCode(request.getCountryCode())
-                        .accountNumber(request.getAccountNumber())
-                        .build();
+        for (int from = 0; from < deleteIds.size(); from += MAX_IDS_PER_STATEMENT) {
+            breakdownRepository.deleteAllByIdInBatch(
+                    deleteIds.subList(from, Math.min(deleteIds.size(), from + MAX_IDS_PER_STATEMENT)));
+        }
+        if (!statusOnly.isEmpty()) {
+            // Flushes the inserts/updates above and detaches every loaded instance
+            List<Long> statusOnlyIds = statusOnly.stream()
+                    .map(ClientAllocationBreakdownEntity::getId)
+                    .collect(Collectors.toList());
+            Instant now = Instant.now();
+            for (int from = 0; from < statusOnlyIds.size(); from += MAX_IDS_PER_STATEMENT) {
+                breakdownRepository.updateStatusByIdIn(
+                        statusOnlyIds.subList(from, Math.min(statusOnlyIds.size(), from + MAX_IDS_PER_STATEMENT)),
+                        status,
+                        now);
             }
-            
-            breakdown.setOrderQuantity(request.getOrderQuantity());
-            breakdown.setFinalAllocation(request.getFinalAllocation());
-            breakdown.setAllocationPercentage(request.getAllocationPercentage());
-            breakdown.setEstimatedOrderSize(request.getEstimatedOrderSize());
-            breakdown.setYieldLimit(request.getYieldLimit());
-            breakdown.setSpreadLimit(request.getSpreadLimit());
-            breakdown.setSizeLimit(request.getSizeLimit());
-            breakdown.setClientAllocationStatus(ClientAllocationStatus.NEW);
-            
-            breakdownRepository.save(breakdown);
+            statusOnly.forEach(breakdown -> breakdown.setClientAllocationStatus(status));
         }
+        return result;
+    }
 
-        // Remove breakdowns that are no longer in the request
-        List<String> requestKeys = breakdownRequests.stream()
-                .map(b -> b.getCountryCode() + "|" + b.getAccountNumber())
-                .collect(Collectors.toList());
-        
-        List<ClientAllocationBreakdownEntity> toDelete = existingBreakdowns.stream()
-                .filter(b -> !requestKeys.contains(b.getCountryCode() + "|" + b.getAccountNumber()))
-                .collect(Collectors.toList());
-        
-        if (!toDelete.isEmpty()) {
-            breakdownRepository.deleteAll(toDelete);
-        }
+    private static boolean hasSameValues(ClientAllocationBreakdownEntity entity, ClientAllocationBreakdownRequest request) {
+        return sameAmount(entity.getOrderQuantity(), request.getOrderQuantity())
+                && sameAmount(entity.getFinalAllocation(), request.getFinalAllocation())
+                && sameAmount(entity.getAllocationPercentage(), request.getAllocationPercentage())
+                && sameAmount(entity.getEstimatedOrderSize(), request.getEstimatedOrderSize())
+                && sameAmount(entity.getYieldLimit(), request.getYieldLimit())
+                && sameAmount(entity.getSpreadLimit(), request.getSpreadLimit())
+                && sameAmount(entity.getSizeLimit(), request.getSizeLimit());
+    }
+
+    private static boolean sameAmount(BigDecimal current, BigDecimal requested) {
+        return current == null ? requested == null : requested != null && current.compareTo(requested) == 0;
+    }
+
+    private static void copyValues(ClientAllocationBreakdownRequest request, ClientAllocationBreakdownEntity breakdown) {
+        breakdown.setOrderQuantity(request.getOrderQuantity());
+        breakdown.setFinalAllocation(request.getFinalAllocation());
+        breakdown.setAllocationPercentage(request.getAllocationPercentage());
+        breakdown.setEstimatedOrderSize(request.getEstimatedOrderSize());
+        breakdown.setYieldLimit(request.getYieldLimit());
+        breakdown.setSpreadLimit(request.getSpreadLimit());
+        breakdown.setSizeLimit(request.getSizeLimit());
+    }
+
+    private static ClientAllocationBreakdownRequest toRequest(ClientAllocationBreakdownEntity breakdown) {
+        ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+        request.setCountryCode(breakdown.getCountryCode());
+        request.setAccountNumber(breakdown.getAccountNumber());
+        request.setOrderQuantity(breakdown.getOrderQuantity());
+        request.setFinalAllocation(breakdown.getFinalAllocation());
+        request.setAllocationPercentage(breakdown.getAllocationPercentage());
+        request.setEstimatedOrderSize(breakdown.getEstimatedOrderSize());
+        request.setYieldLimit(breakdown.getYieldLimit());
+        request.setSpreadLimit(breakdown.getSpreadLimit());
+        request.setSizeLimit(breakdown.getSizeLimit());
+        return request;
     }
 
     private ClientAllocationBreakdownEntity mapToEntity(TraderOrderEntity order, ClientAllocationBreakdownRequest dto) {
@@ -322,29 +522,16 @@ public class ClientAllocationService {
 
     private void validateFinalAllocations(BigDecimal orderQuantity,
                                           List<ClientAllocationBreakdownRequest> breakdowns) {
-        BigDecimal total = breakdowns.stream()
-                .map(ClientAllocationBreakdownRequest::getFinalAllocation)
-                .filter(value -> value != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        if (total.compareTo(orderQuantity) != 0) {
-            throw new IllegalArgumentException("Final allocations must sum to the trader order quantity.");
-        }
-    }
-
-    private String toJson(Object object) {
+        long total = 0;
         try {
-            return objectMapper.writeValueAsString(object);
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to serialize object to JSON", e);
+            for (ClientAllocationBreakdownRequest breakdown : breakdowns) {
+                total = Math.addExact(total, Quantity.unitsOrZero(breakdown.getFinalAllocation()));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Final allocations must sum to the trader order quantity.");
         }
-    }
-
-    private List<ClientAllocationBreakdownRequest> fromJson(String json) {
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<ClientAllocationBreakdownRequest>>() {});
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Failed to deserialize client allocation breakdown JSON", e);
+        if (total != Quantity.unitsOf(orderQuantity)) {
+            throw new IllegalArgumentException("Final allocations must sum to the trader order quantity.");
         }
     }
 }
-
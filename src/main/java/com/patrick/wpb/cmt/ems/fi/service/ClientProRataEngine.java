@@ -0,0 +1,190 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits an order's quantity over its client accounts in whole lots.
+ * <p>
+ * An account's demand is its estimated order size (its order quantity when none is given) capped at its size limit,
+ * rounded down to a whole number of lots; demand below the minimum denomination is not allocated. When total demand
+ * exceeds the order, every account gets the floor of its pro-rata share in lots and the lots left over go one each to
+ * the largest remainders, ties to the earlier account. An account whose share ends up below the minimum denomination
+ * is dropped and the split is run again over the rest, which only raises the remaining shares; this repeats until
+ * every share clears the minimum. Allocations are therefore zero or at least the minimum denomination, multiples of
+ * the lot size, and add up to the order quantity whenever demand covers it.
+ * <p>
+ * Quantities are read once into scaled {@code long} arrays. The per-account passes run on the common fork-join pool
+ * in ranges of {@value #PARALLEL_THRESHOLD} accounts; smaller books run on the calling thread.
+ */
+public final class ClientProRataEngine {
+
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    private ClientProRataEngine() {
+    }
+
+    /**
+     * @param breakdowns   accounts in submission order; {@code finalAllocation} is ignored
+     * @param totalUnits   quantity to split, in {@link Quantity} units
+     * @param lotUnits     allocation increment, in {@link Quantity} units
+     * @param minimumUnits smallest non-zero allocation, a multiple of {@code lotUnits}
+     * @throws IllegalArgumentException if the lot size or minimum is not positive, or the minimum or the total is not
+     *                                  a whole number of lots
+     */
+    public static Result allocate(List<ClientAllocationBreakdownRequest> breakdowns, long totalUnits, long lotUnits,
+                                  long minimumUnits) {
+        if (lotUnits <= 0 || minimumUnits <= 0) {
+            throw new IllegalArgumentException("Lot size and minimum denomination must be positive.");
+        }
+        if (minimumUnits % lotUnits != 0) {
+            throw new IllegalArgumentException("Minimum denomination must be a whole number of lots.");
+        }
+        if (totalUnits < 0 || totalUnits % lotUnits != 0) {
+            throw new IllegalArgumentException("Quantity to allocate must be a whole number of lots.");
+        }
+        int count = breakdowns.size();
+        long targetLots = totalUnits / lotUnits;
+        long minimumLots = minimumUnits / lotUnits;
+
+        long[] demandLots = new long[count];
+        long[] shares = new long[count];
+        long[] remainders = new long[count];
+        int[] members = new int[count];
+        long[] scratch = new long[count];
+
+        long totalDemand = sum(count, (from, to) -> {
+            long demand = 0;
+            for (int i = from; i < to; i++) {
+                ClientAllocationBreakdownRequest breakdown = breakdowns.get(i);
+                long units = Quantity.unitsOrZero(breakdown.getEstimatedOrderSize() != null
+                        ? breakdown.getEstimatedOrderSize()
+                        : breakdown.getOrderQuantity());
+                if (breakdown.getSizeLimit() != null) {
+                    units = Math.min(units, Quantity.unitsOf(breakdown.getSizeLimit()));
+                }
+                long lots = Math.max(units, 0) / lotUnits;
+                if (lots >= minimumLots) {
+                    demandLots[i] = lots;
+                    demand = Math.addExact(demand, lots);
+                } else {
+                    // Marks demand below the minimum, counted and cleared below
+                    demandLots[i] = units > 0 ? -1 : 0;
+                }
+            }
+            return demand;
+        });
+        int belowMinimum = 0;
+        for (int i = 0; i < count; i++) {
+            if (demandLots[i] < 0) {
+                demandLots[i] = 0;
+                belowMinimum++;
+            }
+        }
+
+        while (true) {
+            long demand = totalDemand;
+            if (demand <= targetLots) {
+                System.arraycopy(demandLots, 0, shares, 0, count);
+                break;
+            }
+            long floored = sum(count, (from, to) -> {
+                long subtotal = 0;
+                for (int i = from; i < to; i++) {
+                    shares[i] = demandLots[i] == 0 ? 0
+                            : LargestRemainder.mulDiv(demandLots[i], targetLots, demand, remainders, i);
+                    subtotal += shares[i];
+                }
+                return subtotal;
+            });
+            int memberCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (demandLots[i] > 0) {
+                    members[memberCount++] = i;
+                }
+            }
+            LargestRemainder.distribute(members, memberCount, remainders, targetLots - floored, 1, shares, scratch);
+
+            int dropped = 0;
+            for (int m = 0; m < memberCount; m++) {
+                int i = members[m];
+                if (shares[i] < minimumLots) {
+                    totalDemand -= demandLots[i];
+                    demandLots[i] = 0;
+                    shares[i] = 0;
+                    dropped++;
+                }
+            }
+            if (dropped == 0) {
+                break;
+            }
+            belowMinimum += dropped;
+        }
+
+        long[] allocatedUnits = new long[count];
+        long allocatedLots = 0;
+        int allocatedAccounts = 0;
+        for (int i = 0; i < count; i++) {
+            allocatedUnits[i] = Math.multiplyExact(shares[i], lotUnits);
+            allocatedLots += shares[i];
+            if (shares[i] > 0) {
+                allocatedAccounts++;
+            }
+        }
+        long allocated = Math.multiplyExact(allocatedLots, lotUnits);
+        return new Result(allocatedUnits, allocated, totalUnits - allocated, allocatedAccounts, belowMinimum);
+    }
+
+    private static long sum(int count, RangeSum leaf) {
+        if (count <= PARALLEL_THRESHOLD) {
+            return leaf.apply(0, count);
+        }
+        return ForkJoinPool.commonPool().invoke(new RangeTask(leaf, 0, count));
+    }
+
+    @FunctionalInterface
+    private interface RangeSum {
+
+        long apply(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveTask<Long> {
+
+        private final RangeSum leaf;
+        private final int from;
+        private final int to;
+
+        private RangeTask(RangeSum leaf, int from, int to) {
+            this.leaf = leaf;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return leaf.apply(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            RangeTask left = new RangeTask(leaf, from, middle);
+            left.fork();
+            long right = new RangeTask(leaf, middle, to).compute();
+            return Math.addExact(left.join(), right);
+        }
+    }
+
+    /**
+     * @param allocatedUnits       allocation per account in {@link Quantity} units, in input order
+     * @param allocatedTotal       sum of {@code allocatedUnits}
+     * @param unallocatedUnits     part of the total left over because demand did not cover it
+     * @param allocatedAccounts    accounts with a non-zero allocation
+     * @param belowMinimumAccounts accounts with demand that received nothing because their demand or share was below
+     *                             the minimum denomination
+     */
+    public record Result(long[] allocatedUnits, long allocatedTotal, long unallocatedUnits, int allocatedAccounts,
+                         int belowMinimumAccounts) {
+    }
+}
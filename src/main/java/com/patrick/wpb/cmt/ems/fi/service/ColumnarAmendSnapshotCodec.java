@@ -0,0 +1,193 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deflate-compressed column-major binary encoding. Each field is written for all rows before the next field, so
+ * repeated values (country codes, identical limits, common scales) sit next to each other and compress well.
+ * Country codes are dictionary encoded; amounts are stored as unscaled long plus scale, falling back to the
+ * two's-complement bytes when the unscaled value does not fit a long.
+ */
+@Component
+public class ColumnarAmendSnapshotCodec implements AmendSnapshotCodec {
+
+    public static final String NAME = "COLUMNAR_DEFLATE_V1";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte NULL_AMOUNT = 0;
+    private static final byte LONG_AMOUNT = 1;
+    private static final byte BIG_AMOUNT = 2;
+
+    private static final List<Function<ClientAllocationBreakdownRequest, BigDecimal>> AMOUNT_GETTERS = List.of(
+            ClientAllocationBreakdownRequest::getOrderQuantity,
+            ClientAllocationBreakdownRequest::getFinalAllocation,
+            ClientAllocationBreakdownRequest::getAllocationPercentage,
+            ClientAllocationBreakdownRequest::getEstimatedOrderSize,
+            ClientAllocationBreakdownRequest::getYieldLimit,
+            ClientAllocationBreakdownRequest::getSpreadLimit,
+            ClientAllocationBreakdownRequest::getSizeLimit
+    );
+
+    private static final List<BiConsumer<ClientAllocationBreakdownRequest, BigDecimal>> AMOUNT_SETTERS = List.of(
+            ClientAllocationBreakdownRequest::setOrderQuantity,
+            ClientAllocationBreakdownRequest::setFinalAllocation,
+            ClientAllocationBreakdownRequest::setAllocationPercentage,
+            ClientAllocationBreakdownRequest::setEstimatedOrderSize,
+            ClientAllocationBreakdownRequest::setYieldLimit,
+            ClientAllocationBreakdownRequest::setSpreadLimit,
+            ClientAllocationBreakdownRequest::setSizeLimit
+    );
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(AmendSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(bytes, deflater, BUFFER_SIZE), BUFFER_SIZE))) {
+            writeRows(out, snapshot.upserts(), true);
+            writeRows(out, snapshot.removals(), false);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode amend snapshot", e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public AmendSnapshot decode(byte[] bytes) {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(bytes), inflater, BUFFER_SIZE), BUFFER_SIZE))) {
+            List<ClientAllocationBreakdownRequest> upserts = readRows(in, true);
+            List<ClientAllocationBreakdownRequest> removals = readRows(in, false);
+            return new AmendSnapshot(upserts, removals);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode amend snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeRows(DataOutputStream out,
+                                  List<ClientAllocationBreakdownRequest> rows,
+                                  boolean withAmounts) throws IOException {
+        out.writeInt(rows.size());
+
+        Map<String, Integer> countryCodes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] countryIndexes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            countryIndexes[i] = countryCodes.computeIfAbsent(rows.get(i).getCountryCode(), code -> {
+                dictionary.add(code);
+                return dictionary.size() - 1;
+            });
+        }
+        out.writeInt(dictionary.size());
+        for (String code : dictionary) {
+            out.writeUTF(code);
+        }
+        for (int index : countryIndexes) {
+            out.writeShort(index);
+        }
+        for (ClientAllocationBreakdownRequest row : rows) {
+            out.writeUTF(row.getAccountNumber());
+        }
+
+        if (withAmounts) {
+            for (Function<ClientAllocationBreakdownRequest, BigDecimal> getter : AMOUNT_GETTERS) {
+                for (ClientAllocationBreakdownRequest row : rows) {
+                    writeAmount(out, getter.apply(row));
+                }
+            }
+        }
+    }
+
+    private static List<ClientAllocationBreakdownRequest> readRows(DataInputStream in,
+                                                                   boolean withAmounts) throws IOException {
+        int rowCount = in.readInt();
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+
+        List<ClientAllocationBreakdownRequest> rows = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            ClientAllocationBreakdownRequest row = new ClientAllocationBreakdownRequest();
+            row.setCountryCode(dictionary[in.readUnsignedShort()]);
+            rows.add(row);
+        }
+        for (ClientAllocationBreakdownRequest row : rows) {
+            row.setAccountNumber(in.readUTF());
+        }
+
+        if (withAmounts) {
+            for (BiConsumer<ClientAllocationBreakdownRequest, BigDecimal> setter : AMOUNT_SETTERS) {
+                for (ClientAllocationBreakdownRequest row : rows) {
+                    setter.accept(row, readAmount(in));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeAmount(DataOutputStream out, BigDecimal amount) throws IOException {
+        if (amount == null) {
+            out.writeByte(NULL_AMOUNT);
+            return;
+        }
+        BigInteger unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            out.writeByte(LONG_AMOUNT);
+            out.writeLong(unscaled.longValue());
+        } else {
+            byte[] magnitude = unscaled.toByteArray();
+            out.writeByte(BIG_AMOUNT);
+            out.writeShort(magnitude.length);
+            out.write(magnitude);
+        }
+        out.writeInt(amount.scale());
+    }
+
+    private static BigDecimal readAmount(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == NULL_AMOUNT) {
+            return null;
+        }
+        BigInteger unscaled;
+        if (kind == LONG_AMOUNT) {
+            unscaled = BigInteger.valueOf(in.readLong());
+        } else {
+            byte[] magnitude = new byte[in.readUnsignedShort()];
+            in.readFully(magnitude);
+            unscaled = new BigInteger(magnitude);
+        }
+        return new BigDecimal(unscaled, in.readInt());
+    }
+}
@@ -0,0 +1,56 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.OrderStatusEvent;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends each event as one JSON line to {@code ems.outbox.file.path} and syncs the file before returning. A stand-in
+ * for a message broker in environments without one; consumers tail the file and skip event ids they have seen.
+ */
+@Component
+@RequiredArgsConstructor
+public class FileOrderStatusEventPublisher implements OrderStatusEventPublisher {
+
+    public static final String NAME = "FILE";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${ems.outbox.file.path:outbox/order-status-events.jsonl}")
+    private Path path;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void publish(List<OrderStatusEvent> events) {
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileOutputStream file = new FileOutputStream(path.toFile(), true)) {
+                OutputStream out = new BufferedOutputStream(file, 1 << 16);
+                for (OrderStatusEvent event : events) {
+                    out.write(objectMapper.writeValueAsBytes(event));
+                    out.write('\n');
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to append order status events to " + path, e);
+        }
+    }
+}
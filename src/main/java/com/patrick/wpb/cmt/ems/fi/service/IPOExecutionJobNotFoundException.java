@@ -0,0 +1,11 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * No IPO execution job with the given id belongs to the order. Mapped to 404 Not Found.
+ */
+public class IPOExecutionJobNotFoundException extends RuntimeException {
+
+    public IPOExecutionJobNotFoundException(String clientOrderId, String jobId) {
+        super("IPO execution job " + jobId + " not found for order " + clientOrderId);
+    }
+}
@@ -0,0 +1,235 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.IPOExecutionJobDto;
+import com.patrick.wpb.cmt.ems.fi.entity.IPOExecutionJobEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOExecutionJobStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.IPOExecutionJobRepository;
+import com.patrick.wpb.cmt.ems.fi.request.IPOExecRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs {@link IPOExecutionService#executeIPOOrder} in the background on a bounded pool, keyed by a client supplied
+ * idempotency key.
+ * <p>
+ * Submitting a key again returns the existing job instead of splitting the group order a second time; reusing a
+ * key for a different request is a conflict. The split and the move to {@code SUCCEEDED} commit in one transaction,
+ * so a job that failed, was rejected by a full queue, or was orphaned by a restart ({@code QUEUED}/{@code RUNNING}
+ * untouched for longer than {@code stale-after}) has created nothing and is run again when the same key is
+ * resubmitted. The job's version guards that hand-over: an orphaned run that wakes up after its job was requeued
+ * fails its final update and rolls its split back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IPOExecutionJobService {
+
+    private final IPOExecutionJobRepository jobRepository;
+    private final IPOExecutionService ipoExecutionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ems.ipo-execution.async.pool-size:2}")
+    private int poolSize;
+
+    @Value("${ems.ipo-execution.async.queue-capacity:50}")
+    private int queueCapacity;
+
+    @Value("${ems.ipo-execution.async.stale-after:PT15M}")
+    private Duration staleAfter;
+
+    private ThreadPoolTaskExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ipo-execution-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Accepts a split for background execution, or returns the job already registered under the idempotency key.
+     *
+     * @throws IllegalArgumentException if the idempotency key is missing or too long
+     * @throws IllegalStateException    if the key was used for a different order or request body
+     */
+    public IPOExecutionJobDto submit(String clientOrderId, String idempotencyKey, IPOExecRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank() || idempotencyKey.length() > 128) {
+            throw new IllegalArgumentException("Idempotency key is required and must be at most 128 characters");
+        }
+        String fingerprint = fingerprint(clientOrderId, request);
+
+        Optional<IPOExecutionJobEntity> existing = jobRepository.findByIdempotencyKey(idempotencyKey);
+        if (existing.isEmpty()) {
+            try {
+                IPOExecutionJobEntity created = transactionTemplate.execute(status -> jobRepository.saveAndFlush(
+                        IPOExecutionJobEntity.builder()
+                                .jobId(UUID.randomUUID().toString())
+                                .idempotencyKey(idempotencyKey)
+                                .requestFingerprint(fingerprint)
+                                .clientOrderId(clientOrderId)
+                                .status(IPOExecutionJobStatus.QUEUED)
+                                .attempts(0)
+                                .build()));
+                return dispatch(created, request);
+            } catch (DataIntegrityViolationException ex) {
+                // A concurrent submission with the same key inserted first
+                existing = jobRepository.findByIdempotencyKey(idempotencyKey);
+            }
+        }
+
+        IPOExecutionJobEntity job = existing.orElseThrow(() ->
+                new IllegalStateException("IPO execution job for idempotency key " + idempotencyKey + " disappeared"));
+        if (!job.getRequestFingerprint().equals(fingerprint)) {
+            throw new OrderStateConflictException("Idempotency key " + idempotencyKey
+                    + " was already used for a different IPO execution request");
+        }
+        return isRerunnable(job) ? requeue(job, request) : IPOExecutionJobDto.fromEntity(job);
+    }
+
+    /**
+     * @throws IPOExecutionJobNotFoundException if there is no such job for this order
+     */
+    public IPOExecutionJobDto getJob(String clientOrderId, String jobId) {
+        return jobRepository.findById(jobId)
+                .filter(job -> job.getClientOrderId().equals(clientOrderId))
+                .map(IPOExecutionJobDto::fromEntity)
+                .orElseThrow(() -> new IPOExecutionJobNotFoundException(clientOrderId, jobId));
+    }
+
+    private boolean isRerunnable(IPOExecutionJobEntity job) {
+        return switch (job.getStatus()) {
+            case FAILED -> true;
+            case QUEUED, RUNNING -> job.getUpdatedAt().isBefore(Instant.now().minus(staleAfter));
+            case SUCCEEDED -> false;
+        };
+    }
+
+    private IPOExecutionJobDto requeue(IPOExecutionJobEntity job, IPOExecRequest request) {
+        IPOExecutionJobEntity queued;
+        try {
+            queued = transactionTemplate.execute(status -> {
+                job.setStatus(IPOExecutionJobStatus.QUEUED);
+                job.setErrorMessage(null);
+                job.setStartedAt(null);
+                job.setCompletedAt(null);
+                return jobRepository.saveAndFlush(job);
+            });
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            // A concurrent resubmission requeued it first
+            return IPOExecutionJobDto.fromEntity(jobRepository.findById(job.getJobId()).orElseThrow());
+        }
+        log.info("Requeued IPO execution job {} for order {}", queued.getJobId(), queued.getClientOrderId());
+        return dispatch(queued, request);
+    }
+
+    private IPOExecutionJobDto dispatch(IPOExecutionJobEntity job, IPOExecRequest request) {
+        try {
+            executor.execute(() -> run(job.getJobId(), request));
+            return IPOExecutionJobDto.fromEntity(job);
+        } catch (TaskRejectedException ex) {
+            log.warn("IPO execution queue is full, rejecting job {} for order {}", job.getJobId(), job.getClientOrderId());
+            fail(job.getJobId(), job.getVersion(), "IPO execution queue is full, resubmit with the same idempotency key");
+            return IPOExecutionJobDto.fromEntity(jobRepository.findById(job.getJobId()).orElseThrow());
+        }
+    }
+
+    private void run(String jobId, IPOExecRequest request) {
+        IPOExecutionJobEntity job = transactionTemplate.execute(status -> {
+            IPOExecutionJobEntity queued = jobRepository.findById(jobId).orElseThrow();
+            if (queued.getStatus() != IPOExecutionJobStatus.QUEUED) {
+                // Already picked up by an earlier task for the same job
+                return null;
+            }
+            queued.setStatus(IPOExecutionJobStatus.RUNNING);
+            queued.setStartedAt(Instant.now());
+            queued.setAttempts(queued.getAttempts() + 1);
+            return jobRepository.saveAndFlush(queued);
+        });
+        if (job == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<String> groupOrderIds = transactionTemplate.execute(status -> {
+                List<String> ids = ipoExecutionService.executeIPOOrder(job.getClientOrderId(), request).stream()
+                        .map(TraderOrderEntity::getClientOrderId)
+                        .collect(Collectors.toList());
+                // Loaded after the split, whose bulk updates clear the persistence context
+                IPOExecutionJobEntity running = jobRepository.findById(jobId).orElseThrow();
+                if (!running.getVersion().equals(job.getVersion())) {
+                    throw new ObjectOptimisticLockingFailureException(IPOExecutionJobEntity.class, jobId);
+                }
+                running.setStatus(IPOExecutionJobStatus.SUCCEEDED);
+                running.setGroupOrderIds(String.join(",", ids));
+                running.setCompletedAt(Instant.now());
+                return ids;
+            });
+            log.info("IPO execution job {} for order {} created group orders {} in {}ms",
+                    jobId, job.getClientOrderId(), groupOrderIds, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            log.warn("IPO execution job {} for order {} failed", jobId, job.getClientOrderId(), ex);
+            fail(jobId, job.getVersion(), ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Marks the job failed unless it changed since {@code expectedVersion}, i.e. unless another run took it over.
+     */
+    private void fail(String jobId, Long expectedVersion, String errorMessage) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId)
+                .filter(job -> job.getVersion().equals(expectedVersion))
+                .ifPresent(job -> {
+                    job.setStatus(IPOExecutionJobStatus.FAILED);
+                    job.setErrorMessage(errorMessage.length() > IPOExecutionJobEntity.MAX_ERROR_LENGTH
+                            ? errorMessage.substring(0, IPOExecutionJobEntity.MAX_ERROR_LENGTH)
+                            : errorMessage);
+                    job.setCompletedAt(Instant.now());
+                }));
+    }
+
+    private String fingerprint(String clientOrderId, IPOExecRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(clientOrderId.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint IPO execution request", e);
+        }
+    }
+}
@@ -1,21 +1,26 @@
 package com.patrick.wpb.cmt.ems.fi.service;
 
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
 import com.patrick.wpb.cmt.ems.fi.entity.OrderExecutionDetailEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.repo.OrderExecutionDetailRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
 import com.patrick.wpb.cmt.ems.fi.request.IPOExecRequest;
 import com.patrick.wpb.cmt.ems.fi.request.RegionalCounterpartyExecutionRequest;
+import com.patrick.wpb.cmt.ems.fi.util.EntityCopyMapper;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
 import com.patrick.wpb.cmt.ems.fi.util.TraderOrderCloneUtil;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,11 +29,21 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class IPOExecutionService {
 
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
     private final TraderOrderRepository traderOrderRepository;
     private final OrderExecutionDetailRepository orderExecutionDetailRepository;
+    private final BlotterEventService blotterEventService;
 
     /**
      * Executes IPO group order execution by creating new group orders for specified regions.
+     * <p>
+     * Set based: the children are read once as projections and partitioned by country in a single pass, the new
+     * group orders and execution details are inserted as JDBC batches, and each region's children are re-pointed
+     * with one bulk UPDATE per {@value #MAX_IDS_PER_STATEMENT} children, keeping the IN list well under the driver's
+     * bind parameter limit. The statement count grows with the regions and thousands of children, not per child.
+     * A country repeated in the request only takes the children once; later repeats are skipped like a region
+     * without children.
      * 
      * @param existingGroupOrderId The existing group order's client order ID
      * @param request The IPO execution request containing regional counterparty execution requests
@@ -38,7 +53,7 @@ public class IPOExecutionService {
     public List<TraderOrderEntity> executeIPOOrder(String existingGroupOrderId, IPOExecRequest request) {
         // Validate and fetch existing group order
         TraderOrderEntity existingGroupOrder = traderOrderRepository.findById(existingGroupOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Group order not found for id: " + existingGroupOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(existingGroupOrderId));
 
         // Validate that it's a group order (should not have originalClientOrderId)
         if (existingGroupOrder.getOriginalClientOrderId() != null) {
@@ -49,89 +64,96 @@ public class IPOExecutionService {
         Optional<OrderExecutionDetailEntity> existingExecutionDetail = 
                 orderExecutionDetailRepository.findByClientOrderId(existingGroupOrderId);
 
-        // Get all child orders of the existing group order
-        List<TraderOrderEntity> childOrders = traderOrderRepository.findByOriginalClientOrderId(existingGroupOrderId);
-        
-        if (childOrders.isEmpty()) {
+        // Partition all child orders of the existing group order by country in one pass
+        Map<String, RegionalChildren> childrenByCountry = partitionByCountry(
+                traderOrderRepository.findSummariesByOriginalClientOrderId(existingGroupOrderId));
+
+        if (childrenByCountry.isEmpty()) {
             throw new IllegalStateException("No child orders found for group order: " + existingGroupOrderId);
         }
 
         List<TraderOrderEntity> newGroupOrders = new ArrayList<>();
-        BigDecimal totalQuantityToDeduct = BigDecimal.ZERO;
+        List<OrderExecutionDetailEntity> newExecutionDetails = new ArrayList<>();
+        Map<String, List<String>> childIdsByNewGroupOrderId = new LinkedHashMap<>();
+        long unitsToDeduct = 0;
 
         // Process each regional execution request
         for (RegionalCounterpartyExecutionRequest regionalRequest : request.getRegionalCounterpartyExecutionRequestList()) {
             String targetCountryCode = regionalRequest.getCountryCode();
 
-            // Find child orders matching the target region
-            List<TraderOrderEntity> matchingChildOrders = childOrders.stream()
-                    .filter(order -> targetCountryCode.equals(order.getCountryCode()))
-                    .collect(Collectors.toList());
-
-            if (matchingChildOrders.isEmpty()) {
+            RegionalChildren matchingChildren = childrenByCountry.remove(targetCountryCode);
+            if (matchingChildren == null) {
                 log.warn("No child orders found for region {} in group order {}", targetCountryCode, existingGroupOrderId);
                 continue;
             }
-
-            // Calculate sum of quantities for this region
-            BigDecimal regionalQuantity = matchingChildOrders.stream()
-                    .map(TraderOrderEntity::getOrderQuantity)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            BigDecimal regionalQuantity = Quantity.toBigDecimal(matchingChildren.units);
 
             // Create new group order for this region using clone utility
             String newGroupOrderId = UUID.randomUUID().toString();
-            TraderOrderEntity newGroupOrder = TraderOrderCloneUtil.clone(
+            newGroupOrders.add(TraderOrderCloneUtil.clone(
                     existingGroupOrder,
                     newGroupOrderId,
                     targetCountryCode,
                     regionalQuantity
-            );
-
-            TraderOrderEntity savedNewGroupOrder = traderOrderRepository.save(newGroupOrder);
-            newGroupOrders.add(savedNewGroupOrder);
+            ));
 
             // Create new OrderExecutionDetailEntity for the new group order
             if (existingExecutionDetail.isPresent()) {
-                OrderExecutionDetailEntity newExecutionDetail = createExecutionDetail(
+                newExecutionDetails.add(createExecutionDetail(
                         existingExecutionDetail.get(),
                         newGroupOrderId,
                         regionalQuantity,
                         regionalRequest.getCounterpartyId(),
                         request.getBookingCenter()
-                );
-                orderExecutionDetailRepository.save(newExecutionDetail);
-                log.info("Created execution detail {} for new group order {}", 
-                        newExecutionDetail.getExecutionId(), newGroupOrderId);
+                ));
             } else {
                 log.warn("No existing execution detail found for group order {}, skipping execution detail creation", 
                         existingGroupOrderId);
             }
 
-            // Update child orders' originalClientOrderId to point to new group order
-            matchingChildOrders.forEach(childOrder -> {
-                childOrder.setOriginalClientOrderId(newGroupOrderId);
-            });
-            traderOrderRepository.saveAll(matchingChildOrders);
+            childIdsByNewGroupOrderId.put(newGroupOrderId, matchingChildren.clientOrderIds);
 
             // Accumulate quantity to deduct from existing group order
-            totalQuantityToDeduct = totalQuantityToDeduct.add(regionalQuantity);
+            unitsToDeduct = Math.addExact(unitsToDeduct, matchingChildren.units);
 
             log.info("Created new group order {} for region {} with quantity {}", 
                     newGroupOrderId, targetCountryCode, regionalQuantity);
         }
 
         // Update existing group order quantity (exclude new group orders' quantities)
-        BigDecimal newQuantity = existingGroupOrder.getOrderQuantity().subtract(totalQuantityToDeduct);
-        if (newQuantity.compareTo(BigDecimal.ZERO) < 0) {
+        BigDecimal previousQuantity = existingGroupOrder.getOrderQuantity();
+        long newUnits = Quantity.unitsOf(previousQuantity) - unitsToDeduct;
+        if (newUnits < 0) {
             throw new IllegalStateException(
                     String.format("Cannot deduct quantity %s from group order with quantity %s",
-                            totalQuantityToDeduct, existingGroupOrder.getOrderQuantity()));
+                            Quantity.toBigDecimal(unitsToDeduct), previousQuantity));
         }
+        BigDecimal newQuantity = Quantity.toBigDecimal(newUnits);
         existingGroupOrder.setOrderQuantity(newQuantity);
-        traderOrderRepository.save(existingGroupOrder);
+
+        // Queued as batched INSERTs; the first bulk UPDATE below flushes them together with the quantity change
+        traderOrderRepository.saveAll(newGroupOrders);
+        orderExecutionDetailRepository.saveAll(newExecutionDetails);
+
+        // Update child orders' originalClientOrderId to point to new group order, one statement per region and chunk
+        Instant now = Instant.now();
+        childIdsByNewGroupOrderId.forEach((newGroupOrderId, childIds) -> {
+            for (int from = 0; from < childIds.size(); from += MAX_IDS_PER_STATEMENT) {
+                List<String> chunk = childIds.subList(from, Math.min(childIds.size(), from + MAX_IDS_PER_STATEMENT));
+                traderOrderRepository.updateOriginalClientOrderIdByClientOrderIdIn(chunk, newGroupOrderId, now);
+            }
+        });
+
+        List<String> changedIds = new ArrayList<>();
+        changedIds.add(existingGroupOrderId);
+        childIdsByNewGroupOrderId.forEach((newGroupOrderId, childIds) -> {
+            changedIds.add(newGroupOrderId);
+            changedIds.addAll(childIds);
+        });
+        blotterEventService.ordersChanged(changedIds);
 
         log.info("Updated existing group order {} quantity from {} to {}", 
-                existingGroupOrderId, existingGroupOrder.getOrderQuantity().add(totalQuantityToDeduct), newQuantity);
+                existingGroupOrderId, previousQuantity, newQuantity);
 
         return newGroupOrders;
     }
@@ -154,8 +176,8 @@ public class IPOExecutionService {
                                                               String bookingCenter) {
         OrderExecutionDetailEntity newExecutionDetail = new OrderExecutionDetailEntity();
         
-        // Copy all properties from source using BeanUtils
-        BeanUtils.copyProperties(source, newExecutionDetail);
+        // Copy all columns from source using the generated mapper
+        EntityCopyMapper.INSTANCE.copy(source, newExecutionDetail);
         
         // Override specific fields
         newExecutionDetail.setExecutionId(UUID.randomUUID().toString());
@@ -174,5 +196,20 @@ public class IPOExecutionService {
         
         return newExecutionDetail;
     }
-}
 
+    private static Map<String, RegionalChildren> partitionByCountry(List<TraderOrderSummaryDto> children) {
+        Map<String, RegionalChildren> byCountry = new HashMap<>();
+        for (TraderOrderSummaryDto child : children) {
+            RegionalChildren regional = byCountry.computeIfAbsent(child.getCountryCode(), country -> new RegionalChildren());
+            regional.clientOrderIds.add(child.getClientOrderId());
+            regional.units = Math.addExact(regional.units, Quantity.unitsOf(child.getOrderQuantity()));
+        }
+        return byCountry;
+    }
+
+    private static final class RegionalChildren {
+        private final List<String> clientOrderIds = new ArrayList<>();
+        // Scaled quantity units, see Quantity
+        private long units;
+    }
+}
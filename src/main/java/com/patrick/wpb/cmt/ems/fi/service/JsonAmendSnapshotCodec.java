@@ -0,0 +1,42 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain Jackson encoding, uncompressed. Larger than {@link ColumnarAmendSnapshotCodec} but human readable in the
+ * database, which is occasionally handy when debugging an environment.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonAmendSnapshotCodec implements AmendSnapshotCodec {
+
+    public static final String NAME = "JSON";
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(AmendSnapshot snapshot) {
+        try {
+            return objectMapper.writeValueAsBytes(snapshot);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to serialize amend snapshot to JSON", e);
+        }
+    }
+
+    @Override
+    public AmendSnapshot decode(byte[] bytes) {
+        try {
+            return objectMapper.readValue(bytes, AmendSnapshot.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to deserialize amend snapshot JSON", e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Matches submitted rows against stored rows by key and lists the stored rows nothing matched. One pass
+ * over each side with a hash map sized up front, so reconciling n rows is O(n) whatever the key type; callers
+ * supply composite key records rather than concatenated strings.
+ */
+public final class KeyedReconciler {
+
+    private KeyedReconciler() {
+    }
+
+    /**
+     * @param existing    stored rows; when two share a key the first is matched and the others are deleted
+     * @param existingKey key of a stored row
+     * @param requests    submitted rows, each key at most once
+     * @param requestKey  key of a submitted row
+     * @throws IllegalArgumentException if two submitted rows share a key; a client error, answered with 400
+     */
+    public static <K, E, R> Changes<E, R> reconcile(Collection<E> existing,
+                                                    Function<? super E, ? extends K> existingKey,
+                                                    List<R> requests,
+                                                    Function<? super R, ? extends K> requestKey) {
+        Map<K, E> unmatched = new HashMap<>(capacity(existing.size()));
+        List<E> deletes = new ArrayList<>();
+        for (E row : existing) {
+            if (unmatched.putIfAbsent(existingKey.apply(row), row) != null) {
+                deletes.add(row);
+            }
+        }
+
+        Set<K> seen = new HashSet<>(capacity(requests.size()));
+        List<Match<E, R>> matches = new ArrayList<>(requests.size());
+        for (R request : requests) {
+            K key = requestKey.apply(request);
+            if (!seen.add(key)) {
+                throw new IllegalArgumentException("Duplicate entry in request for " + key);
+            }
+            matches.add(new Match<>(unmatched.remove(key), request));
+        }
+        deletes.addAll(unmatched.values());
+        return new Changes<>(matches, deletes);
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
+    /**
+     * A submitted row and the stored row it replaces, {@code null} for a new row.
+     */
+    public record Match<E, R>(E existing, R request) {
+
+        public boolean isInsert() {
+            return existing == null;
+        }
+    }
+
+    /**
+     * @param matches every submitted row in request order
+     * @param deletes stored rows no submitted row matched
+     */
+    public record Changes<E, R>(List<Match<E, R>> matches, List<E> deletes) {
+    }
+}
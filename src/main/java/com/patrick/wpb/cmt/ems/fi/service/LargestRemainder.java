@@ -0,0 +1,82 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Exact pro-rata helpers on scaled {@code long} quantities. Shares are floored and the units left over are handed
+ * out one each to the largest remainders, ties going to the lower index, so the shares always add up to the total
+ * and the same input always gives the same split.
+ */
+final class LargestRemainder {
+
+    private LargestRemainder() {
+    }
+
+    /**
+     * {@code floor(a * b / c)} for non-negative arguments, storing {@code a * b mod c} in {@code remainders[index]}.
+     * Stays on {@code long} arithmetic unless the product needs more than 63 bits.
+     */
+    static long mulDiv(long a, long b, long c, long[] remainders, int index) {
+        if (Math.multiplyHigh(a, b) == 0) {
+            long product = a * b;
+            if (product >= 0) {
+                remainders[index] = product % c;
+                return product / c;
+            }
+        }
+        BigInteger[] quotientAndRemainder = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                .divideAndRemainder(BigInteger.valueOf(c));
+        remainders[index] = quotientAndRemainder[1].longValueExact();
+        return quotientAndRemainder[0].longValueExact();
+    }
+
+    /**
+     * {@code floor(a * b / c)} for non-negative arguments.
+     */
+    static long mulDiv(long a, long b, long c) {
+        if (Math.multiplyHigh(a, b) == 0) {
+            long product = a * b;
+            if (product >= 0) {
+                return product / c;
+            }
+        }
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).divide(BigInteger.valueOf(c)).longValueExact();
+    }
+
+    /**
+     * Adds {@code step} to {@code shares[i]} for the {@code residualSteps} members with the largest remainders.
+     *
+     * @param members    indices taking part, in ascending order; ties go to the earlier member
+     * @param count      number of entries of {@code members} in use
+     * @param remainders remainder per index, comparable within this call only
+     * @param scratch    at least {@code count} long, overwritten
+     */
+    static void distribute(int[] members, int count, long[] remainders, long residualSteps, long step,
+                           long[] shares, long[] scratch) {
+        if (residualSteps <= 0) {
+            return;
+        }
+        if (residualSteps > count) {
+            throw new IllegalStateException("Residual of " + residualSteps + " steps exceeds " + count + " members");
+        }
+        for (int i = 0; i < count; i++) {
+            scratch[i] = remainders[members[i]];
+        }
+        Arrays.sort(scratch, 0, count);
+        // Remainder of the last member to receive a step; every larger one receives one, ties fill up by order
+        long threshold = scratch[count - (int) residualSteps];
+        long above = 0;
+        for (int i = count - 1; i >= 0 && scratch[i] > threshold; i--) {
+            above++;
+        }
+        long ties = residualSteps - above;
+        for (int i = 0; i < count; i++) {
+            int member = members[i];
+            long remainder = remainders[member];
+            if (remainder > threshold || (remainder == threshold && ties-- > 0)) {
+                shares[member] += step;
+            }
+        }
+    }
+}
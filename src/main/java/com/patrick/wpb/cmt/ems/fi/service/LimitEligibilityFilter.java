@@ -0,0 +1,93 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalPricedAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.LimitBreach;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks client breakdowns' limits against the final price of their country.
+ * <p>
+ * A country is priced on the {@code limit_type} of its {@link FinalPricedAllocationBreakdownEntity}: on
+ * {@code YIELD} an account breaches when the final yield is below its {@code yieldLimit}, on {@code SPREAD} when the
+ * final spread is below its {@code spreadLimit}; a limit of the other type does not apply. Independently, an account
+ * breaches its {@code sizeLimit} when its final allocation exceeds it. An account with a yield or spread limit in a
+ * country without a final price is marked {@link LimitBreach#UNPRICED} but stays eligible.
+ * <p>
+ * A book is checked once per request, so the {@code BigDecimal} fields are compared account by account in a single
+ * pass: reading the book into {@code long} columns first would cost more than the compares it saves.
+ */
+public final class LimitEligibilityFilter {
+
+    public static final String YIELD = "YIELD";
+    public static final String SPREAD = "SPREAD";
+
+    private static final int YIELD_BREACH = LimitBreach.YIELD.mask();
+    private static final int SPREAD_BREACH = LimitBreach.SPREAD.mask();
+    private static final int SIZE_BREACH = LimitBreach.SIZE.mask();
+    private static final int UNPRICED = LimitBreach.UNPRICED.mask();
+    private static final int INELIGIBLE = YIELD_BREACH | SPREAD_BREACH | SIZE_BREACH;
+
+    private LimitEligibilityFilter() {
+    }
+
+    /**
+     * @param prices final priced rows of the order, at most one per country
+     */
+    public static Result evaluate(List<ClientAllocationBreakdownRequest> breakdowns,
+                                  List<FinalPricedAllocationBreakdownEntity> prices) {
+        Map<String, FinalPricedAllocationBreakdownEntity> priceByCountry = new HashMap<>();
+        for (FinalPricedAllocationBreakdownEntity price : prices) {
+            if (price.getFinalPrice() != null) {
+                priceByCountry.put(price.getCountryCode(), price);
+            }
+        }
+
+        int count = breakdowns.size();
+        int[] breaches = new int[count];
+        int eligible = 0;
+        int yieldBreaches = 0;
+        int spreadBreaches = 0;
+        int sizeBreaches = 0;
+        int unpriced = 0;
+        for (int i = 0; i < count; i++) {
+            ClientAllocationBreakdownRequest breakdown = breakdowns.get(i);
+            FinalPricedAllocationBreakdownEntity price = priceByCountry.get(breakdown.getCountryCode());
+            int mask = 0;
+            if (price == null) {
+                mask |= breakdown.getYieldLimit() != null || breakdown.getSpreadLimit() != null ? UNPRICED : 0;
+            } else if (YIELD.equals(price.getLimitType())) {
+                mask |= breakdown.getYieldLimit() != null
+                        && price.getFinalPrice().compareTo(breakdown.getYieldLimit()) < 0 ? YIELD_BREACH : 0;
+            } else if (SPREAD.equals(price.getLimitType())) {
+                mask |= breakdown.getSpreadLimit() != null
+                        && price.getFinalPrice().compareTo(breakdown.getSpreadLimit()) < 0 ? SPREAD_BREACH : 0;
+            }
+            BigDecimal allocation = breakdown.getFinalAllocation() == null ? BigDecimal.ZERO : breakdown.getFinalAllocation();
+            mask |= breakdown.getSizeLimit() != null && allocation.compareTo(breakdown.getSizeLimit()) > 0 ? SIZE_BREACH : 0;
+
+            breaches[i] = mask;
+            eligible += (mask & INELIGIBLE) == 0 ? 1 : 0;
+            yieldBreaches += (mask & YIELD_BREACH) != 0 ? 1 : 0;
+            spreadBreaches += (mask & SPREAD_BREACH) != 0 ? 1 : 0;
+            sizeBreaches += (mask & SIZE_BREACH) != 0 ? 1 : 0;
+            unpriced += (mask & UNPRICED) != 0 ? 1 : 0;
+        }
+        return new Result(breaches, eligible, yieldBreaches, spreadBreaches, sizeBreaches, unpriced);
+    }
+
+    /**
+     * @param breaches         {@link LimitBreach} mask per breakdown, in input order; zero when within every limit
+     * @param eligibleAccounts breakdowns with no yield, spread or size breach
+     */
+    public record Result(int[] breaches, int eligibleAccounts, int yieldBreaches, int spreadBreaches,
+                         int sizeBreaches, int unpricedAccounts) {
+
+        public boolean isEligible(int index) {
+            return (breaches[index] & INELIGIBLE) == 0;
+        }
+    }
+}
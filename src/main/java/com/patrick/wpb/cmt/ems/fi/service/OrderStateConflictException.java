@@ -0,0 +1,12 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * The order is no longer in a state the request applies to, typically because another caller moved it first (the
+ * competing approver won). Mapped to 409 Conflict; other {@link IllegalStateException}s are server errors.
+ */
+public class OrderStateConflictException extends IllegalStateException {
+
+    public OrderStateConflictException(String message) {
+        super(message);
+    }
+}
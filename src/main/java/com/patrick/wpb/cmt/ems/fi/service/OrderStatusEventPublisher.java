@@ -0,0 +1,20 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.OrderStatusEvent;
+import java.util.List;
+
+/**
+ * Downstream transport for order status events. Implementations are Spring beans; {@link OrderStatusOutboxRelay}
+ * publishes through the one named by {@code ems.outbox.publisher}.
+ */
+public interface OrderStatusEventPublisher {
+
+    String name();
+
+    /**
+     * Delivers a batch in list order, which is id order. Returning normally marks the whole batch published;
+     * throwing leaves it pending and the relay sends it again from the first event, so events already delivered
+     * from a failed batch are delivered twice.
+     */
+    void publish(List<OrderStatusEvent> events);
+}
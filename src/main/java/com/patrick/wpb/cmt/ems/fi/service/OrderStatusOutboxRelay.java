@@ -0,0 +1,163 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.OrderStatusEvent;
+import com.patrick.wpb.cmt.ems.fi.entity.OrderStatusOutboxEntity;
+import com.patrick.wpb.cmt.ems.fi.repo.OrderStatusOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes {@code order_status_outbox} rows through the configured {@link OrderStatusEventPublisher}.
+ * <p>
+ * Each batch is the oldest pending rows, locked, published and marked in one transaction, so delivery is
+ * at-least-once: a crash or a failed commit after the publisher returned sends the batch again. A failed batch
+ * stops the run and is retried from its first event on the next poll, which keeps every order's events in id
+ * order. Concurrent relays on other nodes wait on the row locks rather than publish around them.
+ * <p>
+ * Meters: {@code ems.outbox.lag} (age of the oldest pending event, seconds), {@code ems.outbox.pending},
+ * {@code ems.outbox.delivery.delay} (change to publish, per event), {@code ems.outbox.published} and
+ * {@code ems.outbox.publish.failures}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderStatusOutboxRelay {
+
+    private final OrderStatusOutboxRepository outboxRepository;
+    private final List<OrderStatusEventPublisher> publishers;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ems.outbox.relay.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ems.outbox.publisher:" + FileOrderStatusEventPublisher.NAME + "}")
+    private String publisherName;
+
+    @Value("${ems.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ems.outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${ems.outbox.retention:P7D}")
+    private Duration retention;
+
+    private OrderStatusEventPublisher publisher;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong pending = new AtomicLong();
+    private Counter publishedCounter;
+    private Counter failureCounter;
+    private Timer deliveryDelay;
+
+    @PostConstruct
+    void init() {
+        publisher = publishers.stream()
+                .filter(candidate -> candidate.name().equals(publisherName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown order status event publisher " + publisherName));
+
+        Gauge.builder("ems.outbox.lag", lagMillis, millis -> millis.get() / 1000.0)
+                .baseUnit("seconds")
+                .description("Age of the oldest unpublished order status event")
+                .register(meterRegistry);
+        Gauge.builder("ems.outbox.pending", pending, AtomicLong::get)
+                .description("Unpublished order status events")
+                .register(meterRegistry);
+        publishedCounter = meterRegistry.counter("ems.outbox.published");
+        failureCounter = meterRegistry.counter("ems.outbox.publish.failures");
+        deliveryDelay = Timer.builder("ems.outbox.delivery.delay")
+                .description("Time from an order status change to its publication")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${ems.outbox.relay.initial-delay:PT10S}",
+            fixedDelayString = "${ems.outbox.relay.interval:PT1S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        relayPending();
+        transactionTemplate.executeWithoutResult(status ->
+                outboxRepository.deletePublishedBefore(Instant.now().minus(retention)));
+    }
+
+    /**
+     * Publishes pending events batch by batch until none are left, a batch fails, or {@code max-batches-per-run}
+     * batches were sent, then refreshes the lag gauges.
+     *
+     * @return the number of events published
+     */
+    public int relayPending() {
+        int total = 0;
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int published = relayBatch();
+                total += published;
+                if (published < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            refreshLag();
+        }
+        return total;
+    }
+
+    private int relayBatch() {
+        List<Long> ids = new ArrayList<>();
+        List<OrderStatusOutboxEntity> batch;
+        try {
+            batch = transactionTemplate.execute(status -> {
+                List<OrderStatusOutboxEntity> pendingRows = outboxRepository.findPendingForUpdate(Limit.of(batchSize));
+                if (pendingRows.isEmpty()) {
+                    return pendingRows;
+                }
+                pendingRows.forEach(row -> ids.add(row.getId()));
+                publisher.publish(pendingRows.stream().map(OrderStatusEvent::fromEntity).toList());
+                outboxRepository.markPublished(ids, Instant.now());
+                return pendingRows;
+            });
+        } catch (RuntimeException ex) {
+            failureCounter.increment();
+            log.warn("Publishing {} order status events from id {} failed, retrying on the next poll",
+                    ids.size(), ids.isEmpty() ? null : ids.get(0), ex);
+            if (!ids.isEmpty()) {
+                String error = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.recordFailure(ids,
+                        error.length() > OrderStatusOutboxEntity.MAX_ERROR_LENGTH
+                                ? error.substring(0, OrderStatusOutboxEntity.MAX_ERROR_LENGTH)
+                                : error));
+            }
+            return 0;
+        }
+
+        Instant committedAt = Instant.now();
+        publishedCounter.increment(batch.size());
+        batch.forEach(row -> deliveryDelay.record(Duration.between(row.getChangedAt(), committedAt)));
+        return batch.size();
+    }
+
+    private void refreshLag() {
+        lagMillis.set(outboxRepository.findOldestPendingChangedAt()
+                .map(changedAt -> Math.max(0, Duration.between(changedAt, Instant.now()).toMillis()))
+                .orElse(0L));
+        pending.set(outboxRepository.countByPublishedAtIsNull());
+    }
+}
@@ -8,23 +8,34 @@ import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationDetailDto;
 import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationDto;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalProRataPreviewDto;
 import com.patrick.wpb.cmt.ems.fi.entity.FinalPricedAllocationBreakdownEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.FinalRegionalAllocationEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationCountrySummaryEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.RegionalAllocationStatus;
 import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationCountrySummaryRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.FinalPricedAllocationBreakdownRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.FinalRegionalAllocationRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -32,9 +43,12 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class RegionalAllocationService {
 
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
     private final RegionalAllocationRepository regionalAllocationRepository;
     private final TraderOrderRepository traderOrderRepository;
     private final RegionalAllocationBreakdownRepository regionalAllocationBreakdownRepository;
+    private final RegionalAllocationCountrySummaryRepository countrySummaryRepository;
     private final FinalPricedAllocationBreakdownRepository finalPricedAllocationBreakdownRepository;
     private final FinalRegionalAllocationRepository finalRegionalAllocationRepository;
     private final StatusService statusService;
@@ -44,23 +58,24 @@ public class RegionalAllocationService {
         return traderOrderRepository.findByStatus(IPOOrderStatus.REGIONAL_ALLOCATION);
     }
 
+    /**
+     * Four statements regardless of the number of breakdowns: the regional allocation (left-joined from the order,
+     * doubling as the existence check), the breakdowns as a DTO projection, and the two small per-country tables.
+     */
     @Transactional(readOnly = true)
     public RegionalAllocationDetailDto getRegionalAllocationDetail(String clientOrderId) {
-        // Verify order exists
-        traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
-
-        // Get Regional Allocation
-        RegionalAllocationEntity regionalAllocation = regionalAllocationRepository.findById(clientOrderId).orElse(null);
+        List<RegionalAllocationEntity> allocationOfOrder = regionalAllocationRepository
+                .findByOrderClientOrderIdIncludingMissing(clientOrderId);
+        if (allocationOfOrder.isEmpty()) {
+            throw new TraderOrderNotFoundException(clientOrderId);
+        }
+        RegionalAllocationEntity regionalAllocation = allocationOfOrder.get(0);
         RegionalAllocationDto regionalAllocationDto = regionalAllocation != null
                 ? RegionalAllocationDto.fromEntity(regionalAllocation)
                 : null;
 
-        // Get Regional Allocation Breakdowns
         List<RegionalAllocationBreakdownDto> breakdownDtos = regionalAllocationBreakdownRepository
-                .findByOrderClientOrderId(clientOrderId).stream()
-                .map(RegionalAllocationBreakdownDto::fromEntity)
-                .collect(Collectors.toList());
+                .findDtosByClientOrderId(clientOrderId);
 
         // Get Final Priced Allocation Breakdowns
         List<FinalPricedAllocationBreakdownDto> pricedBreakdownDtos = finalPricedAllocationBreakdownRepository
@@ -90,7 +105,7 @@ public class RegionalAllocationService {
                                                      String limitType,
                                                      BigDecimal sizeLimit) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         validateAllocations(order.getOrderQuantity(), hkOrderQuantity, sgOrderQuantity);
 
@@ -118,15 +133,40 @@ public class RegionalAllocationService {
                                                String changedBy,
                                                String note) {
         // Verify regional allocation exists
-        regionalAllocationRepository.findById(clientOrderId)
+        RegionalAllocationEntity allocation = regionalAllocationRepository.findById(clientOrderId)
                 .orElseThrow(() -> new IllegalStateException("Regional allocation must be saved before submission."));
 
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.REGIONAL_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION) {
-            throw new IllegalStateException("Order is not in pending regional allocation status.");
+            throw new OrderStateConflictException("Order is not in pending regional allocation status.");
+        }
+
+        if (finalRegionalAllocations == null || finalRegionalAllocations.isEmpty()) {
+            // Computed here instead of by the client: market rows and each account's allocated quantity, on copies so
+            // the caller's requests are left as submitted
+            RegionalProRataEngine.Result proRata = RegionalProRataEngine.allocate(allocation, regionalAllocationBreakdowns);
+            long[] allocatedUnits = proRata.allocatedUnits();
+            List<RegionalAllocationBreakdownRequest> allocated = new ArrayList<>(allocatedUnits.length);
+            for (int i = 0; i < allocatedUnits.length; i++) {
+                RegionalAllocationBreakdownRequest source = regionalAllocationBreakdowns.get(i);
+                RegionalAllocationBreakdownRequest breakdown = new RegionalAllocationBreakdownRequest();
+                breakdown.setCountryCode(source.getCountryCode());
+                breakdown.setAccountNumber(source.getAccountNumber());
+                breakdown.setOrderQuantity(source.getOrderQuantity());
+                breakdown.setAllocatedQuantity(Quantity.toBigDecimal(allocatedUnits[i]));
+                breakdown.setFinalAllocation(source.getFinalAllocation());
+                breakdown.setAllocationPercentage(source.getAllocationPercentage());
+                breakdown.setEstimatedOrderSize(source.getEstimatedOrderSize());
+                breakdown.setYieldLimit(source.getYieldLimit());
+                breakdown.setSpreadLimit(source.getSpreadLimit());
+                breakdown.setSizeLimit(source.getSizeLimit());
+                allocated.add(breakdown);
+            }
+            regionalAllocationBreakdowns = allocated;
+            finalRegionalAllocations = proRata.finalRegionalAllocations();
         }
 
         // Upsert Regional Allocation Breakdown records with status=NEW from request
@@ -147,17 +187,61 @@ public class RegionalAllocationService {
         );
     }
 
+    /**
+     * Runs {@link RegionalProRataEngine} over {@code breakdowns} against the saved HK and SG amounts without saving
+     * anything.
+     */
+    @Transactional(readOnly = true)
+    public RegionalProRataPreviewDto previewProRata(String clientOrderId, List<RegionalAllocationBreakdownRequest> breakdowns) {
+        RegionalAllocationEntity allocation = regionalAllocationRepository.findById(clientOrderId)
+                .orElseThrow(() -> new IllegalStateException("Regional allocation must be saved before a pro-rata preview."));
+
+        RegionalProRataEngine.Result proRata = RegionalProRataEngine.allocate(allocation, breakdowns);
+        long[] allocatedUnits = proRata.allocatedUnits();
+        List<RegionalAllocationBreakdownDto> accounts = new ArrayList<>(breakdowns.size());
+        for (int i = 0; i < allocatedUnits.length; i++) {
+            RegionalAllocationBreakdownRequest breakdown = breakdowns.get(i);
+            accounts.add(RegionalAllocationBreakdownDto.builder()
+                    .countryCode(breakdown.getCountryCode())
+                    .accountNumber(breakdown.getAccountNumber())
+                    .orderQuantity(breakdown.getOrderQuantity())
+                    .allocatedQuantity(Quantity.toBigDecimal(allocatedUnits[i]))
+                    .finalAllocation(breakdown.getFinalAllocation())
+                    .allocationPercentage(breakdown.getAllocationPercentage())
+                    .estimatedOrderSize(breakdown.getEstimatedOrderSize())
+                    .yieldLimit(breakdown.getYieldLimit())
+                    .spreadLimit(breakdown.getSpreadLimit())
+                    .sizeLimit(breakdown.getSizeLimit())
+                    .build());
+        }
+        return RegionalProRataPreviewDto.builder()
+                .finalRegionalAllocations(proRata.finalRegionalAllocations().stream()
+                        .map(market -> FinalRegionalAllocationDto.builder()
+                                .market(market.getMarket())
+                                .asiaAllocation(market.getAsiaAllocation())
+                                .allocation(market.getAllocation())
+                                .effectiveOrder(market.getEffectiveOrder())
+                                .proRata(market.getProRata())
+                                .allocationAmount(market.getAllocationAmount())
+                                .build())
+                        .toList())
+                .regionalAllocationBreakdowns(accounts)
+                .build();
+    }
+
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 50, multiplier = 2, maxDelay = 500, random = true))
     @Transactional
     public TraderOrderEntity approve(String clientOrderId, String changedBy, String note) {
         regionalAllocationRepository.findById(clientOrderId)
                 .orElseThrow(() -> new IllegalStateException("Regional allocation must exist before approval."));
 
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.REGIONAL_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL) {
-            throw new IllegalStateException("Order is not pending regional allocation approval.");
+            throw new OrderStateConflictException("Order is not pending regional allocation approval.");
         }
 
         // Update Regional Allocation Breakdown status to ACCEPTED
@@ -175,17 +259,19 @@ public class RegionalAllocationService {
         );
     }
 
+    @Retryable(retryFor = ConcurrencyFailureException.class, maxAttempts = 3,
+            backoff = @Backoff(delay = 50, multiplier = 2, maxDelay = 500, random = true))
     @Transactional
     public TraderOrderEntity reject(String clientOrderId, String changedBy, String note) {
         regionalAllocationRepository.findById(clientOrderId)
                 .orElseThrow(() -> new IllegalStateException("Regional allocation must exist before rejection."));
 
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         if (order.getStatus() != IPOOrderStatus.REGIONAL_ALLOCATION
                 || order.getSubStatus() != IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL) {
-            throw new IllegalStateException("Order is not pending regional allocation approval.");
+            throw new OrderStateConflictException("Order is not pending regional allocation approval.");
         }
 
         // Update Regional Allocation Breakdown status to NEW
@@ -209,36 +295,46 @@ public class RegionalAllocationService {
         if (hkOrderQuantity == null || sgOrderQuantity == null) {
             throw new IllegalArgumentException("HK and SG order quantities are required.");
         }
-        BigDecimal total = hkOrderQuantity.add(sgOrderQuantity);
-        if (total.compareTo(orderQuantity) > 0) {
+        long total;
+        try {
+            total = Math.addExact(Quantity.unitsOf(hkOrderQuantity), Quantity.unitsOf(sgOrderQuantity));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Regional allocation exceeds order quantity.");
+        }
+        if (total > Quantity.unitsOf(orderQuantity)) {
             throw new IllegalArgumentException("Regional allocation exceeds order quantity.");
         }
     }
 
     private void upsertRegionalAllocationBreakdowns(TraderOrderEntity order, List<RegionalAllocationBreakdownRequest> breakdownRequests) {
-        // Get existing breakdowns for this order
-        List<RegionalAllocationBreakdownEntity> existingBreakdowns = regionalAllocationBreakdownRepository
-                .findByOrderClientOrderId(order.getClientOrderId());
-        
-        // Create a map of existing breakdowns by account number and country code for quick lookup
-        var existingMap = existingBreakdowns.stream()
-                .collect(Collectors.toMap(
-                        b -> b.getCountryCode() + "|" + b.getAccountNumber(),
-                        b -> b,
-                        (existing, replacement) -> existing
-                ));
+        KeyedReconciler.Changes<RegionalAllocationBreakdownEntity, RegionalAllocationBreakdownRequest> changes =
+                KeyedReconciler.reconcile(
+                        regionalAllocationBreakdownRepository.findByOrderClientOrderId(order.getClientOrderId()),
+                        b -> new AccountKey(b.getCountryCode(), b.getAccountNumber()),
+                        breakdownRequests,
+                        r -> new AccountKey(r.getCountryCode(), r.getAccountNumber()));
+
+        // Per-country deltas of every row inserted, updated or deleted, summed in scaled units
+        Map<String, CountryDelta> deltas = new HashMap<>();
 
         // Upsert breakdowns from request
-        for (RegionalAllocationBreakdownRequest request : breakdownRequests) {
-            String key = request.getCountryCode() + "|" + request.getAccountNumber();
-            RegionalAllocationBreakdownEntity breakdown = existingMap.get(key);
-            
-            if (breakdown == null) {
+        List<RegionalAllocationBreakdownEntity> upserts = new ArrayList<>(breakdownRequests.size());
+        for (KeyedReconciler.Match<RegionalAllocationBreakdownEntity, RegionalAllocationBreakdownRequest> match : changes.matches()) {
+            RegionalAllocationBreakdownRequest request = match.request();
+            RegionalAllocationBreakdownEntity breakdown = match.existing();
+
+            if (match.isInsert()) {
                 breakdown = RegionalAllocationBreakdownEntity.builder()
                         .order(order)
                         .countryCode(request.getCountryCode())
                         .accountNumber(request.getAccountNumber())
                         .build();
+                deltas.computeIfAbsent(request.getCountryCode(), country -> new CountryDelta())
+                        .add(request.getOrderQuantity(), request.getAllocatedQuantity(), 1);
+            } else {
+                deltas.computeIfAbsent(request.getCountryCode(), country -> new CountryDelta())
+                        .add(request.getOrderQuantity(), request.getAllocatedQuantity(), 0)
+                        .subtract(breakdown.getOrderQuantity(), breakdown.getAllocatedQuantity(), 0);
             }
             
             breakdown.setOrderQuantity(request.getOrderQuantity());
@@ -251,110 +347,151 @@ public class RegionalAllocationService {
             breakdown.setSizeLimit(request.getSizeLimit());
             breakdown.setRegionalAllocationStatus(RegionalAllocationStatus.NEW);
             
-            regionalAllocationBreakdownRepository.save(breakdown);
+            upserts.add(breakdown);
         }
+        // Persisted together so the inserts/updates go out as JDBC batches on flush
+        regionalAllocationBreakdownRepository.saveAll(upserts);
 
         // Remove breakdowns that are no longer in the request
-        List<String> requestKeys = breakdownRequests.stream()
-                .map(b -> b.getCountryCode() + "|" + b.getAccountNumber())
+        List<RegionalAllocationBreakdownEntity> toDelete = changes.deletes();
+        toDelete.forEach(b -> deltas.computeIfAbsent(b.getCountryCode(), country -> new CountryDelta())
+                .subtract(b.getOrderQuantity(), b.getAllocatedQuantity(), 1));
+        Map<String, RegionalAllocationCountrySummaryEntity> summaries = applySummaryDeltas(order, deltas);
+        // Written before the bulk delete below, whose flush then sends each changed summary row once
+        List<RegionalAllocationCountrySummaryEntity> emptied = summaries.values().stream()
+                .filter(summary -> summary.getBreakdownCount() == 0)
                 .collect(Collectors.toList());
-        
-        List<RegionalAllocationBreakdownEntity> toDelete = existingBreakdowns.stream()
-                .filter(b -> !requestKeys.contains(b.getCountryCode() + "|" + b.getAccountNumber()))
+        summaries.values().removeAll(emptied);
+        countrySummaryRepository.deleteAll(emptied);
+        countrySummaryRepository.saveAll(summaries.values());
+
+        // Bulk DELETE ... WHERE id IN (...) instead of one delete per entity, chunked so each IN list stays well
+        // under PostgreSQL's 32767 bind parameters
+        List<Long> deleteIds = toDelete.stream()
+                .map(RegionalAllocationBreakdownEntity::getId)
                 .collect(Collectors.toList());
-        
-        if (!toDelete.isEmpty()) {
-            regionalAllocationBreakdownRepository.deleteAll(toDelete);
+        for (int from = 0; from < deleteIds.size(); from += MAX_IDS_PER_STATEMENT) {
+            regionalAllocationBreakdownRepository.deleteAllByIdInBatch(
+                    deleteIds.subList(from, Math.min(deleteIds.size(), from + MAX_IDS_PER_STATEMENT)));
+        }
+    }
+
+    /**
+     * Adds {@code deltas} to the order's per-country summary rows, creating rows for new countries.
+     *
+     * @return the summary rows of every country the order has rows or deltas for
+     */
+    private Map<String, RegionalAllocationCountrySummaryEntity> applySummaryDeltas(TraderOrderEntity order,
+                                                                                  Map<String, CountryDelta> deltas) {
+        Map<String, RegionalAllocationCountrySummaryEntity> summaries = countrySummaryRepository
+                .findByClientOrderId(order.getClientOrderId()).stream()
+                .collect(Collectors.toMap(RegionalAllocationCountrySummaryEntity::getCountryCode, Function.identity()));
+        deltas.forEach((countryCode, delta) -> {
+            RegionalAllocationCountrySummaryEntity summary = summaries.computeIfAbsent(countryCode, country ->
+                    RegionalAllocationCountrySummaryEntity.builder()
+                            .clientOrderId(order.getClientOrderId())
+                            .countryCode(country)
+                            .totalOrderQuantity(Quantity.ZERO)
+                            .totalAllocatedQuantity(Quantity.ZERO)
+                            .breakdownCount(0)
+                            .build());
+            if (delta.orderUnits != 0) {
+                summary.setTotalOrderQuantity(summary.getTotalOrderQuantity().plus(Quantity.ofUnits(delta.orderUnits)));
+            }
+            if (delta.allocatedUnits != 0) {
+                summary.setTotalAllocatedQuantity(
+                        summary.getTotalAllocatedQuantity().plus(Quantity.ofUnits(delta.allocatedUnits)));
+            }
+            summary.setBreakdownCount(summary.getBreakdownCount() + delta.breakdownCount);
+        });
+        return summaries;
+    }
+
+    /**
+     * Change to one country's totals; missing quantities count as zero, matching SUM over the breakdown rows.
+     */
+    private static final class CountryDelta {
+        private long orderUnits;
+        private long allocatedUnits;
+        private int breakdownCount;
+
+        CountryDelta add(BigDecimal orderQuantity, BigDecimal allocatedQuantity, int rows) {
+            orderUnits = Math.addExact(orderUnits, Quantity.unitsOrZero(orderQuantity));
+            allocatedUnits = Math.addExact(allocatedUnits, Quantity.unitsOrZero(allocatedQuantity));
+            breakdownCount += rows;
+            return this;
+        }
+
+        CountryDelta subtract(BigDecimal orderQuantity, BigDecimal allocatedQuantity, int rows) {
+            orderUnits = Math.subtractExact(orderUnits, Quantity.unitsOrZero(orderQuantity));
+            allocatedUnits = Math.subtractExact(allocatedUnits, Quantity.unitsOrZero(allocatedQuantity));
+            breakdownCount -= rows;
+            return this;
         }
     }
 
     private void upsertFinalPricedAllocationBreakdowns(TraderOrderEntity order, List<FinalPricedAllocationBreakdownRequest> pricedBreakdownRequests) {
-        // Get existing final priced allocation breakdowns
-        List<FinalPricedAllocationBreakdownEntity> existingPriced = finalPricedAllocationBreakdownRepository
-                .findByOrderClientOrderId(order.getClientOrderId());
-        
-        // Create a map of existing breakdowns by country code for quick lookup
-        var existingMap = existingPriced.stream()
-                .collect(Collectors.toMap(
+        // One entry per country (HK, SG)
+        KeyedReconciler.Changes<FinalPricedAllocationBreakdownEntity, FinalPricedAllocationBreakdownRequest> changes =
+                KeyedReconciler.reconcile(
+                        finalPricedAllocationBreakdownRepository.findByOrderClientOrderId(order.getClientOrderId()),
                         FinalPricedAllocationBreakdownEntity::getCountryCode,
-                        p -> p,
-                        (existing, replacement) -> existing
-                ));
-
-        // Upsert entries from request (one per country: HK, SG)
-        for (FinalPricedAllocationBreakdownRequest request : pricedBreakdownRequests) {
-            FinalPricedAllocationBreakdownEntity priced = existingMap.get(request.getCountryCode());
-            if (priced == null) {
-                priced = FinalPricedAllocationBreakdownEntity.builder()
-                        .order(order)
-                        .countryCode(request.getCountryCode())
-                        .build();
-            }
+                        pricedBreakdownRequests,
+                        FinalPricedAllocationBreakdownRequest::getCountryCode);
+
+        List<FinalPricedAllocationBreakdownEntity> upserts = new ArrayList<>(pricedBreakdownRequests.size());
+        for (KeyedReconciler.Match<FinalPricedAllocationBreakdownEntity, FinalPricedAllocationBreakdownRequest> match : changes.matches()) {
+            FinalPricedAllocationBreakdownRequest request = match.request();
+            FinalPricedAllocationBreakdownEntity priced = match.isInsert()
+                    ? FinalPricedAllocationBreakdownEntity.builder()
+                            .order(order)
+                            .countryCode(request.getCountryCode())
+                            .build()
+                    : match.existing();
             priced.setLimitType(request.getLimitType());
             priced.setFinalPrice(request.getFinalPrice());
-            priced.setCountryCode(request.getCountryCode());
-            finalPricedAllocationBreakdownRepository.save(priced);
+            upserts.add(priced);
         }
+        finalPricedAllocationBreakdownRepository.saveAll(upserts);
 
         // Remove entries that are no longer in the request
-        List<String> requestCountryCodes = pricedBreakdownRequests.stream()
-                .map(FinalPricedAllocationBreakdownRequest::getCountryCode)
-                .collect(Collectors.toList());
-        
-        List<FinalPricedAllocationBreakdownEntity> toDelete = existingPriced.stream()
-                .filter(p -> !requestCountryCodes.contains(p.getCountryCode()))
-                .collect(Collectors.toList());
-        
-        if (!toDelete.isEmpty()) {
-            finalPricedAllocationBreakdownRepository.deleteAll(toDelete);
+        if (!changes.deletes().isEmpty()) {
+            finalPricedAllocationBreakdownRepository.deleteAll(changes.deletes());
         }
     }
 
     private void upsertFinalRegionalAllocations(TraderOrderEntity order, List<FinalRegionalAllocationRequest> requests) {
-        // Get existing final regional allocations
-        List<FinalRegionalAllocationEntity> existing = finalRegionalAllocationRepository
-                .findByClientOrderId(order.getClientOrderId());
-        
-        // Create a map of existing allocations by market for quick lookup
-        var existingMap = existing.stream()
-                .collect(Collectors.toMap(
+        // One entry per market
+        KeyedReconciler.Changes<FinalRegionalAllocationEntity, FinalRegionalAllocationRequest> changes =
+                KeyedReconciler.reconcile(
+                        finalRegionalAllocationRepository.findByClientOrderId(order.getClientOrderId()),
                         FinalRegionalAllocationEntity::getMarket,
-                        a -> a,
-                        (existing1, replacement) -> existing1
-                ));
-
-        // Upsert entries from request (one per market)
-        for (FinalRegionalAllocationRequest request : requests) {
-            FinalRegionalAllocationEntity finalRegional = existingMap.get(request.getMarket());
-            if (finalRegional == null) {
-                finalRegional = FinalRegionalAllocationEntity.builder()
-                        .clientOrderId(order.getClientOrderId())
-                        .market(request.getMarket())
-                        .build();
-            }
-            
+                        requests,
+                        FinalRegionalAllocationRequest::getMarket);
+
+        List<FinalRegionalAllocationEntity> upserts = new ArrayList<>(requests.size());
+        for (KeyedReconciler.Match<FinalRegionalAllocationEntity, FinalRegionalAllocationRequest> match : changes.matches()) {
+            FinalRegionalAllocationRequest request = match.request();
+            FinalRegionalAllocationEntity finalRegional = match.isInsert()
+                    ? FinalRegionalAllocationEntity.builder()
+                            .clientOrderId(order.getClientOrderId())
+                            .market(request.getMarket())
+                            .build()
+                    : match.existing();
+
             finalRegional.setAsiaAllocation(request.getAsiaAllocation());
             finalRegional.setAllocation(request.getAllocation());
-            finalRegional.setMarket(request.getMarket());
             finalRegional.setEffectiveOrder(request.getEffectiveOrder());
             finalRegional.setProRata(request.getProRata());
             finalRegional.setAllocationAmount(request.getAllocationAmount());
-            
-            finalRegionalAllocationRepository.save(finalRegional);
+            upserts.add(finalRegional);
         }
 
+        finalRegionalAllocationRepository.saveAll(upserts);
+
         // Remove entries that are no longer in the request
-        List<String> requestMarkets = requests.stream()
-                .map(FinalRegionalAllocationRequest::getMarket)
-                .collect(Collectors.toList());
-        
-        List<FinalRegionalAllocationEntity> toDelete = existing.stream()
-                .filter(a -> !requestMarkets.contains(a.getMarket()))
-                .collect(Collectors.toList());
-        
-        if (!toDelete.isEmpty()) {
-            finalRegionalAllocationRepository.deleteAll(toDelete);
+        if (!changes.deletes().isEmpty()) {
+            finalRegionalAllocationRepository.deleteAll(changes.deletes());
         }
     }
 }
-
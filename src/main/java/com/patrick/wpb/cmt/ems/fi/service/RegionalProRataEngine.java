@@ -0,0 +1,116 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.dto.FinalRegionalAllocationRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits the HK and SG amounts of a {@link RegionalAllocationEntity} over the regional breakdowns of each market.
+ * <p>
+ * An account's effective order is its order quantity capped at its size limit, and a market's effective order is
+ * the sum over its accounts. The market allocates {@code min(amount, effective order)}, pro rata to effective
+ * orders: every account gets the floor of its share in 0.0001 units and the units left over go to the largest
+ * remainders, ties to the earlier breakdown. Account allocations therefore add up to the market's allocation
+ * amount exactly, and the same breakdowns always produce the same split.
+ * <p>
+ * Quantities are read once into scaled {@code long} arrays; the market totals take one pass and the split one more.
+ */
+public final class RegionalProRataEngine {
+
+    public static final List<String> MARKETS = List.of("HK", "SG");
+
+    // pro_rata is a percentage with four decimals
+    private static final long PERCENT_UNITS = 100L * 10_000L;
+
+    private RegionalProRataEngine() {
+    }
+
+    /**
+     * @param breakdowns accounts of both markets, in submission order
+     * @throws IllegalArgumentException if a breakdown is outside HK and SG
+     */
+    public static Result allocate(RegionalAllocationEntity allocation, List<RegionalAllocationBreakdownRequest> breakdowns) {
+        int count = breakdowns.size();
+        long[] marketAmounts = {
+                Quantity.unitsOrZero(allocation.getHkOrderQuantity()),
+                Quantity.unitsOrZero(allocation.getSgOrderQuantity())
+        };
+        int marketCount = marketAmounts.length;
+
+        int[] market = new int[count];
+        long[] effective = new long[count];
+        long[] marketEffective = new long[marketCount];
+        int[] marketSizes = new int[marketCount];
+        for (int i = 0; i < count; i++) {
+            RegionalAllocationBreakdownRequest breakdown = breakdowns.get(i);
+            int m = MARKETS.indexOf(breakdown.getCountryCode());
+            if (m < 0) {
+                throw new IllegalArgumentException("Breakdown for account " + breakdown.getAccountNumber()
+                        + " is in " + breakdown.getCountryCode() + ", which has no regional allocation.");
+            }
+            long units = Quantity.unitsOrZero(breakdown.getOrderQuantity());
+            if (breakdown.getSizeLimit() != null) {
+                units = Math.min(units, Quantity.unitsOf(breakdown.getSizeLimit()));
+            }
+            units = Math.max(units, 0);
+            market[i] = m;
+            effective[i] = units;
+            marketEffective[m] = Math.addExact(marketEffective[m], units);
+            marketSizes[m]++;
+        }
+
+        long[] marketAllocated = new long[marketCount];
+        int[][] members = new int[marketCount][];
+        for (int m = 0; m < marketCount; m++) {
+            marketAllocated[m] = Math.min(marketAmounts[m], marketEffective[m]);
+            members[m] = new int[marketSizes[m]];
+            marketSizes[m] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            members[market[i]][marketSizes[market[i]]++] = i;
+        }
+
+        long[] allocated = new long[count];
+        long[] remainders = new long[count];
+        long[] scratch = new long[count];
+        long[] proRata = new long[marketCount];
+        for (int m = 0; m < marketCount; m++) {
+            long total = marketEffective[m];
+            if (total == 0 || marketAllocated[m] == 0) {
+                continue;
+            }
+            long floored = 0;
+            for (int i : members[m]) {
+                allocated[i] = LargestRemainder.mulDiv(effective[i], marketAllocated[m], total, remainders, i);
+                floored += allocated[i];
+            }
+            LargestRemainder.distribute(members[m], members[m].length, remainders, marketAllocated[m] - floored, 1,
+                    allocated, scratch);
+            proRata[m] = LargestRemainder.mulDiv(marketAllocated[m], PERCENT_UNITS, total);
+        }
+
+        long asiaAllocation = Math.addExact(marketAmounts[0], marketAmounts[1]);
+        List<FinalRegionalAllocationRequest> markets = new ArrayList<>(marketCount);
+        for (int m = 0; m < marketCount; m++) {
+            FinalRegionalAllocationRequest row = new FinalRegionalAllocationRequest();
+            row.setMarket(MARKETS.get(m));
+            row.setAsiaAllocation(Quantity.toBigDecimal(asiaAllocation));
+            row.setAllocation(Quantity.toBigDecimal(marketAmounts[m]));
+            row.setEffectiveOrder(Quantity.toBigDecimal(marketEffective[m]));
+            row.setProRata(Quantity.toBigDecimal(proRata[m]));
+            row.setAllocationAmount(Quantity.toBigDecimal(marketAllocated[m]));
+            markets.add(row);
+        }
+        return new Result(markets, allocated);
+    }
+
+    /**
+     * @param finalRegionalAllocations one row per market, HK then SG
+     * @param allocatedUnits           allocated quantity per breakdown in {@link Quantity} units, in input order
+     */
+    public record Result(List<FinalRegionalAllocationRequest> finalRegionalAllocations, long[] allocatedUnits) {
+    }
+}
@@ -1,15 +1,27 @@
 package com.patrick.wpb.cmt.ems.fi.service;
 
+import com.patrick.wpb.cmt.ems.fi.dto.BulkStatusUpdateResultDto;
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.entity.OrderStatusOutboxEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderStatusAuditEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.OrderStatusOutboxRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderStatusAuditRepository;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable.State;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable.Transition;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,25 +32,35 @@ public class StatusService {
 
     private final TraderOrderRepository traderOrderRepository;
     private final TraderOrderStatusAuditRepository statusAuditRepository;
+    private final OrderStatusOutboxRepository outboxRepository;
+    private final BlotterEventService blotterEventService;
 
     // Exempt statuses that can be transitioned to from any status without validation
     private static final Set<IPOOrderStatus> EXEMPT_TARGET_STATUSES = Set.of(
             IPOOrderStatus.CANCELLED
     );
 
-    private static final List<StatusTransition> ALLOWED_TRANSITIONS = List.of(
-            new StatusTransition(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
-            new StatusTransition(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL),
-            new StatusTransition(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION),
-            new StatusTransition(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
-            new StatusTransition(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL),
-            new StatusTransition(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.DONE),
-            new StatusTransition(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION),
+    private static final List<Transition> ALLOWED_TRANSITIONS = List.of(
+            Transition.of(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
+            Transition.of(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL),
+            Transition.of(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION),
+            Transition.of(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
+            Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL),
+            Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.DONE),
+            Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION),
             // Ungroup transitions - from REGIONAL_ALLOCATION or CLIENT_ALLOCATION to ACCEPTED
-            new StatusTransition(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
-            new StatusTransition(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
-            new StatusTransition(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
-            new StatusTransition(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE)
+            Transition.of(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
+            Transition.of(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
+            Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
+            Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL, IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE)
+    );
+
+    // Built once when the class is loaded; fails fast if a declared state cannot be reached from NEW/NONE
+    private static final StatusTransitionTable TRANSITION_TABLE = StatusTransitionTable.build(
+            new State(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE),
+            ALLOWED_TRANSITIONS,
+            EXEMPT_TARGET_STATUSES,
+            IPOOrderSubStatus.NONE
     );
 
     @Transactional
@@ -48,13 +70,13 @@ public class StatusService {
                                           String changedBy,
                                           String note) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         IPOOrderStatus currentStatus = order.getStatus();
         IPOOrderSubStatus currentSubStatus = order.getSubStatus();
 
         if (!isTransitionAllowed(currentStatus, currentSubStatus, targetStatus, targetSubStatus)) {
-            throw new IllegalStateException(String.format(
+            throw new OrderStateConflictException(String.format(
                     "Transition from %s/%s to %s/%s is not allowed",
                     currentStatus, currentSubStatus, targetStatus, targetSubStatus));
         }
@@ -74,6 +96,10 @@ public class StatusService {
                 .note(note)
                 .build();
         statusAuditRepository.save(auditEntry);
+        if (isChange(auditEntry)) {
+            outboxRepository.save(OrderStatusOutboxEntity.of(auditEntry));
+            blotterEventService.orderChanged(clientOrderId, currentStatus, currentSubStatus);
+        }
 
         return saved;
     }
@@ -87,38 +113,115 @@ public class StatusService {
         return updateStatus(clientOrderId, IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, changedBy, note);
     }
 
+    /**
+     * Applies the same target status to many orders in one transaction. Each order is validated against the
+     * transition table on its own; valid ones are grouped by current state and moved with one UPDATE per group,
+     * and their audit rows and outbox events are written as batches. Invalid or missing orders are reported, not thrown.
+     *
+     * @return one result per distinct id, in request order
+     */
+    @Transactional
+    public List<BulkStatusUpdateResultDto> updateStatuses(List<String> clientOrderIds,
+                                                          IPOOrderStatus targetStatus,
+                                                          IPOOrderSubStatus targetSubStatus,
+                                                          String changedBy,
+                                                          String note) {
+        List<String> distinctIds = clientOrderIds.stream().distinct().toList();
+        Map<String, TraderOrderSummaryDto> currentById = traderOrderRepository.findSummariesByClientOrderIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(TraderOrderSummaryDto::getClientOrderId, Function.identity()));
+
+        Map<String, BulkStatusUpdateResultDto> results = new LinkedHashMap<>();
+        Map<State, List<String>> idsByCurrentState = new LinkedHashMap<>();
+        for (String clientOrderId : distinctIds) {
+            TraderOrderSummaryDto current = currentById.get(clientOrderId);
+            if (current == null) {
+                results.put(clientOrderId, BulkStatusUpdateResultDto.builder()
+                        .clientOrderId(clientOrderId)
+                        .error("Trader order not found for id " + clientOrderId)
+                        .build());
+            } else if (!isTransitionAllowed(current.getStatus(), current.getSubStatus(), targetStatus, targetSubStatus)) {
+                results.put(clientOrderId, BulkStatusUpdateResultDto.builder()
+                        .clientOrderId(clientOrderId)
+                        .fromStatus(current.getStatus())
+                        .fromSubStatus(current.getSubStatus())
+                        .status(current.getStatus())
+                        .subStatus(current.getSubStatus())
+                        .error(String.format("Transition from %s/%s to %s/%s is not allowed",
+                                current.getStatus(), current.getSubStatus(), targetStatus, targetSubStatus))
+                        .build());
+            } else {
+                results.put(clientOrderId, null);
+                idsByCurrentState.computeIfAbsent(new State(current.getStatus(), current.getSubStatus()), state -> new ArrayList<>())
+                        .add(clientOrderId);
+            }
+        }
+
+        // Stored as is (microseconds on both databases), so the re-read below can match it exactly
+        Instant changedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        List<TraderOrderStatusAuditEntity> auditEntries = new ArrayList<>();
+        idsByCurrentState.forEach((from, ids) -> {
+            int updatedCount = traderOrderRepository.updateStatusWhereCurrent(
+                    ids, from.status(), from.subStatus(), targetStatus, targetSubStatus, changedAt);
+
+            Set<String> applied = new HashSet<>(ids);
+            if (updatedCount != ids.size()) {
+                // Some orders left the from state between the read and the update. The rows this update moved carry
+                // its timestamp and stay locked until commit; one another caller moved to the same target does not
+                applied = new HashSet<>(traderOrderRepository.findClientOrderIdsUpdatedAt(ids, changedAt));
+            }
+
+            for (String clientOrderId : ids) {
+                boolean updated = applied.contains(clientOrderId);
+                results.put(clientOrderId, BulkStatusUpdateResultDto.builder()
+                        .clientOrderId(clientOrderId)
+                        .updated(updated)
+                        .fromStatus(from.status())
+                        .fromSubStatus(from.subStatus())
+                        .status(updated ? targetStatus : null)
+                        .subStatus(updated ? targetSubStatus : null)
+                        .error(updated ? null : "Order status changed concurrently, please retry")
+                        .build());
+                if (updated) {
+                    auditEntries.add(TraderOrderStatusAuditEntity.builder()
+                            .order(traderOrderRepository.getReferenceById(clientOrderId))
+                            .fromStatus(from.status())
+                            .fromSubStatus(from.subStatus())
+                            .toStatus(targetStatus)
+                            .toSubStatus(targetSubStatus)
+                            .changedBy(changedBy)
+                            .changedAt(changedAt)
+                            .note(note)
+                            .build());
+                }
+            }
+        });
+        statusAuditRepository.saveAll(auditEntries);
+        outboxRepository.saveAll(auditEntries.stream()
+                .filter(StatusService::isChange)
+                .map(OrderStatusOutboxEntity::of)
+                .toList());
+        auditEntries.stream()
+                .filter(StatusService::isChange)
+                .forEach(audit -> blotterEventService.orderChanged(
+                        audit.getOrder().getClientOrderId(), audit.getFromStatus(), audit.getFromSubStatus()));
+
+        return new ArrayList<>(results.values());
+    }
+
+    public StatusTransitionTable getTransitionTable() {
+        return TRANSITION_TABLE;
+    }
+
+    // Only real changes are published downstream; a same-state transition is audited but not an event
+    private static boolean isChange(TraderOrderStatusAuditEntity audit) {
+        return audit.getFromStatus() != audit.getToStatus() || audit.getFromSubStatus() != audit.getToSubStatus();
+    }
+
     private boolean isTransitionAllowed(IPOOrderStatus fromStatus,
                                         IPOOrderSubStatus fromSubStatus,
                                         IPOOrderStatus toStatus,
                                         IPOOrderSubStatus toSubStatus) {
-        // Allow same status/sub-status (no change)
-        if (Objects.equals(fromStatus, toStatus) && Objects.equals(fromSubStatus, toSubStatus)) {
-            return true;
-        }
-        
-        // Allow transitions to exempt statuses from any status
-        if (EXEMPT_TARGET_STATUSES.contains(toStatus)) {
-            return true;
-        }
-        
-        // Check normal transition rules
-        return ALLOWED_TRANSITIONS.stream()
-                .anyMatch(transition -> transition.matches(fromStatus, fromSubStatus, toStatus, toSubStatus));
-    }
-
-    private record StatusTransition(IPOOrderStatus fromStatus,
-                                    IPOOrderSubStatus fromSubStatus,
-                                    IPOOrderStatus toStatus,
-                                    IPOOrderSubStatus toSubStatus) {
-
-        private boolean matches(IPOOrderStatus currentStatus,
-                                IPOOrderSubStatus currentSubStatus,
-                                IPOOrderStatus targetStatus,
-                                IPOOrderSubStatus targetSubStatus) {
-            return fromStatus == currentStatus
-                    && fromSubStatus == currentSubStatus
-                    && toStatus == targetStatus
-                    && toSubStatus == targetSubStatus;
-        }
+        // Same status/sub-status and exempt targets are folded into the table
+        return TRANSITION_TABLE.isAllowed(fromStatus, fromSubStatus, toStatus, toSubStatus);
     }
 }
@@ -0,0 +1,165 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable (status, sub status) state machine. Every state is mapped to a dense index and the allowed moves
+ * are kept in a flat bit matrix, so {@link #isAllowed} is two ordinal lookups and one bit test, with no
+ * allocation. Identity moves and moves into exempt statuses are folded into the matrix when the table is built.
+ */
+public final class StatusTransitionTable {
+
+    private static final IPOOrderStatus[] STATUSES = IPOOrderStatus.values();
+    private static final IPOOrderSubStatus[] SUB_STATUSES = IPOOrderSubStatus.values();
+    private static final int STATE_COUNT = STATUSES.length * SUB_STATUSES.length;
+
+    private final long[] allowed;
+    private final Map<IPOOrderStatus, Map<IPOOrderSubStatus, List<State>>> nextStates;
+
+    private StatusTransitionTable(long[] allowed, Map<IPOOrderStatus, Map<IPOOrderSubStatus, List<State>>> nextStates) {
+        this.allowed = allowed;
+        this.nextStates = nextStates;
+    }
+
+    /**
+     * Builds the table and checks that every state the declared transitions leave from can be reached from
+     * {@code initial}; an unreachable state means a transition is missing and fails fast at startup.
+     *
+     * @param transitions   declared workflow moves
+     * @param exemptTargets statuses reachable from any state (e.g. CANCELLED), with {@code exemptSubStatus} as the
+     *                      advertised landing sub status
+     */
+    public static StatusTransitionTable build(State initial,
+                                              List<Transition> transitions,
+                                              Set<IPOOrderStatus> exemptTargets,
+                                              IPOOrderSubStatus exemptSubStatus) {
+        long[] allowed = new long[(STATE_COUNT * STATE_COUNT + Long.SIZE - 1) / Long.SIZE];
+        List<List<State>> declared = new ArrayList<>(STATE_COUNT);
+        for (int i = 0; i < STATE_COUNT; i++) {
+            declared.add(new ArrayList<>());
+        }
+
+        for (Transition transition : transitions) {
+            int from = transition.from().index();
+            set(allowed, from, transition.to().index());
+            declared.get(from).add(transition.to());
+        }
+        for (int from = 0; from < STATE_COUNT; from++) {
+            set(allowed, from, from);
+            for (IPOOrderStatus exempt : exemptTargets) {
+                for (IPOOrderSubStatus subStatus : SUB_STATUSES) {
+                    set(allowed, from, new State(exempt, subStatus).index());
+                }
+            }
+        }
+
+        validateReachability(initial, declared);
+
+        Map<IPOOrderStatus, Map<IPOOrderSubStatus, List<State>>> nextStates = new EnumMap<>(IPOOrderStatus.class);
+        for (int from = 0; from < STATE_COUNT; from++) {
+            if (declared.get(from).isEmpty()) {
+                continue;
+            }
+            List<State> next = new ArrayList<>(declared.get(from));
+            exemptTargets.forEach(exempt -> next.add(new State(exempt, exemptSubStatus)));
+            State state = State.ofIndex(from);
+            nextStates.computeIfAbsent(state.status(), status -> new EnumMap<>(IPOOrderSubStatus.class))
+                    .put(state.subStatus(), List.copyOf(next));
+        }
+        return new StatusTransitionTable(allowed, nextStates);
+    }
+
+    public boolean isAllowed(IPOOrderStatus fromStatus,
+                             IPOOrderSubStatus fromSubStatus,
+                             IPOOrderStatus toStatus,
+                             IPOOrderSubStatus toSubStatus) {
+        int bit = State.index(fromStatus, fromSubStatus) * STATE_COUNT + State.index(toStatus, toSubStatus);
+        return (allowed[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Workflow moves available from the given state, excluding staying put. Empty for terminal states.
+     */
+    public List<State> nextStates(IPOOrderStatus status, IPOOrderSubStatus subStatus) {
+        return nextStates.getOrDefault(status, Collections.emptyMap())
+                .getOrDefault(subStatus, Collections.emptyList());
+    }
+
+    /**
+     * Every non-terminal state with its available moves, in enum order.
+     */
+    public Map<IPOOrderStatus, Map<IPOOrderSubStatus, List<State>>> asMap() {
+        return Collections.unmodifiableMap(nextStates);
+    }
+
+    private static void set(long[] bits, int from, int to) {
+        int bit = from * STATE_COUNT + to;
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void validateReachability(State initial, List<List<State>> declared) {
+        BitSet reached = new BitSet(STATE_COUNT);
+        Deque<Integer> pending = new ArrayDeque<>();
+        reached.set(initial.index());
+        pending.push(initial.index());
+        while (!pending.isEmpty()) {
+            for (State next : declared.get(pending.pop())) {
+                if (!reached.get(next.index())) {
+                    reached.set(next.index());
+                    pending.push(next.index());
+                }
+            }
+        }
+
+        List<State> unreachable = new ArrayList<>();
+        for (int from = 0; from < STATE_COUNT; from++) {
+            if (!declared.get(from).isEmpty() && !reached.get(from)) {
+                unreachable.add(State.ofIndex(from));
+            }
+        }
+        if (!unreachable.isEmpty()) {
+            throw new IllegalStateException("Status transitions declared from states unreachable from "
+                    + initial + ": " + unreachable);
+        }
+    }
+
+    public record State(IPOOrderStatus status, IPOOrderSubStatus subStatus) {
+
+        private int index() {
+            return index(status, subStatus);
+        }
+
+        private static int index(IPOOrderStatus status, IPOOrderSubStatus subStatus) {
+            return status.ordinal() * SUB_STATUSES.length + subStatus.ordinal();
+        }
+
+        private static State ofIndex(int index) {
+            return new State(STATUSES[index / SUB_STATUSES.length], SUB_STATUSES[index % SUB_STATUSES.length]);
+        }
+
+        @Override
+        public String toString() {
+            return status + "/" + subStatus;
+        }
+    }
+
+    public record Transition(State from, State to) {
+
+        public static Transition of(IPOOrderStatus fromStatus,
+                                    IPOOrderSubStatus fromSubStatus,
+                                    IPOOrderStatus toStatus,
+                                    IPOOrderSubStatus toSubStatus) {
+            return new Transition(new State(fromStatus, fromSubStatus), new State(toStatus, toSubStatus));
+        }
+    }
+}
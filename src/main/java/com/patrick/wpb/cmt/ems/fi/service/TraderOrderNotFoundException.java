@@ -0,0 +1,11 @@
+package com.patrick.wpb.cmt.ems.fi.service;
+
+/**
+ * No trader order has the given client order id. Mapped to 404 Not Found.
+ */
+public class TraderOrderNotFoundException extends RuntimeException {
+
+    public TraderOrderNotFoundException(String clientOrderId) {
+        super("Trader order not found for id " + clientOrderId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.patrick.wpb.cmt.ems.fi.service;
 
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
@@ -8,12 +9,12 @@ import com.patrick.wpb.cmt.ems.fi.enums.RegionalAllocationStatus;
 import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationBreakdownRepository;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
-import com.patrick.wpb.cmt.ems.fi.repo.TraderSubOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,17 +24,19 @@ import org.springframework.transaction.annotation.Transactional;
 public class TraderOrderService {
 
     private final TraderOrderRepository traderOrderRepository;
-    private final TraderSubOrderRepository traderSubOrderRepository;
     private final RegionalAllocationBreakdownRepository regionalAllocationBreakdownRepository;
     private final ClientAllocationBreakdownRepository clientAllocationBreakdownRepository;
     private final StatusService statusService;
+    private final BlotterEventService blotterEventService;
 
     @Transactional(readOnly = true)
     public List<TraderOrderEntity> fetchOrderCollectionBlotter() {
-        return traderOrderRepository.findByStatusAndSubStatus(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE)
-                .stream()
-                .filter(order -> traderSubOrderRepository.countByOrderClientOrderIdAndIssueIPOFlagTrue(order.getClientOrderId()) > 0)
-                .collect(Collectors.toList());
+        return traderOrderRepository.findIpoFlaggedByStatusAndSubStatus(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<TraderOrderSummaryDto> fetchOrderCollectionBlotterSummaries() {
+        return traderOrderRepository.findIpoFlaggedSummariesByStatusAndSubStatus(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
     }
 
     @Transactional
@@ -62,9 +65,11 @@ public class TraderOrderService {
             throw new IllegalStateException("Orders must share trade date, security id, status, and sub status to be grouped.");
         }
 
-        BigDecimal groupedQuantity = orders.stream()
-                .map(TraderOrderEntity::getOrderQuantity)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long groupedUnits = 0;
+        for (TraderOrderEntity order : orders) {
+            groupedUnits = Math.addExact(groupedUnits, Quantity.unitsOf(order.getOrderQuantity()));
+        }
+        BigDecimal groupedQuantity = Quantity.toBigDecimal(groupedUnits);
 
         String groupedClientOrderId = UUID.randomUUID().toString();
 
@@ -84,6 +89,10 @@ public class TraderOrderService {
         orders.forEach(order -> order.setOriginalClientOrderId(groupedClientOrderId));
         traderOrderRepository.saveAll(orders);
 
+        List<String> changedIds = new ArrayList<>(clientOrderIds);
+        changedIds.add(groupedClientOrderId);
+        blotterEventService.ordersChanged(changedIds);
+
         return savedGroupedOrder;
     }
 
@@ -101,11 +110,11 @@ public class TraderOrderService {
     @Transactional
     public TraderOrderEntity ungroupOrder(String clientOrderId, String changedBy, String note) {
         TraderOrderEntity order = traderOrderRepository.findById(clientOrderId)
-                .orElseThrow(() -> new IllegalArgumentException("Trader order not found for id " + clientOrderId));
+                .orElseThrow(() -> new TraderOrderNotFoundException(clientOrderId));
 
         // Validate that order can be ungrouped (must be in REGIONAL_ALLOCATION or CLIENT_ALLOCATION status)
         if (order.getStatus() != IPOOrderStatus.REGIONAL_ALLOCATION && order.getStatus() != IPOOrderStatus.CLIENT_ALLOCATION) {
-            throw new IllegalStateException("Order can only be ungrouped when in REGIONAL_ALLOCATION or CLIENT_ALLOCATION status");
+            throw new OrderStateConflictException("Order can only be ungrouped when in REGIONAL_ALLOCATION or CLIENT_ALLOCATION status");
         }
 
         // Mark Regional Allocation Breakdowns as INACTIVE
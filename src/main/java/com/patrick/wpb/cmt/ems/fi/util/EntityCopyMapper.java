@@ -0,0 +1,31 @@
+package com.patrick.wpb.cmt.ems.fi.util;
+
+import com.patrick.wpb.cmt.ems.fi.entity.OrderExecutionDetailEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import org.mapstruct.Builder;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+import org.mapstruct.factory.Mappers;
+
+/**
+ * Field-by-field copies generated at compile time by MapStruct, replacing reflective
+ * {@code BeanUtils.copyProperties}. The generated code is plain getter/setter calls into a caller-supplied
+ * target, so a copy allocates nothing beyond the target itself. Associations are never read, so copying a
+ * managed entity cannot trigger lazy loads or share Hibernate collections with the copy.
+ * <p>
+ * {@link ReportingPolicy#ERROR} makes the build fail if a new property is neither mapped nor explicitly ignored.
+ */
+@Mapper(builder = @Builder(disableBuilder = true), unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface EntityCopyMapper {
+
+    EntityCopyMapper INSTANCE = Mappers.getMapper(EntityCopyMapper.class);
+
+    @Mapping(target = "subOrders", ignore = true)
+    @Mapping(target = "regionalAllocation", ignore = true)
+    @Mapping(target = "clientAllocations", ignore = true)
+    void copy(TraderOrderEntity source, @MappingTarget TraderOrderEntity target);
+
+    void copy(OrderExecutionDetailEntity source, @MappingTarget OrderExecutionDetailEntity target);
+}
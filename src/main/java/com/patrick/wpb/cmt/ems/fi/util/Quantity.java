@@ -0,0 +1,144 @@
+package com.patrick.wpb.cmt.ems.fi.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Quantity with four decimal places held as a scaled {@code long} (1 = 0.0001), the scale of the quantity columns.
+ * The range is about ±922 trillion, narrower than a {@code numeric(20,4)} column: {@link #unitsOf} rejects larger
+ * values with {@link IllegalArgumentException}. Arithmetic is exact and throws {@link ArithmeticException} on
+ * overflow instead of wrapping.
+ * <p>
+ * Summing loops should stay on the primitive side: take each value's {@link #unitsOf units}, add them with
+ * {@link Math#addExact}, and build one {@code Quantity} or {@code BigDecimal} from the total. Mapped to columns by
+ * {@link QuantityConverter} and written to JSON as a plain decimal number.
+ */
+@JsonSerialize(using = Quantity.Serializer.class)
+@JsonDeserialize(using = Quantity.Deserializer.class)
+public final class Quantity implements Comparable<Quantity> {
+
+    public static final int SCALE = 4;
+
+    public static final Quantity ZERO = new Quantity(0);
+
+    private final long units;
+
+    private Quantity(long units) {
+        this.units = units;
+    }
+
+    public static Quantity ofUnits(long units) {
+        return units == 0 ? ZERO : new Quantity(units);
+    }
+
+    /**
+     * @return {@code null} for {@code null}
+     * @throws IllegalArgumentException if the value is out of range
+     */
+    public static Quantity of(BigDecimal value) {
+        return value == null ? null : ofUnits(unitsOf(value));
+    }
+
+    /**
+     * Scaled units of {@code value}, rounded half up to four decimal places like the database columns.
+     *
+     * @throws IllegalArgumentException if the value is out of range
+     */
+    public static long unitsOf(BigDecimal value) {
+        BigDecimal scaled = value.scale() > SCALE ? value.setScale(SCALE, RoundingMode.HALF_UP) : value;
+        try {
+            return scaled.scaleByPowerOfTen(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Quantity " + value.toPlainString() + " is out of range.");
+        }
+    }
+
+    /**
+     * Units of {@code value}, or 0 for {@code null}, the way SUM treats missing quantities.
+     */
+    public static long unitsOrZero(BigDecimal value) {
+        return value == null ? 0 : unitsOf(value);
+    }
+
+    public static BigDecimal toBigDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+
+    public long units() {
+        return units;
+    }
+
+    public Quantity plus(Quantity other) {
+        return ofUnits(Math.addExact(units, other.units));
+    }
+
+    public Quantity minus(Quantity other) {
+        return ofUnits(Math.subtractExact(units, other.units));
+    }
+
+    public Quantity negate() {
+        return ofUnits(Math.negateExact(units));
+    }
+
+    public int signum() {
+        return Long.signum(units);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(units);
+    }
+
+    @Override
+    public int compareTo(Quantity other) {
+        return Long.compare(units, other.units);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Quantity quantity && quantity.units == units;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    static final class Serializer extends JsonSerializer<Quantity> {
+
+        @Override
+        public void serialize(Quantity value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    static final class Deserializer extends JsonDeserializer<Quantity> {
+
+        @Override
+        public Quantity deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return of(parser.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                String text = parser.getText().trim();
+                return text.isEmpty() ? null : of(new BigDecimal(text));
+            }
+            return (Quantity) context.handleUnexpectedToken(Quantity.class, parser);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.patrick.wpb.cmt.ems.fi.util;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.math.BigDecimal;
+
+/**
+ * Maps a {@link Quantity} attribute to a {@code numeric(p,4)} column. Opt in per attribute with
+ * {@code @Convert(converter = QuantityConverter.class)}.
+ */
+@Converter
+public class QuantityConverter implements AttributeConverter<Quantity, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Quantity attribute) {
+        return attribute == null ? null : attribute.toBigDecimal();
+    }
+
+    @Override
+    public Quantity convertToEntityAttribute(BigDecimal dbData) {
+        return Quantity.of(dbData);
+    }
+}
@@ -2,13 +2,11 @@ package com.patrick.wpb.cmt.ems.fi.util;
 
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.UUID;
 import lombok.experimental.UtilityClass;
-import org.springframework.beans.BeanUtils;
 
 /**
- * Utility class for cloning TraderOrderEntity objects using BeanUtils.copyProperties.
+ * Utility class for cloning TraderOrderEntity objects using the generated {@link EntityCopyMapper}.
  * Provides methods to create copies of trader orders with customizable field overrides.
  */
 @UtilityClass
@@ -19,8 +17,10 @@ public class TraderOrderCloneUtil {
      * The cloned entity will have:
      * - A new clientOrderId (generated UUID)
      * - originalClientOrderId set to null
-     * - All other fields copied from source using BeanUtils.copyProperties
-     * - Relationships (subOrders, regionalAllocation, clientAllocations) excluded
+     * - All other fields copied from source using EntityCopyMapper
+     * - Relationships (subOrders, regionalAllocation, clientAllocations) never read; the clone starts with
+     *   empty lists and no regional allocation
+     * - version reset so the clone is treated as a new row
      * - Audit fields (createdAt, updatedAt) will be set by JPA auditing
      * 
      * @param source The source TraderOrderEntity to clone
@@ -32,7 +32,7 @@ public class TraderOrderCloneUtil {
 
     /**
      * Creates a clone of the source TraderOrderEntity with optional field overrides.
-     * Uses BeanUtils.copyProperties to copy all matching properties from source to target.
+     * Uses EntityCopyMapper to copy every column from source to target.
      * 
      * @param source The source TraderOrderEntity to clone
      * @param newClientOrderId Optional new client order ID. If null, a UUID will be generated
@@ -51,13 +51,14 @@ public class TraderOrderCloneUtil {
         // Create new instance
         TraderOrderEntity cloned = new TraderOrderEntity();
         
-        // Copy all properties from source to cloned using BeanUtils
-        BeanUtils.copyProperties(source, cloned);
+        // Copy all columns from source to cloned; associations keep the constructor defaults
+        EntityCopyMapper.INSTANCE.copy(source, cloned);
         
         // Override specific fields
         String clientOrderId = newClientOrderId != null ? newClientOrderId : UUID.randomUUID().toString();
         cloned.setClientOrderId(clientOrderId);
         cloned.setOriginalClientOrderId(null); // New group order, no original reference
+        cloned.setVersion(null); // Unsaved row, lets save() persist instead of merge
         
         if (newCountryCode != null) {
             cloned.setCountryCode(newCountryCode);
@@ -67,11 +68,6 @@ public class TraderOrderCloneUtil {
             cloned.setOrderQuantity(newOrderQuantity);
         }
         
-        // Exclude relationships - they should be managed separately
-        cloned.setSubOrders(new ArrayList<>());
-        cloned.setRegionalAllocation(null);
-        cloned.setClientAllocations(new ArrayList<>());
-        
         return cloned;
     }
 
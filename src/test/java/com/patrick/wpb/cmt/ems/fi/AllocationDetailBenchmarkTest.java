@@ -0,0 +1,232 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationDetailDto;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationDetailDto;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalPricedAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalRegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.FinalPricedAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.FinalRegionalAllocationRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import com.patrick.wpb.cmt.ems.fi.service.RegionalAllocationService;
+import com.patrick.wpb.cmt.ems.fi.service.TraderOrderNotFoundException;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Measures the client and regional allocation detail views as the number of breakdown rows grows. Both must stay
+ * at a fixed number of statements, with the per-country totals read from the summary table.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AllocationDetailBenchmarkTest {
+
+    private static final BigDecimal ORDER_PER_ACCOUNT = new BigDecimal("10");
+    private static final BigDecimal ALLOCATED_PER_ACCOUNT = new BigDecimal("7.5");
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private RegionalAllocationService regionalAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private RegionalAllocationRepository regionalAllocationRepository;
+
+    @Autowired
+    private RegionalAllocationBreakdownRepository regionalAllocationBreakdownRepository;
+
+    @Autowired
+    private ClientAllocationBreakdownRepository clientAllocationBreakdownRepository;
+
+    @Autowired
+    private FinalPricedAllocationBreakdownRepository finalPricedAllocationBreakdownRepository;
+
+    @Autowired
+    private FinalRegionalAllocationRepository finalRegionalAllocationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000})
+    void detailViews_useFixedStatementCount(int rowCount) {
+        String clientOrderId = "DETAIL-BENCH-" + rowCount;
+        seedAllocatedOrder(clientOrderId, rowCount);
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        ClientAllocationDetailDto clientDetail = clientAllocationService.getClientAllocationDetail(clientOrderId);
+        long clientMicros = (System.nanoTime() - start) / 1_000;
+        long clientStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        statistics.clear();
+        start = System.nanoTime();
+        RegionalAllocationDetailDto regionalDetail = regionalAllocationService.getRegionalAllocationDetail(clientOrderId);
+        long regionalMicros = (System.nanoTime() - start) / 1_000;
+        long regionalStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        log.info("rows={} client detail: {} statement(s) {}us, regional detail: {} statement(s) {}us",
+                rowCount, clientStatements, clientMicros, regionalStatements, regionalMicros);
+
+        assertThat(clientStatements).isEqualTo(3);
+        assertThat(regionalStatements).isEqualTo(4);
+
+        assertThat(clientDetail.getClientAllocationBreakdowns()).hasSize(rowCount);
+        assertThat(clientDetail.getClientAllocationAmendLogs()).isEmpty();
+        // Every fifth account has no allocated quantity yet; SUM skips it like the former in-memory reduction
+        int half = rowCount / 2;
+        int allocatedPerCountry = half - (half + 4) / 5;
+        assertThat(clientDetail.getRegionalAllocationBreakdownSummaries())
+                .extracting(RegionalAllocationBreakdownSummaryDto::getCountryCode)
+                .containsExactly("HK", "SG");
+        assertThat(clientDetail.getRegionalAllocationBreakdownSummaries()).allSatisfy(summary -> {
+            assertThat(summary.getTotalOrderQuantity().toBigDecimal()).isEqualByComparingTo(ORDER_PER_ACCOUNT.multiply(BigDecimal.valueOf(half)));
+            assertThat(summary.getTotalAllocatedQuantity().toBigDecimal())
+                    .isEqualByComparingTo(ALLOCATED_PER_ACCOUNT.multiply(BigDecimal.valueOf(allocatedPerCountry)));
+        });
+
+        assertThat(regionalDetail.getRegionalAllocation().getClientOrderId()).isEqualTo(clientOrderId);
+        assertThat(regionalDetail.getRegionalAllocation().getHkOrderQuantity())
+                .isEqualByComparingTo(ORDER_PER_ACCOUNT.multiply(BigDecimal.valueOf(half)));
+        assertThat(regionalDetail.getRegionalAllocationBreakdowns()).hasSize(rowCount);
+        assertThat(regionalDetail.getFinalPricedAllocationBreakdowns()).hasSize(2);
+        assertThat(regionalDetail.getFinalRegionalAllocations()).hasSize(2);
+    }
+
+    @Test
+    void orderWithoutAllocations_returnsEmptyViews() {
+        seedOrder("DETAIL-EMPTY", BigDecimal.TEN);
+
+        ClientAllocationDetailDto clientDetail = clientAllocationService.getClientAllocationDetail("DETAIL-EMPTY");
+        assertThat(clientDetail.getRegionalAllocationBreakdownSummaries()).isEmpty();
+        assertThat(clientDetail.getClientAllocationBreakdowns()).isEmpty();
+
+        RegionalAllocationDetailDto regionalDetail = regionalAllocationService.getRegionalAllocationDetail("DETAIL-EMPTY");
+        assertThat(regionalDetail.getRegionalAllocation()).isNull();
+        assertThat(regionalDetail.getRegionalAllocationBreakdowns()).isEmpty();
+    }
+
+    @Test
+    void missingOrder_isRejected() {
+        assertThatThrownBy(() -> clientAllocationService.getClientAllocationDetail("DETAIL-MISSING"))
+                .isInstanceOf(TraderOrderNotFoundException.class)
+                .hasMessageContaining("DETAIL-MISSING");
+        assertThatThrownBy(() -> regionalAllocationService.getRegionalAllocationDetail("DETAIL-MISSING"))
+                .isInstanceOf(TraderOrderNotFoundException.class)
+                .hasMessageContaining("DETAIL-MISSING");
+    }
+
+    private void seedAllocatedOrder(String clientOrderId, int rowCount) {
+        BigDecimal quantityPerCountry = ORDER_PER_ACCOUNT.multiply(BigDecimal.valueOf(rowCount / 2));
+        TraderOrderEntity order = seedOrder(clientOrderId, quantityPerCountry.add(quantityPerCountry));
+        regionalAllocationRepository.save(RegionalAllocationEntity.builder()
+                .clientOrderId(clientOrderId)
+                .order(order)
+                .orderQuantity(order.getOrderQuantity())
+                .hkOrderQuantity(quantityPerCountry)
+                .sgOrderQuantity(quantityPerCountry)
+                .build());
+
+        List<RegionalAllocationBreakdownEntity> regionalBreakdowns = new ArrayList<>(rowCount);
+        List<ClientAllocationBreakdownEntity> clientBreakdowns = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            String country = i % 2 == 0 ? "HK" : "SG";
+            regionalBreakdowns.add(RegionalAllocationBreakdownEntity.builder()
+                    .order(order)
+                    .countryCode(country)
+                    .accountNumber("ACCOUNT-" + i)
+                    .orderQuantity(ORDER_PER_ACCOUNT)
+                    .allocatedQuantity(i / 2 % 5 == 0 ? null : ALLOCATED_PER_ACCOUNT)
+                    .build());
+            clientBreakdowns.add(ClientAllocationBreakdownEntity.builder()
+                    .order(order)
+                    .countryCode(country)
+                    .accountNumber("ACCOUNT-" + i)
+                    .orderQuantity(ORDER_PER_ACCOUNT)
+                    .finalAllocation(ALLOCATED_PER_ACCOUNT)
+                    .build());
+        }
+        regionalAllocationBreakdownRepository.saveAll(regionalBreakdowns);
+        clientAllocationBreakdownRepository.saveAll(clientBreakdowns);
+        entityManager.flush();
+        // Seeded around the service, so build the per-country summary the way the changelog backfill does
+        entityManager.createNativeQuery("""
+                INSERT INTO regional_allocation_country_summary
+                    (client_order_id, country_code, version, total_order_quantity, total_allocated_quantity,
+                     breakdown_count, created_at, updated_at)
+                SELECT client_order_id, country_code, 0, SUM(order_quantity), COALESCE(SUM(allocated_quantity), 0),
+                       COUNT(*), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                FROM regional_allocation_breakdown
+                WHERE client_order_id = :clientOrderId
+                GROUP BY client_order_id, country_code
+                """)
+                .setParameter("clientOrderId", clientOrderId)
+                .executeUpdate();
+
+        for (String country : List.of("HK", "SG")) {
+            finalPricedAllocationBreakdownRepository.save(FinalPricedAllocationBreakdownEntity.builder()
+                    .order(order)
+                    .countryCode(country)
+                    .finalPrice(new BigDecimal("99.875"))
+                    .build());
+            finalRegionalAllocationRepository.save(FinalRegionalAllocationEntity.builder()
+                    .clientOrderId(clientOrderId)
+                    .market(country)
+                    .allocation(quantityPerCountry)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private TraderOrderEntity seedOrder(String clientOrderId, BigDecimal orderQuantity) {
+        TraderOrderEntity order = traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(orderQuantity)
+                .build());
+        entityManager.flush();
+        return order;
+    }
+}
@@ -0,0 +1,103 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.AmendmentObjectType;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationAmendLogRepository;
+import com.patrick.wpb.cmt.ems.fi.service.AmendLogService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class AmendRevisionConcurrencyTest {
+
+    private static final String REF_PREFIX = "AMEND-RACE-";
+    private static final int THREADS = 16;
+    private static final int AMENDMENTS = 400;
+
+    @Autowired
+    private AmendLogService amendLogService;
+
+    @Autowired
+    private ClientAllocationAmendLogRepository amendLogRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void deleteAmendments() {
+        jdbcTemplate.update("delete from client_allocation_amend_log where ref_id like ?", REF_PREFIX + "%");
+        jdbcTemplate.update("delete from client_allocation_amend_revision where ref_id like ?", REF_PREFIX + "%");
+    }
+
+    @Test
+    void parallelAmendmentsOfOneOrder_getContiguousUniqueRevisions() throws Exception {
+        String refId = REF_PREFIX + "PARALLEL";
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<ClientAllocationAmendLogEntity>> calls = new ArrayList<>(AMENDMENTS);
+        try {
+            for (int i = 0; i < AMENDMENTS; i++) {
+                calls.add(executor.submit(() -> {
+                    startGate.await();
+                    return amendLogService.recordAmendment(
+                            refId, AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN, List.of(), List.of(), "allocator");
+                }));
+            }
+
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<ClientAllocationAmendLogEntity> call : calls) {
+                call.get(60, TimeUnit.SECONDS);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("{} amendments of one order across {} threads: {}ms, {} amendments/s",
+                    AMENDMENTS, THREADS, elapsedMillis, AMENDMENTS * 1000L / elapsedMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Integer> revisions = amendLogRepository.findByRefIdOrderByRevisionDesc(refId).stream()
+                .map(ClientAllocationAmendLogEntity::getRevision)
+                .toList();
+        assertThat(revisions).containsExactlyElementsOf(
+                IntStream.rangeClosed(1, AMENDMENTS).map(i -> AMENDMENTS + 1 - i).boxed().toList());
+    }
+
+    @Test
+    void rolledBackAmendment_leavesNoGap() {
+        String refId = REF_PREFIX + "ROLLBACK";
+        amendLogService.recordAmendment(refId, AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN, List.of(), List.of(), "allocator");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            amendLogService.recordAmendment(refId, AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN, List.of(), List.of(), "allocator");
+            status.setRollbackOnly();
+        });
+
+        ClientAllocationAmendLogEntity next = amendLogService.recordAmendment(
+                refId, AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN, List.of(), List.of(), "allocator");
+        assertThat(next.getRevision()).isEqualTo(2);
+    }
+}
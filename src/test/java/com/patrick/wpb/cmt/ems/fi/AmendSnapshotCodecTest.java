@@ -0,0 +1,228 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationAmendLogDto;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.AmendmentObjectType;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationAmendLogRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.AmendLogArchivedException;
+import com.patrick.wpb.cmt.ems.fi.service.AmendLogService;
+import com.patrick.wpb.cmt.ems.fi.service.AmendSnapshot;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import com.patrick.wpb.cmt.ems.fi.service.ColumnarAmendSnapshotCodec;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AmendSnapshotCodecTest {
+
+    private static final TypeReference<List<ClientAllocationBreakdownRequest>> BREAKDOWN_LIST = new TypeReference<>() {};
+
+    @Autowired
+    private AmendLogService amendLogService;
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private ColumnarAmendSnapshotCodec columnarCodec;
+
+    @Autowired
+    private ClientAllocationAmendLogRepository amendLogRepository;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void legacyJsonRow_isStillReadable() throws Exception {
+        List<ClientAllocationBreakdownRequest> rows = buildRows(3, 0);
+        String afterJson = objectMapper.writeValueAsString(rows);
+        ClientAllocationAmendLogEntity legacy = amendLogRepository.save(ClientAllocationAmendLogEntity.builder()
+                .refId("LEGACY-ORDER")
+                .revision(1)
+                .objectType(AmendmentObjectType.CLIENT_ALLOCATION_BREAKDOWN)
+                .beforeObjectJson("[]")
+                .afterObjectJson(afterJson)
+                .createdBy("allocator")
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+
+        ClientAllocationAmendLogEntity reloaded = amendLogRepository.findById(legacy.getId()).orElseThrow();
+        assertThat(reloaded.getSnapshotCodec()).isNull();
+        assertSameRows(amendLogService.readAfter(reloaded), rows);
+        assertThat(amendLogService.readBefore(reloaded)).isEmpty();
+        assertThat(amendLogService.findHistory("LEGACY-ORDER"))
+                .extracting(ClientAllocationAmendLogDto::getAfterObjectJson)
+                .containsExactly(afterJson);
+    }
+
+    @Test
+    void resubmission_storesBeforeAsDeltaAgainstPreviousRevision() {
+        String clientOrderId = "SNAPSHOT-ORDER";
+        seedOrder(clientOrderId, 100);
+        List<ClientAllocationBreakdownRequest> first = buildRows(100, 0);
+        clientAllocationService.submitForApproval(clientOrderId, first, "allocator", null);
+        clientAllocationService.reject(clientOrderId, "approver", null);
+
+        List<ClientAllocationBreakdownRequest> second = buildRows(100, 0);
+        second.get(0).setFinalAllocation(new BigDecimal("20"));
+        second.get(1).setFinalAllocation(BigDecimal.ZERO);
+        clientAllocationService.submitForApproval(clientOrderId, second, "allocator", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        ClientAllocationAmendLogEntity revision2 = amendLogRepository.findByRefIdAndRevision(clientOrderId, 2).orElseThrow();
+        assertThat(revision2.getSnapshotCodec()).isEqualTo(ColumnarAmendSnapshotCodec.NAME);
+        assertThat(revision2.getBeforeObjectJson()).isNull();
+        // Rejection left the rows exactly as revision 1 proposed them, so the delta is empty
+        assertThat(revision2.getBeforeBaseRevision()).isEqualTo(1);
+        assertThat(columnarCodec.decode(revision2.getBeforeSnapshot()).size()).isZero();
+
+        assertSameRows(amendLogService.readBefore(revision2), first);
+        assertSameRows(amendLogService.readAfter(revision2), second);
+
+        List<ClientAllocationAmendLogDto> history = amendLogService.findHistory(clientOrderId);
+        assertThat(history).extracting(ClientAllocationAmendLogDto::getRevision).containsExactly(2, 1);
+        assertThat(history.get(0).getBeforeObjectJson()).isEqualTo(history.get(1).getAfterObjectJson());
+    }
+
+    @Test
+    void deltaAgainstArchivedRevision_failsAsArchived() {
+        String clientOrderId = "ARCHIVED-BASE-ORDER";
+        seedOrder(clientOrderId, 10);
+        clientAllocationService.submitForApproval(clientOrderId, buildRows(10, 0), "allocator", null);
+        clientAllocationService.reject(clientOrderId, "approver", null);
+        clientAllocationService.submitForApproval(clientOrderId, buildRows(10, 0), "allocator", null);
+        entityManager.flush();
+        // What archiving a partition did before deltas were rebased off it
+        amendLogRepository.delete(amendLogRepository.findByRefIdAndRevision(clientOrderId, 1).orElseThrow());
+        entityManager.flush();
+        entityManager.clear();
+
+        ClientAllocationAmendLogEntity revision2 = amendLogRepository.findByRefIdAndRevision(clientOrderId, 2).orElseThrow();
+        assertThat(revision2.getBeforeBaseRevision()).isEqualTo(1);
+        assertThatThrownBy(() -> amendLogService.readBefore(revision2))
+                .isInstanceOf(AmendLogArchivedException.class);
+        assertThatThrownBy(() -> amendLogService.findHistory(clientOrderId))
+                .isInstanceOf(AmendLogArchivedException.class)
+                .hasMessageContaining("revision 1");
+    }
+
+    /**
+     * Storage per revision and the decode work an approval does, JSON versus the columnar codec. The JSON figures
+     * are what {@code before_obj}/{@code after_obj} used to hold for the same submission.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000})
+    void columnarSnapshot_isSmallerAndFasterToDecodeThanJson(int accountCount) throws Exception {
+        List<ClientAllocationBreakdownRequest> before = buildRows(accountCount, 0);
+        List<ClientAllocationBreakdownRequest> after = buildRows(accountCount, 0);
+        for (int i = 0; i < accountCount; i += 20) {
+            after.get(i).setFinalAllocation(new BigDecimal("12.5000"));
+        }
+
+        byte[] beforeJson = objectMapper.writeValueAsBytes(before);
+        byte[] afterJson = objectMapper.writeValueAsBytes(after);
+        // Typical resubmission: before equals the previous revision's after, so its delta is empty
+        byte[] beforeDelta = columnarCodec.encode(AmendSnapshot.diff(before, before));
+        byte[] afterFull = columnarCodec.encode(AmendSnapshot.full(after));
+        byte[] beforeFull = columnarCodec.encode(AmendSnapshot.full(before));
+
+        long jsonNanos = timeDecode(() -> objectMapper.readValue(afterJson, BREAKDOWN_LIST));
+        long columnarNanos = timeDecode(() -> columnarCodec.decode(afterFull).upserts());
+
+        log.info("accounts={} json: {} B/revision, decode {} us | columnar: {} B/revision ({} B with a full before), decode {} us",
+                accountCount,
+                beforeJson.length + afterJson.length, jsonNanos / 1_000,
+                beforeDelta.length + afterFull.length, beforeFull.length + afterFull.length, columnarNanos / 1_000);
+
+        assertSameRows(columnarCodec.decode(afterFull).upserts(), after);
+        assertThat(beforeDelta.length + afterFull.length).isLessThan((beforeJson.length + afterJson.length) / 10);
+        assertThat(beforeFull.length + afterFull.length).isLessThan((beforeJson.length + afterJson.length) / 4);
+    }
+
+    private static long timeDecode(ThrowingSupplier decode) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            decode.get();
+        }
+        int iterations = 100;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            decode.get();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static void assertSameRows(List<ClientAllocationBreakdownRequest> actual,
+                                       List<ClientAllocationBreakdownRequest> expected) {
+        assertThat(actual).hasSameSizeAs(expected);
+        assertThat(actual)
+                .usingRecursiveFieldByFieldElementComparator()
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    private void seedOrder(String clientOrderId, int accountCount) {
+        traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(BigDecimal.valueOf(accountCount * 10L))
+                .build());
+        entityManager.flush();
+    }
+
+    private static List<ClientAllocationBreakdownRequest> buildRows(int accountCount, int accountOffset) {
+        List<ClientAllocationBreakdownRequest> rows = new ArrayList<>(accountCount);
+        for (int i = accountOffset; i < accountOffset + accountCount; i++) {
+            ClientAllocationBreakdownRequest row = new ClientAllocationBreakdownRequest();
+            row.setCountryCode(i % 2 == 0 ? "HK" : "SG");
+            row.setAccountNumber("ACCOUNT-" + i);
+            row.setOrderQuantity(new BigDecimal("10.0000"));
+            row.setFinalAllocation(new BigDecimal("10.0000"));
+            row.setAllocationPercentage(new BigDecimal("0.0100"));
+            row.setEstimatedOrderSize(new BigDecimal("10.0000"));
+            row.setYieldLimit(i % 3 == 0 ? new BigDecimal("4.2500") : null);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier {
+        Object get() throws Exception;
+    }
+}
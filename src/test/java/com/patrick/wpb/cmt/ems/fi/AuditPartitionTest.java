@@ -0,0 +1,256 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationAmendLogEntity;
+import com.patrick.wpb.cmt.ems.fi.service.AmendLogService;
+import com.patrick.wpb.cmt.ems.fi.service.AmendSnapshot;
+import com.patrick.wpb.cmt.ems.fi.service.AuditPartitionService;
+import com.patrick.wpb.cmt.ems.fi.service.ColumnarAmendSnapshotCodec;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Monthly partitioning of the audit tables on an embedded PostgreSQL built from the Liquibase changelog: rows are
+ * routed by month, expired partitions end up as gzipped CSV files without breaking the amend log deltas left behind,
+ * and amend log reads by ref skip the partitions before the ref's first log row.
+ * <p>
+ * Skipped where the embedded server cannot start, e.g. on a platform without bundled PostgreSQL binaries.
+ */
+@Slf4j
+class AuditPartitionTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path archiveDir;
+
+    private final ColumnarAmendSnapshotCodec codec = new ColumnarAmendSnapshotCodec();
+    private AuditPartitionService auditPartitionService;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (Exception | Error ex) {
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + ex);
+        }
+        DataSource dataSource = postgres.getPostgresDatabase();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO trader_order (client_order_id, trade_date, country_code, status, sub_status, security_id,
+                                          order_quantity)
+                VALUES ('PARTITION-ORDER', DATE '2023-01-02', 'HK', 'NEW', 'NONE', 'BOND-123', 1000)
+                """);
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void createService() {
+        // Only snapshot decoding is used, which needs no repository
+        AmendLogService amendLogService = new AmendLogService(null, List.of(codec), new ObjectMapper());
+        ReflectionTestUtils.setField(amendLogService, "snapshotCodecName", ColumnarAmendSnapshotCodec.NAME);
+        ReflectionTestUtils.invokeMethod(amendLogService, "resolveCodecs");
+        auditPartitionService = new AuditPartitionService(jdbcTemplate, amendLogService);
+        ReflectionTestUtils.setField(auditPartitionService, "archiveDir", archiveDir);
+    }
+
+    @Test
+    void expiredPartitions_areArchivedAndDropped() throws Exception {
+        auditPartitionService.createPartitions(YearMonth.of(2023, 1), YearMonth.of(2023, 3));
+        insertAudit("2023-01-05T10:00:00Z", "2023-01-31T23:59:59Z", "2023-02-01T00:00:00Z", "2023-03-10T08:00:00Z");
+        insertAmendLogs("ARCHIVE-REF", "2023-01-20T12:00:00Z", "2023-02-14T12:00:00Z", "2023-02-15T12:00:00Z");
+        assertThat(count("trader_order_status_audit_p202301")).isEqualTo(2);
+        assertThat(count("trader_order_status_audit_p202302")).isEqualTo(1);
+        assertThat(count("client_allocation_amend_log_p202302")).isEqualTo(2);
+
+        List<Path> files = auditPartitionService.archivePartitionsBefore(YearMonth.of(2023, 3));
+
+        assertThat(files).extracting(file -> file.getFileName().toString()).containsExactly(
+                "trader_order_status_audit_p202301.csv.gz",
+                "trader_order_status_audit_p202302.csv.gz",
+                "client_allocation_amend_log_p202301.csv.gz",
+                "client_allocation_amend_log_p202302.csv.gz");
+        assertThat(csvLines(files.get(0))).hasSize(1 + 2).first().asString().startsWith("id,");
+        assertThat(csvLines(files.get(1))).hasSize(1 + 1);
+        assertThat(csvLines(files.get(3))).hasSize(1 + 2).last().asString().contains("ARCHIVE-REF");
+        assertThat(tableExists("trader_order_status_audit_p202301")).isFalse();
+        assertThat(tableExists("client_allocation_amend_log_p202302")).isFalse();
+        assertThat(tableExists("trader_order_status_audit_p202303")).isTrue();
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM trader_order_status_audit WHERE changed_at < TIMESTAMPTZ '2023-04-01 00:00:00+00'
+                """, Long.class)).isEqualTo(1);
+        assertThat(archiveDir).isDirectoryNotContaining("glob:**.partial");
+    }
+
+    @Test
+    void partitionLeftDetached_isArchivedByNextRun() throws Exception {
+        auditPartitionService.createPartitions(YearMonth.of(2022, 6), YearMonth.of(2022, 6));
+        insertAudit("2022-06-15T00:00:00Z");
+        // An earlier run stopped after detaching
+        jdbcTemplate.execute("ALTER TABLE trader_order_status_audit DETACH PARTITION trader_order_status_audit_p202206");
+
+        List<Path> files = auditPartitionService.archivePartitionsBefore(YearMonth.of(2022, 7));
+
+        assertThat(files).extracting(file -> file.getFileName().toString())
+                .contains("trader_order_status_audit_p202206.csv.gz");
+        assertThat(csvLines(archiveDir.resolve("trader_order_status_audit_p202206.csv.gz"))).hasSize(1 + 1);
+        assertThat(tableExists("trader_order_status_audit_p202206")).isFalse();
+    }
+
+    @Test
+    void deltaAgainstArchivedRevision_isRebasedToFullSnapshot() {
+        auditPartitionService.createPartitions(YearMonth.of(2020, 5), YearMonth.of(2020, 5));
+        List<ClientAllocationBreakdownRequest> revision1After = rows("10", "20");
+        List<ClientAllocationBreakdownRequest> revision2Before = rows("10", "25");
+        insertAmendLog("REBASE-REF", 1, "2020-05-10T00:00:00Z", AmendSnapshot.full(List.of()), null, revision1After);
+        insertAmendLog("REBASE-REF", 2, Instant.now().truncatedTo(ChronoUnit.SECONDS).toString(),
+                AmendSnapshot.diff(revision1After, revision2Before), 1, rows("30", "25"));
+
+        auditPartitionService.archivePartitionsBefore(YearMonth.of(2020, 6));
+
+        assertThat(tableExists("client_allocation_amend_log_p202005")).isFalse();
+        ClientAllocationAmendLogEntity revision2 = jdbcTemplate.queryForObject("""
+                SELECT snapshot_codec, before_snapshot, before_base_revision
+                FROM client_allocation_amend_log WHERE ref_id = 'REBASE-REF' AND revision = 2
+                """, (row, i) -> ClientAllocationAmendLogEntity.builder()
+                .snapshotCodec(row.getString(1))
+                .beforeSnapshot(row.getBytes(2))
+                .beforeBaseRevision((Integer) row.getObject(3))
+                .build());
+        assertThat(revision2.getBeforeBaseRevision()).isNull();
+        assertThat(codec.decode(revision2.getBeforeSnapshot()).upserts())
+                .extracting(ClientAllocationBreakdownRequest::getFinalAllocation)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(new BigDecimal("10"), new BigDecimal("25"));
+    }
+
+    @Test
+    void historyByRef_skipsPartitionsBeforeFirstLoggedAt() {
+        auditPartitionService.createPartitions(YearMonth.of(2021, 1), YearMonth.of(2021, 3));
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        insertAmendLogs("OLD-REF", "2021-02-01T00:00:00Z");
+        insertAmendLogs("PRUNE-REF", now.toString(), now.plusSeconds(1).toString());
+        jdbcTemplate.update("""
+                INSERT INTO client_allocation_amend_revision (ref_id, last_revision, first_logged_at)
+                VALUES ('PRUNE-REF', 2, ?)
+                """, Timestamp.from(now.minus(1, ChronoUnit.DAYS)));
+
+        // Same shape as ClientAllocationAmendLogRepository.findAllByRefId
+        List<String> lines = jdbcTemplate.queryForList("""
+                EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF, SUMMARY OFF)
+                SELECT l.* FROM client_allocation_amend_log l
+                WHERE l.ref_id = ?
+                  AND l.created_at >= COALESCE(
+                      (SELECT r.first_logged_at FROM client_allocation_amend_revision r WHERE r.ref_id = ?), ?)
+                ORDER BY l.revision DESC
+                """, String.class, "PRUNE-REF", "PRUNE-REF", Timestamp.from(Instant.EPOCH));
+        String plan = String.join("\n", lines);
+        log.info("Amend log history plan:\n{}", plan);
+
+        String currentPartition = "client_allocation_amend_log_p"
+                + YearMonth.from(now.atOffset(ZoneOffset.UTC)).format(DateTimeFormatter.ofPattern("yyyyMM"));
+        assertThat(lines).filteredOn(line -> line.contains("client_allocation_amend_log_p2021"))
+                .isNotEmpty()
+                .allSatisfy(line -> assertThat(line).contains("never executed"));
+        assertThat(lines).filteredOn(line -> line.contains(currentPartition))
+                .singleElement().asString().doesNotContain("never executed");
+    }
+
+    private static void insertAudit(String... changedAt) {
+        for (String at : changedAt) {
+            jdbcTemplate.update("""
+                    INSERT INTO trader_order_status_audit (id, client_order_id, to_status, to_sub_status, changed_by, changed_at)
+                    VALUES (nextval('trader_order_status_audit_id_seq'), 'PARTITION-ORDER', 'NEW', 'NONE', 'tester', ?)
+                    """, Timestamp.from(Instant.parse(at)));
+        }
+    }
+
+    private static void insertAmendLogs(String refId, String... createdAt) {
+        for (int i = 0; i < createdAt.length; i++) {
+            jdbcTemplate.update("""
+                    INSERT INTO client_allocation_amend_log (revision, ref_id, obj_type, created_by, created_at)
+                    VALUES (?, ?, 'CLIENT_ALLOCATION_BREAKDOWN', 'tester', ?)
+                    """, i + 1, refId, Timestamp.from(Instant.parse(createdAt[i])));
+        }
+    }
+
+    private void insertAmendLog(String refId, int revision, String createdAt, AmendSnapshot before,
+                                Integer beforeBaseRevision, List<ClientAllocationBreakdownRequest> after) {
+        jdbcTemplate.update("""
+                INSERT INTO client_allocation_amend_log (revision, ref_id, obj_type, created_by, created_at, snapshot_codec,
+                                                         before_snapshot, before_base_revision, after_snapshot)
+                VALUES (?, ?, 'CLIENT_ALLOCATION_BREAKDOWN', 'tester', ?, ?, ?, ?, ?)
+                """, revision, refId, Timestamp.from(Instant.parse(createdAt)), codec.name(), codec.encode(before),
+                beforeBaseRevision, codec.encode(AmendSnapshot.full(after)));
+    }
+
+    private static List<ClientAllocationBreakdownRequest> rows(String... finalAllocations) {
+        List<ClientAllocationBreakdownRequest> rows = new ArrayList<>();
+        for (int i = 0; i < finalAllocations.length; i++) {
+            ClientAllocationBreakdownRequest row = new ClientAllocationBreakdownRequest();
+            row.setCountryCode("HK");
+            row.setAccountNumber("ACCOUNT-" + i);
+            row.setOrderQuantity(new BigDecimal("100"));
+            row.setFinalAllocation(new BigDecimal(finalAllocations[i]));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    private static boolean tableExists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private static List<String> csvLines(Path file) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterEventService;
+import com.patrick.wpb.cmt.ems.fi.service.StatusService;
+import com.patrick.wpb.cmt.ems.fi.service.TraderOrderService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Subscribers get their buckets' snapshot, then one coalesced delta per flush holding the latest state of every
+ * changed order that entered or left one of their buckets. The coalescing window is disabled in tests, which call
+ * {@link BlotterEventService#flush()} themselves.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BlotterEventStreamTest {
+
+    private static final String PREFIX = "EVT-";
+
+    @Autowired
+    private BlotterEventService blotterEventService;
+
+    @Autowired
+    private StatusService statusService;
+
+    @Autowired
+    private TraderOrderService traderOrderService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<BlotterEventService.Subscription> subscriptions = new ArrayList<>();
+    private final List<String> groupOrderIds = new ArrayList<>();
+
+    @BeforeEach
+    void cleanUp() {
+        deleteEventOrders();
+        // Changes recorded by other tests would otherwise reach the subscribers below
+        blotterEventService.flush();
+    }
+
+    @AfterEach
+    void unsubscribe() {
+        subscriptions.forEach(blotterEventService::unsubscribe);
+        deleteEventOrders();
+    }
+
+    private void deleteEventOrders() {
+        String like = PREFIX + "%";
+        jdbcTemplate.update("delete from order_status_outbox where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order_status_audit where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_sub_order where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order where client_order_id like ?", like);
+        groupOrderIds.forEach(id -> jdbcTemplate.update("delete from trader_order where client_order_id = ?", id));
+    }
+
+    @Test
+    void snapshotThenOneCoalescedDeltaPerFlush_filteredByBucket() throws Exception {
+        createOrder("EVT-A", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, true);
+        createOrder("EVT-B", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, true);
+        createOrder("EVT-UNFLAGGED", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, false);
+        createOrder("EVT-C", IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, true);
+
+        RecordingSink collection = subscribe(EnumSet.of(BlotterBucket.COLLECTION));
+        RecordingSink regional = subscribe(EnumSet.of(BlotterBucket.REGIONAL_ALLOCATION));
+        RecordingSink clientApproval = subscribe(EnumSet.of(BlotterBucket.CLIENT_ALLOCATION_APPROVAL));
+
+        assertThat(snapshotIds(collection)).containsExactlyInAnyOrder("EVT-A", "EVT-B");
+        assertThat(snapshotIds(regional)).containsExactly("EVT-C");
+
+        statusService.updateStatus("EVT-A", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, "desk", null);
+        statusService.updateStatus("EVT-A", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, "desk", null);
+        statusService.updateStatus("EVT-C", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, "desk", null);
+        // Rolled back: nothing to publish
+        assertThatThrownBy(() -> statusService.updateStatus("EVT-B", IPOOrderStatus.CLIENT_ALLOCATION,
+                IPOOrderSubStatus.DONE, "desk", null))
+                .isInstanceOf(IllegalStateException.class);
+        // Committed changes wait for the flush
+        assertThat(collection.events(BlotterEventService.DELTA_EVENT)).isEmpty();
+
+        blotterEventService.flush();
+
+        // EVT-A left the collection blotter: one event, latest state only
+        assertThat(collection.events(BlotterEventService.DELTA_EVENT)).hasSize(1);
+        Map<String, JsonNode> collectionDeltas = deltas(collection);
+        assertThat(collectionDeltas).containsOnlyKeys("EVT-A");
+        assertThat(collectionDeltas.get("EVT-A").get("bucket").asText()).isEqualTo("REGIONAL_ALLOCATION");
+        assertThat(collectionDeltas.get("EVT-A").get("order").get("subStatus").asText())
+                .isEqualTo("PENDING_REGIONAL_ALLOCATION_APPROVAL");
+
+        assertThat(regional.events(BlotterEventService.DELTA_EVENT)).hasSize(1);
+        assertThat(deltas(regional)).containsOnlyKeys("EVT-A", "EVT-C");
+        assertThat(clientApproval.events(BlotterEventService.DELTA_EVENT)).isEmpty();
+
+        // Nothing changed since: the next flush sends nothing
+        blotterEventService.flush();
+        assertThat(regional.events(BlotterEventService.DELTA_EVENT)).hasSize(1);
+
+        statusService.updateStatuses(List.of("EVT-A", "EVT-C"), IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, "desk", null);
+        blotterEventService.flush();
+
+        Map<String, JsonNode> cancelled = deltas(regional);
+        assertThat(cancelled).containsOnlyKeys("EVT-A", "EVT-C");
+        assertThat(cancelled.values()).allSatisfy(delta -> assertThat(delta.get("bucket").isNull()).isTrue());
+        assertThat(collection.events(BlotterEventService.DELTA_EVENT)).hasSize(1);
+    }
+
+    @Test
+    void groupingUpdatesCollectionSubscribers_andUnsubscribedSinksGetNothing() throws Exception {
+        createOrder("EVT-G1", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, true);
+        createOrder("EVT-G2", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, true);
+
+        RecordingSink collection = subscribe(EnumSet.of(BlotterBucket.COLLECTION));
+        RecordingSink gone = subscribe(EnumSet.of(BlotterBucket.COLLECTION));
+        blotterEventService.unsubscribe(subscriptions.get(1));
+
+        TraderOrderEntity group = traderOrderService.groupOrders(List.of("EVT-G1", "EVT-G2"), "desk");
+        groupOrderIds.add(group.getClientOrderId());
+        blotterEventService.flush();
+
+        Map<String, JsonNode> grouped = deltas(collection);
+        // The group order has no IPO-flagged sub orders, so it is not on the collection blotter
+        assertThat(grouped).containsOnlyKeys("EVT-G1", "EVT-G2");
+        assertThat(grouped.values()).allSatisfy(delta -> {
+            assertThat(delta.get("bucket").asText()).isEqualTo("COLLECTION");
+            assertThat(delta.get("order").get("originalClientOrderId").asText()).isEqualTo(group.getClientOrderId());
+        });
+        assertThat(gone.events(BlotterEventService.DELTA_EVENT)).isEmpty();
+    }
+
+    @Test
+    void subscriberStillOnItsSnapshot_isDisconnectedWhenItsQueueIsFull() throws Exception {
+        createOrder("EVT-Q", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, true);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink stalled = new RecordingSink() {
+            @Override
+            public void send(String event, String json) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.send(event, json);
+            }
+        };
+        Object configured = ReflectionTestUtils.getField(blotterEventService, "maxQueuedDeltas");
+        ReflectionTestUtils.setField(blotterEventService, "maxQueuedDeltas", 2);
+        try {
+            subscriptions.add(blotterEventService.subscribe(EnumSet.of(BlotterBucket.COLLECTION), stalled));
+            for (int i = 0; i < 3; i++) {
+                blotterEventService.ordersChanged(List.of("EVT-Q"));
+                blotterEventService.flush();
+            }
+
+            assertThat(stalled.closed.await(0, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            ReflectionTestUtils.setField(blotterEventService, "maxQueuedDeltas", configured);
+            release.countDown();
+        }
+        assertThat(stalled.events(BlotterEventService.DELTA_EVENT)).isEmpty();
+    }
+
+    private RecordingSink subscribe(Set<BlotterBucket> buckets) throws InterruptedException {
+        RecordingSink sink = new RecordingSink();
+        subscriptions.add(blotterEventService.subscribe(buckets, sink));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (sink.events(BlotterEventService.READY_EVENT).isEmpty()) {
+            assertThat(System.currentTimeMillis()).as("snapshot finished").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        return sink;
+    }
+
+    private List<String> snapshotIds(RecordingSink sink) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (String json : sink.events(BlotterEventService.SNAPSHOT_EVENT)) {
+            objectMapper.readTree(json).get("orders").forEach(order -> {
+                String id = order.get("clientOrderId").asText();
+                if (id.startsWith(PREFIX)) {
+                    ids.add(id);
+                }
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * Our orders in the latest delta event, by id.
+     */
+    private Map<String, JsonNode> deltas(RecordingSink sink) throws Exception {
+        List<String> events = sink.events(BlotterEventService.DELTA_EVENT);
+        Map<String, JsonNode> byId = new LinkedHashMap<>();
+        StreamSupport.stream(objectMapper.readTree(events.get(events.size() - 1)).spliterator(), false)
+                .filter(delta -> delta.get("clientOrderId").asText().startsWith(PREFIX))
+                .forEach(delta -> assertThat(byId.put(delta.get("clientOrderId").asText(), delta)).isNull());
+        return byId;
+    }
+
+    private void createOrder(String clientOrderId, IPOOrderStatus status, IPOOrderSubStatus subStatus, boolean ipoFlag) {
+        TraderOrderEntity order = TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(status)
+                .subStatus(subStatus)
+                .securityId("BOND-EVT")
+                .orderQuantity(BigDecimal.valueOf(1000))
+                .build();
+        order.getSubOrders().add(TraderSubOrderEntity.builder()
+                .countryCode("HK")
+                .order(order)
+                .accountId("ACCOUNT-" + clientOrderId)
+                .issueIPOFlag(ipoFlag)
+                .build());
+        traderOrderRepository.save(order);
+    }
+
+    private static class RecordingSink implements BlotterEventService.Sink {
+
+        private final List<String[]> received = new ArrayList<>();
+        private final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(String event, String json) {
+            received.add(new String[] {event, json});
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void close() {
+            closed.countDown();
+        }
+
+        synchronized List<String> events(String event) {
+            return received.stream()
+                    .filter(entry -> entry[0].equals(event))
+                    .map(entry -> entry[1])
+                    .toList();
+        }
+    }
+}
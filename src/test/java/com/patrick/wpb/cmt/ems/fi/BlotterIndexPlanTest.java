@@ -0,0 +1,137 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.util.List;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Plans of the busiest {@code trader_order} queries against an embedded PostgreSQL built from the Liquibase
+ * changelog, with a production-like status mix (most orders finished, a few percent in any open blotter). Each
+ * query must be answered from its index rather than a sequential scan of {@code trader_order}.
+ * <p>
+ * Skipped where the embedded server cannot start, e.g. on a platform without bundled PostgreSQL binaries.
+ */
+@Slf4j
+class BlotterIndexPlanTest {
+
+    private static final int ORDER_COUNT = 50_000;
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (Exception | Error ex) {
+            Assumptions.abort("Embedded PostgreSQL unavailable: " + ex);
+        }
+        DataSource dataSource = postgres.getPostgresDatabase();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.xml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO trader_order (client_order_id, trade_date, country_code, status, sub_status,
+                                          original_client_order_id, security_id, order_quantity)
+                SELECT 'ORDER-' || g,
+                       DATE '2024-01-01' + g % 365,
+                       CASE WHEN g % 2 = 0 THEN 'HK' ELSE 'SG' END,
+                       CASE WHEN g % 100 < 80 THEN 'CLIENT_ALLOCATION'
+                            WHEN g % 100 < 88 THEN 'CANCELLED'
+                            WHEN g % 100 < 92 THEN 'NEW'
+                            WHEN g % 100 < 95 THEN 'ACCEPTED'
+                            WHEN g % 100 < 97 THEN 'REGIONAL_ALLOCATION'
+                            ELSE 'CLIENT_ALLOCATION' END,
+                       CASE WHEN g % 100 < 80 THEN 'DONE'
+                            WHEN g % 100 < 95 THEN 'NONE'
+                            WHEN g % 100 < 97 THEN 'PENDING_REGIONAL_ALLOCATION'
+                            ELSE 'PENDING_CLIENT_ALLOCATION' END,
+                       CASE WHEN g % 4 = 0 THEN 'GROUP-' || g / 20 END,
+                       'BOND-' || g % 500,
+                       1000
+                FROM generate_series(1, ?) g
+                """, ORDER_COUNT);
+        jdbcTemplate.update("""
+                INSERT INTO trader_sub_order (country_code, client_order_id, account_id, issue_ipo_flag)
+                SELECT country_code, client_order_id, 'ACCOUNT-' || client_order_id,
+                       CAST(substring(client_order_id FROM 7) AS INTEGER) % 19 = 0
+                FROM trader_order
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void statusBlotters_useStatusIndex() {
+        assertIndexScan("""
+                SELECT * FROM trader_order
+                WHERE status = 'REGIONAL_ALLOCATION' AND sub_status = 'PENDING_REGIONAL_ALLOCATION'
+                """, "idx_trader_order_status_sub_status");
+        assertIndexScan("""
+                SELECT * FROM trader_order WHERE status = 'REGIONAL_ALLOCATION'
+                """, "idx_trader_order_status_sub_status");
+        assertIndexScan("""
+                SELECT client_order_id, updated_at FROM trader_order
+                WHERE status = 'CLIENT_ALLOCATION' AND sub_status IN ('PENDING_CLIENT_ALLOCATION')
+                  AND (updated_at, client_order_id) > (TIMESTAMPTZ '2024-01-01', '')
+                ORDER BY updated_at, client_order_id
+                LIMIT 100
+                """, "idx_trader_order_status_sub_status");
+    }
+
+    @Test
+    void ipoFlaggedBlotter_probesFlaggedSubOrders() {
+        assertIndexScan("""
+                SELECT o.* FROM trader_order o
+                WHERE o.status = 'CLIENT_ALLOCATION' AND o.sub_status = 'PENDING_CLIENT_ALLOCATION'
+                  AND EXISTS (SELECT 1 FROM trader_sub_order s
+                              WHERE s.client_order_id = o.client_order_id AND s.issue_ipo_flag = true)
+                """, "idx_trader_order_status_sub_status", "idx_trader_sub_order_ipo_flagged");
+    }
+
+    @Test
+    void groupOrderChildren_useOriginalClientOrderIndex() {
+        assertIndexScan("""
+                SELECT * FROM trader_order WHERE original_client_order_id = 'GROUP-42'
+                """, "idx_trader_order_original_client_order");
+    }
+
+    @Test
+    void groupingCandidates_useTradeDateSecurityIndex() {
+        assertIndexScan("""
+                SELECT o.* FROM trader_order o
+                LEFT JOIN regional_allocation r ON r.client_order_id = o.client_order_id
+                WHERE o.trade_date = DATE '2024-03-01' AND o.security_id = 'BOND-60'
+                  AND o.status = 'NEW' AND o.sub_status = 'NONE'
+                  AND r.client_order_id IS NULL
+                """, "idx_trader_order_trade_date_security");
+    }
+
+    private void assertIndexScan(String sql, String... indexNames) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        String plan = String.join("\n", lines);
+        log.info("Plan for {}:\n{}", sql.strip(), plan);
+        assertThat(plan).contains(indexNames);
+        assertThat(plan).doesNotContain("Seq Scan on trader_order ");
+    }
+}
@@ -0,0 +1,116 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.BlotterPageDto;
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.BlotterBucket;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.BlotterService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BlotterPaginationTest {
+
+    private static final int ORDER_COUNT = 250;
+
+    @Autowired
+    private BlotterService blotterService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seedOrders() {
+        List<TraderOrderEntity> orders = new ArrayList<>(ORDER_COUNT);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            TraderOrderEntity order = TraderOrderEntity.builder()
+                    .clientOrderId(String.format("PAGE-%04d", i))
+                    .tradeDate(LocalDate.of(2024, 12, 1))
+                    .countryCode("HK")
+                    .status(i % 5 == 0 ? IPOOrderStatus.REGIONAL_ALLOCATION : IPOOrderStatus.NEW)
+                    .subStatus(i % 5 == 0 ? IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION : IPOOrderSubStatus.NONE)
+                    .securityId("BOND-123")
+                    .orderQuantity(new BigDecimal("100"))
+                    .build();
+            order.getSubOrders().add(TraderSubOrderEntity.builder()
+                    .countryCode("HK")
+                    .order(order)
+                    .accountId("ACCOUNT-" + i)
+                    .issueIPOFlag(i % 2 == 0)
+                    .build());
+            orders.add(order);
+        }
+        // Saved in one flush, so many rows share the same updated_at and exercise the client_order_id tie-break
+        traderOrderRepository.saveAll(orders);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void walkingPages_returnsEveryOrderOnceInKeysetOrder() {
+        List<TraderOrderSummaryDto> walked = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            BlotterPageDto page = blotterService.fetchPage(BlotterBucket.COLLECTION, cursor, 30);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(30);
+            walked.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        // NEW orders are the ones not divisible by 5, and only the even ones carry the IPO flag
+        long expected = IntStream.range(0, ORDER_COUNT)
+                .filter(i -> i % 5 != 0 && i % 2 == 0)
+                .count();
+        assertThat(walked).hasSize((int) expected);
+        assertThat(pages).isEqualTo((int) Math.ceil(expected / 30.0));
+        assertThat(walked).extracting(TraderOrderSummaryDto::getClientOrderId).doesNotHaveDuplicates();
+        assertThat(walked).isSortedAccordingTo((a, b) -> {
+            int byUpdatedAt = a.getUpdatedAt().compareTo(b.getUpdatedAt());
+            return byUpdatedAt != 0 ? byUpdatedAt : a.getClientOrderId().compareTo(b.getClientOrderId());
+        });
+    }
+
+    @Test
+    void streamingBucket_matchesPagedResult() {
+        List<TraderOrderSummaryDto> streamed = new ArrayList<>();
+        blotterService.streamBucket(BlotterBucket.REGIONAL_ALLOCATION, streamed::add);
+
+        BlotterPageDto singlePage = blotterService.fetchPage(BlotterBucket.REGIONAL_ALLOCATION, null, 1000);
+
+        assertThat(streamed).hasSize(ORDER_COUNT / 5);
+        assertThat(singlePage.getNextCursor()).isNull();
+        assertThat(streamed).isEqualTo(singlePage.getItems());
+    }
+
+    @Test
+    void invalidCursorOrSize_isRejected() {
+        assertThatThrownBy(() -> blotterService.fetchPage(BlotterBucket.COLLECTION, "not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> blotterService.fetchPage(BlotterBucket.COLLECTION, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,145 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ClientAllocationApprovalDiffTest {
+
+    private static final String CLIENT_ORDER_ID = "DIFF-ORDER";
+    private static final int ACCOUNT_COUNT = 500;
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private ClientAllocationBreakdownRepository clientAllocationBreakdownRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(CLIENT_ORDER_ID)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(BigDecimal.valueOf(ACCOUNT_COUNT * 10L))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void approve_keepsRowIdentityAndFlipsStatusInBulk() {
+        clientAllocationService.submitForApproval(CLIENT_ORDER_ID, buildRequests(), "allocator", null);
+        entityManager.flush();
+        entityManager.clear();
+        Map<String, Long> idsBeforeApproval = idsByAccount();
+
+        statistics.clear();
+        clientAllocationService.approve(CLIENT_ORDER_ID, "approver", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ClientAllocationBreakdownEntity> approved = clientAllocationBreakdownRepository.findByOrderClientOrderId(CLIENT_ORDER_ID);
+        assertThat(approved).hasSize(ACCOUNT_COUNT);
+        assertThat(approved).extracting(ClientAllocationBreakdownEntity::getClientAllocationStatus)
+                .containsOnly(ClientAllocationStatus.ACCEPTED);
+        // No delete/reinsert: every account keeps its row
+        assertThat(idsByAccount()).isEqualTo(idsBeforeApproval);
+        EntityStatistics breakdownWrites = statistics.getEntityStatistics(ClientAllocationBreakdownEntity.class.getName());
+        assertThat(breakdownWrites.getInsertCount()).isZero();
+        assertThat(breakdownWrites.getDeleteCount()).isZero();
+        assertThat(breakdownWrites.getUpdateCount()).isZero();
+    }
+
+    @Test
+    void saveDraft_onlyWritesChangedAccounts() {
+        clientAllocationService.saveDraftAllocations(CLIENT_ORDER_ID, buildRequests());
+        entityManager.flush();
+        entityManager.clear();
+        Map<String, Long> idsBefore = idsByAccount();
+
+        List<ClientAllocationBreakdownRequest> amended = buildRequests();
+        amended.get(0).setFinalAllocation(new BigDecimal("20"));
+        amended.get(1).setFinalAllocation(BigDecimal.ZERO);
+        amended.remove(amended.size() - 1);
+        amended.add(request("SG", "ACCOUNT-NEW", "10"));
+
+        statistics.clear();
+        clientAllocationService.saveDraftAllocations(CLIENT_ORDER_ID, amended);
+        entityManager.flush();
+        entityManager.clear();
+
+        EntityStatistics breakdownWrites = statistics.getEntityStatistics(ClientAllocationBreakdownEntity.class.getName());
+        assertThat(breakdownWrites.getUpdateCount()).isEqualTo(2);
+        assertThat(breakdownWrites.getInsertCount()).isEqualTo(1);
+
+        Map<String, Long> idsAfter = idsByAccount();
+        assertThat(idsAfter).hasSize(ACCOUNT_COUNT);
+        assertThat(idsAfter).doesNotContainKey("ACCOUNT-" + (ACCOUNT_COUNT - 1));
+        assertThat(idsAfter.get("ACCOUNT-0")).isEqualTo(idsBefore.get("ACCOUNT-0"));
+        assertThat(idsAfter.get("ACCOUNT-1")).isEqualTo(idsBefore.get("ACCOUNT-1"));
+    }
+
+    private Map<String, Long> idsByAccount() {
+        return clientAllocationBreakdownRepository.findByOrderClientOrderId(CLIENT_ORDER_ID).stream()
+                .collect(Collectors.toMap(ClientAllocationBreakdownEntity::getAccountNumber, ClientAllocationBreakdownEntity::getId));
+    }
+
+    private List<ClientAllocationBreakdownRequest> buildRequests() {
+        List<ClientAllocationBreakdownRequest> requests = new ArrayList<>(ACCOUNT_COUNT);
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            requests.add(request("HK", "ACCOUNT-" + i, "10"));
+        }
+        return requests;
+    }
+
+    private ClientAllocationBreakdownRequest request(String countryCode, String accountNumber, String finalAllocation) {
+        ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+        request.setCountryCode(countryCode);
+        request.setAccountNumber(accountNumber);
+        request.setOrderQuantity(new BigDecimal("10"));
+        request.setFinalAllocation(new BigDecimal(finalAllocation));
+        return request;
+    }
+}
@@ -0,0 +1,151 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Measures client allocation submit latency as the number of breakdown rows grows.
+ * With pooled sequence ids and JDBC batching the statement count grows with rows / batch size
+ * rather than with rows, and the delete-missing step is one statement per thousand ids.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ClientAllocationSubmitBenchmarkTest {
+
+    private static final BigDecimal ALLOCATION_PER_ACCOUNT = new BigDecimal("10");
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private ClientAllocationBreakdownRepository clientAllocationBreakdownRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {100, 1_000, 10_000})
+    void submitLatency_scalesWithBatchesNotRows(int rowCount) {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        String clientOrderId = "SUBMIT-BENCH-" + rowCount;
+        seedOrder(clientOrderId, rowCount);
+
+        // First submit: every row is an insert
+        statistics.clear();
+        long start = System.nanoTime();
+        clientAllocationService.submitForApproval(clientOrderId, buildRequests(rowCount, 0), "bench", null);
+        entityManager.flush();
+        long insertMillis = (System.nanoTime() - start) / 1_000_000;
+        long insertStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        assertThat(clientAllocationBreakdownRepository.findByOrderClientOrderId(clientOrderId)).hasSize(rowCount);
+        entityManager.clear();
+
+        // Second submit: half the accounts are kept (updated), half replaced (inserted + bulk deleted)
+        clientAllocationService.reject(clientOrderId, "bench", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        start = System.nanoTime();
+        clientAllocationService.submitForApproval(clientOrderId, buildRequests(rowCount, rowCount / 2), "bench", null);
+        entityManager.flush();
+        long resubmitMillis = (System.nanoTime() - start) / 1_000_000;
+        long resubmitStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        log.info("rows={} submit: {} statement(s) {}ms, resubmit: {} statement(s) {}ms",
+                rowCount, insertStatements, insertMillis, resubmitStatements, resubmitMillis);
+
+        assertThat(clientAllocationBreakdownRepository.findByOrderClientOrderId(clientOrderId)).hasSize(rowCount);
+        assertThat(insertStatements).isLessThan(rowCount / 10 + 20);
+        assertThat(resubmitStatements).isLessThan(rowCount / 10 + 20);
+    }
+
+    @Test
+    void approvingUnchangedDraft_flipsBooksLargerThanOneStatementCanBind() {
+        // More rows than PostgreSQL accepts bind parameters in a single statement
+        int rowCount = 40_000;
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        String clientOrderId = "APPROVE-BENCH-" + rowCount;
+        seedOrder(clientOrderId, rowCount);
+        clientAllocationService.submitForApproval(clientOrderId, buildRequests(rowCount, 0), "bench", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        clientAllocationService.approve(clientOrderId, "bench", null);
+        entityManager.flush();
+        long approveMillis = (System.nanoTime() - start) / 1_000_000;
+        long approveStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        log.info("rows={} approve: {} statement(s) {}ms", rowCount, approveStatements, approveMillis);
+        assertThat(clientAllocationBreakdownRepository.findByOrderClientOrderId(clientOrderId))
+                .hasSize(rowCount)
+                .allMatch(breakdown -> breakdown.getClientAllocationStatus() == ClientAllocationStatus.ACCEPTED);
+        // One status flip per thousand rows, plus the reads and the order's own updates
+        assertThat(approveStatements).isBetween(rowCount / 1000L, rowCount / 1000L + 20);
+    }
+
+    private void seedOrder(String clientOrderId, int rowCount) {
+        traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(ALLOCATION_PER_ACCOUNT.multiply(BigDecimal.valueOf(rowCount)))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private List<ClientAllocationBreakdownRequest> buildRequests(int rowCount, int accountOffset) {
+        List<ClientAllocationBreakdownRequest> requests = new ArrayList<>(rowCount);
+        for (int i = accountOffset; i < accountOffset + rowCount; i++) {
+            ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+            request.setCountryCode(i % 2 == 0 ? "HK" : "SG");
+            request.setAccountNumber("ACCOUNT-" + i);
+            request.setOrderQuantity(ALLOCATION_PER_ACCOUNT);
+            request.setFinalAllocation(ALLOCATION_PER_ACCOUNT);
+            requests.add(request);
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,112 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.service.ClientProRataEngine;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ClientProRataEngineTest {
+
+    @Test
+    void oversubscribedBook_isSplitInLotsWithLeftoverLotsToEarlierAccounts() {
+        List<ClientAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("A1", "5000", null, null),
+                breakdown("A2", "9000", "5000", null),
+                breakdown("A3", "1500", null, null),
+                breakdown("A4", "8000", null, "5000"),
+                breakdown("A5", "5000", null, null));
+
+        ClientProRataEngine.Result result = ClientProRataEngine.allocate(
+                breakdowns, units("10000"), units("1000"), units("2000"));
+
+        // Five lots demanded by each of four accounts, ten to give: two and a half each, equal remainders
+        assertThat(result.allocatedUnits()).containsExactly(
+                units("3000"), units("3000"), 0, units("2000"), units("2000"));
+        assertThat(result.allocatedTotal()).isEqualTo(units("10000"));
+        assertThat(result.unallocatedUnits()).isZero();
+        assertThat(result.allocatedAccounts()).isEqualTo(4);
+        assertThat(result.belowMinimumAccounts()).isEqualTo(1);
+    }
+
+    @Test
+    void shareBelowMinimum_isDroppedAndRedistributed() {
+        List<ClientAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("A1", "20", null, null),
+                breakdown("A2", "20", null, null),
+                breakdown("A3", "4", null, null));
+
+        ClientProRataEngine.Result result = ClientProRataEngine.allocate(breakdowns, units("10"), units("1"), units("3"));
+
+        // A3's pro-rata share of 10/44 * 4 rounds to one lot, under the minimum of three
+        assertThat(result.allocatedUnits()).containsExactly(units("5"), units("5"), 0);
+        assertThat(result.belowMinimumAccounts()).isEqualTo(1);
+    }
+
+    @Test
+    void undersubscribedBook_fillsDemandAndReportsTheRest() {
+        List<ClientAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("A1", "3.5", null, null),
+                breakdown("A2", "4", null, null));
+
+        ClientProRataEngine.Result result = ClientProRataEngine.allocate(breakdowns, units("10"), units("1"), units("1"));
+
+        assertThat(result.allocatedUnits()).containsExactly(units("3"), units("4"));
+        assertThat(result.unallocatedUnits()).isEqualTo(units("3"));
+    }
+
+    @Test
+    void largeBook_isAllocatedExactlyInLotsWithinASecond() {
+        int accountCount = 100_000;
+        List<ClientAllocationBreakdownRequest> breakdowns = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            breakdowns.add(breakdown("ACCOUNT-" + i, String.valueOf((i % 97 + 1) * 1000),
+                    i % 3 == 0 ? "250000" : null, i % 11 == 0 ? "20000" : null));
+        }
+        long total = units("1000000000");
+        long lot = units("1000");
+
+        long start = System.nanoTime();
+        ClientProRataEngine.Result result = ClientProRataEngine.allocate(breakdowns, total, lot, units("10000"));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(millis).isLessThan(1_000);
+        assertThat(Arrays.stream(result.allocatedUnits()).sum()).isEqualTo(total);
+        long minimum = units("10000");
+        assertThat(Arrays.stream(result.allocatedUnits())
+                .allMatch(allocated -> allocated % lot == 0 && (allocated == 0 || allocated >= minimum))).isTrue();
+        assertThat(ClientProRataEngine.allocate(breakdowns, total, lot, units("10000")).allocatedUnits())
+                .containsExactly(result.allocatedUnits());
+    }
+
+    @Test
+    void totalOffTheLotGrid_isRejected() {
+        assertThatThrownBy(() -> ClientProRataEngine.allocate(
+                List.of(breakdown("A1", "10", null, null)), units("10.5"), units("1"), units("1")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ClientProRataEngine.allocate(
+                List.of(breakdown("A1", "10", null, null)), units("10"), units("2"), units("3")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long units(String quantity) {
+        return Quantity.unitsOf(new BigDecimal(quantity));
+    }
+
+    private static ClientAllocationBreakdownRequest breakdown(String account, String orderQuantity,
+                                                              String estimatedOrderSize, String sizeLimit) {
+        ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+        request.setCountryCode("HK");
+        request.setAccountNumber(account);
+        request.setOrderQuantity(new BigDecimal(orderQuantity));
+        request.setEstimatedOrderSize(estimatedOrderSize == null ? null : new BigDecimal(estimatedOrderSize));
+        request.setSizeLimit(sizeLimit == null ? null : new BigDecimal(sizeLimit));
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.ClientProRataDto;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalRegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.FinalRegionalAllocationRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Client pro rata runs once per market, over that market's accounts and its final regional allocation amount.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ClientProRataSplitTest {
+
+    private static final String ORDER_ID = "PRO-RATA-ORDER";
+    private static final BigDecimal LOT = new BigDecimal("100");
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private FinalRegionalAllocationRepository finalRegionalAllocationRepository;
+
+    @BeforeEach
+    void seedOrder() {
+        traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(ORDER_ID)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(new BigDecimal("1000"))
+                .build());
+        finalRegionalAllocationRepository.saveAll(List.of(market("HK", "600"), market("SG", "400")));
+    }
+
+    @Test
+    void eachMarketSplitsItsOwnAmount() {
+        // Pooled, SG's larger demand would take most of the order; per market HK keeps its 600
+        ClientProRataDto result = clientAllocationService.computeProRata(ORDER_ID, List.of(
+                account("HK", "H1", "500"),
+                account("SG", "S1", "1000"),
+                account("HK", "H2", "500")), LOT, LOT);
+
+        assertThat(result.getBreakdowns())
+                .extracting(ClientAllocationBreakdownRequest::getAccountNumber)
+                .containsExactly("H1", "S1", "H2");
+        assertThat(result.getBreakdowns())
+                .extracting(ClientAllocationBreakdownRequest::getFinalAllocation)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(new BigDecimal("300"), new BigDecimal("400"), new BigDecimal("300"));
+        assertThat(result.getBreakdowns())
+                .extracting(ClientAllocationBreakdownRequest::getAllocationPercentage)
+                .usingComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .containsExactly(new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("50"));
+        assertThat(result.getTotalQuantity()).isEqualByComparingTo("1000");
+        assertThat(result.getUnallocatedQuantity()).isEqualByComparingTo("0");
+        assertThat(result.getAllocatedAccounts()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidSplitsAreRejectedAsBadInput() {
+        List<ClientAllocationBreakdownRequest> accounts = List.of(account("HK", "H1", "500"));
+
+        BigDecimal lotOf300 = new BigDecimal("300");
+        assertThatThrownBy(() -> clientAllocationService.computeProRata(ORDER_ID, accounts, lotOf300, lotOf300))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("allocation of SG is not a whole number of lots");
+        assertThatThrownBy(() -> clientAllocationService.computeProRata(ORDER_ID, accounts, LOT, new BigDecimal("150")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Minimum denomination");
+        assertThatThrownBy(() -> clientAllocationService.computeProRata(ORDER_ID,
+                List.of(account("GB", "G1", "500")), LOT, LOT))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("no final regional allocation");
+    }
+
+    private static FinalRegionalAllocationEntity market(String market, String amount) {
+        return FinalRegionalAllocationEntity.builder()
+                .clientOrderId(ORDER_ID)
+                .market(market)
+                .allocationAmount(new BigDecimal(amount))
+                .build();
+    }
+
+    private static ClientAllocationBreakdownRequest account(String countryCode, String accountNumber, String demand) {
+        ClientAllocationBreakdownRequest account = new ClientAllocationBreakdownRequest();
+        account.setCountryCode(countryCode);
+        account.setAccountNumber(accountNumber);
+        account.setOrderQuantity(new BigDecimal(demand));
+        return account;
+    }
+}
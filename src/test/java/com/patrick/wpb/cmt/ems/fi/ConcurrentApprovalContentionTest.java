@@ -0,0 +1,193 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.ClientAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.AmendmentAction;
+import com.patrick.wpb.cmt.ems.fi.enums.ClientAllocationStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationAmendLogRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.ClientAllocationBreakdownRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.ClientAllocationService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Races approvers against rejecters on the same orders from a thread pool. Without the version guard two
+ * callers could both pass the "pending approval" check; with it exactly one call per order wins and every
+ * loser ends with a conflict (a retried {@link ConcurrencyFailureException} or the state check failing on
+ * the re-read order).
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class ConcurrentApprovalContentionTest {
+
+    private static final String ORDER_PREFIX = "CONTEND-";
+    private static final int ORDER_COUNT = 20;
+    private static final int ACCOUNT_COUNT = 50;
+    private static final int CALLERS_PER_ORDER = 4;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private ClientAllocationService clientAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private ClientAllocationBreakdownRepository clientAllocationBreakdownRepository;
+
+    @Autowired
+    private ClientAllocationAmendLogRepository amendLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seedPendingApprovals() {
+        deleteContendedOrders();
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            String clientOrderId = ORDER_PREFIX + i;
+            traderOrderRepository.save(TraderOrderEntity.builder()
+                    .clientOrderId(clientOrderId)
+                    .tradeDate(LocalDate.of(2024, 12, 1))
+                    .countryCode("HK")
+                    .status(IPOOrderStatus.CLIENT_ALLOCATION)
+                    .subStatus(IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION)
+                    .securityId("BOND-123")
+                    .orderQuantity(BigDecimal.valueOf(ACCOUNT_COUNT * 10L))
+                    .build());
+            clientAllocationService.submitForApproval(clientOrderId, buildRequests(), "allocator", null);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        deleteContendedOrders();
+    }
+
+    @Test
+    void parallelApproveAndReject_exactlyOneCallerWinsPerOrder() throws Exception {
+        ConcurrentHashMap<String, Outcome> outcomes = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> calls = new ArrayList<>();
+        try {
+            for (int caller = 0; caller < CALLERS_PER_ORDER; caller++) {
+                boolean approver = caller % 2 == 0;
+                for (int i = 0; i < ORDER_COUNT; i++) {
+                    String clientOrderId = ORDER_PREFIX + i;
+                    calls.add(executor.submit(() -> {
+                        startGate.await();
+                        try {
+                            if (approver) {
+                                clientAllocationService.approve(clientOrderId, "approver", null);
+                            } else {
+                                clientAllocationService.reject(clientOrderId, "approver", null);
+                            }
+                            outcomes.computeIfAbsent(clientOrderId, id -> new Outcome()).winners.add(approver);
+                        } catch (IllegalStateException | ConcurrencyFailureException ex) {
+                            outcomes.computeIfAbsent(clientOrderId, id -> new Outcome()).conflicts.add(ex);
+                        } catch (RuntimeException ex) {
+                            unexpected.add(ex);
+                        }
+                        return null;
+                    }));
+                }
+            }
+
+            long start = System.nanoTime();
+            startGate.countDown();
+            for (Future<?> call : calls) {
+                call.get(60, TimeUnit.SECONDS);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("{} approve/reject calls on {} orders across {} threads: {}ms, {} calls/s",
+                    calls.size(), ORDER_COUNT, THREADS, elapsedMillis, calls.size() * 1000L / elapsedMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(unexpected).isEmpty();
+        assertThat(outcomes).hasSize(ORDER_COUNT);
+        for (int i = 0; i < ORDER_COUNT; i++) {
+            String clientOrderId = ORDER_PREFIX + i;
+            Outcome outcome = outcomes.get(clientOrderId);
+            assertThat(outcome.winners).as("winners for %s", clientOrderId).hasSize(1);
+            assertThat(outcome.conflicts).hasSize(CALLERS_PER_ORDER - 1);
+            assertWinnerApplied(clientOrderId, outcome.winners.peek());
+        }
+    }
+
+    private void assertWinnerApplied(String clientOrderId, boolean approved) {
+        TraderOrderEntity order = traderOrderRepository.findById(clientOrderId).orElseThrow();
+        assertThat(order.getStatus()).isEqualTo(IPOOrderStatus.CLIENT_ALLOCATION);
+        assertThat(order.getSubStatus()).isEqualTo(approved
+                ? IPOOrderSubStatus.DONE
+                : IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION);
+
+        List<ClientAllocationBreakdownEntity> breakdowns = clientAllocationBreakdownRepository.findByOrderClientOrderId(clientOrderId);
+        assertThat(breakdowns).hasSize(ACCOUNT_COUNT);
+        assertThat(breakdowns).extracting(ClientAllocationBreakdownEntity::getClientAllocationStatus)
+                .containsOnly(approved ? ClientAllocationStatus.ACCEPTED : ClientAllocationStatus.NEW);
+
+        assertThat(amendLogRepository.findFirstByRefIdOrderByRevisionDesc(clientOrderId).orElseThrow().getAction())
+                .isEqualTo(approved ? AmendmentAction.APPROVED : AmendmentAction.REJECTED);
+
+        // One committed move out of pending approval, whoever won
+        Integer transitions = jdbcTemplate.queryForObject(
+                "select count(*) from trader_order_status_audit where client_order_id = ? and from_sub_status = ?",
+                Integer.class, clientOrderId, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION_APPROVAL.name());
+        assertThat(transitions).isEqualTo(1);
+    }
+
+    private void deleteContendedOrders() {
+        String like = ORDER_PREFIX + "%";
+        jdbcTemplate.update("delete from client_allocation_breakdown where client_order_id like ?", like);
+        jdbcTemplate.update("delete from client_allocation_amend_log where ref_id like ?", like);
+        jdbcTemplate.update("delete from trader_order_status_audit where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order where client_order_id like ?", like);
+    }
+
+    private List<ClientAllocationBreakdownRequest> buildRequests() {
+        List<ClientAllocationBreakdownRequest> requests = new ArrayList<>(ACCOUNT_COUNT);
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+            request.setCountryCode(i % 2 == 0 ? "HK" : "SG");
+            request.setAccountNumber("ACCOUNT-" + i);
+            request.setOrderQuantity(new BigDecimal("10"));
+            request.setFinalAllocation(new BigDecimal("10"));
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private static final class Outcome {
+        private final ConcurrentLinkedQueue<Boolean> winners = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<RuntimeException> conflicts = new ConcurrentLinkedQueue<>();
+    }
+}
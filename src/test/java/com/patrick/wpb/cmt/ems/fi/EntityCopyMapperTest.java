@@ -0,0 +1,103 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.entity.OrderExecutionDetailEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.util.EntityCopyMapper;
+import com.patrick.wpb.cmt.ems.fi.util.TraderOrderCloneUtil;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class EntityCopyMapperTest {
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void cloneOfManagedOrder_copiesColumnsWithoutTouchingAssociations() {
+        TraderOrderEntity order = TraderOrderEntity.builder()
+                .clientOrderId("CLONE-SOURCE")
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.REGIONAL_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(new BigDecimal("1000"))
+                .cleanPrice(new BigDecimal("99.875"))
+                .build();
+        order.getSubOrders().add(TraderSubOrderEntity.builder()
+                .order(order)
+                .countryCode("HK")
+                .accountId("ACCOUNT-1")
+                .issueIPOFlag(true)
+                .build());
+        traderOrderRepository.save(order);
+        entityManager.flush();
+        entityManager.clear();
+
+        TraderOrderEntity source = traderOrderRepository.findById("CLONE-SOURCE").orElseThrow();
+        TraderOrderEntity clone = TraderOrderCloneUtil.clone(source, "CLONE-TARGET", "SG", new BigDecimal("400"));
+
+        assertThat(Hibernate.isInitialized(source.getSubOrders())).isFalse();
+        assertThat(Hibernate.isInitialized(source.getClientAllocations())).isFalse();
+        assertThat(clone.getSubOrders()).isEmpty();
+        assertThat(clone.getSubOrders()).isNotSameAs(source.getSubOrders());
+        assertThat(clone.getClientAllocations()).isEmpty();
+        assertThat(clone.getRegionalAllocation()).isNull();
+
+        assertThat(clone.getClientOrderId()).isEqualTo("CLONE-TARGET");
+        assertThat(clone.getVersion()).isNull();
+        assertThat(clone.getOriginalClientOrderId()).isNull();
+        assertThat(clone.getCountryCode()).isEqualTo("SG");
+        assertThat(clone.getOrderQuantity()).isEqualByComparingTo("400");
+        assertThat(clone.getTradeDate()).isEqualTo(source.getTradeDate());
+        assertThat(clone.getStatus()).isEqualTo(source.getStatus());
+        assertThat(clone.getSubStatus()).isEqualTo(source.getSubStatus());
+        assertThat(clone.getSecurityId()).isEqualTo(source.getSecurityId());
+        assertThat(clone.getCleanPrice()).isEqualByComparingTo(source.getCleanPrice());
+
+        traderOrderRepository.save(clone);
+        entityManager.flush();
+        assertThat(traderOrderRepository.findById("CLONE-TARGET")).isPresent();
+    }
+
+    @Test
+    void executionDetailCopy_copiesEveryColumn() {
+        OrderExecutionDetailEntity source = OrderExecutionDetailEntity.builder()
+                .executionId("EXEC-1")
+                .clientOrderId("GROUP-1")
+                .bookingCenter("HK")
+                .placeMethod("ELECTRONIC")
+                .brokerCode("BRK")
+                .counterpartyCode("CPTY")
+                .side('B')
+                .securityId("BOND-123")
+                .currency("USD")
+                .executedSize(new BigDecimal("1000"))
+                .executedPrice(new BigDecimal("99.875"))
+                .build();
+
+        OrderExecutionDetailEntity copy = new OrderExecutionDetailEntity();
+        EntityCopyMapper.INSTANCE.copy(source, copy);
+
+        assertThat(copy).isEqualTo(source).isNotSameAs(source);
+    }
+}
@@ -0,0 +1,221 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.IPOExecutionJobDto;
+import com.patrick.wpb.cmt.ems.fi.entity.OrderExecutionDetailEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOExecutionJobStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.OrderExecutionDetailRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.request.IPOExecRequest;
+import com.patrick.wpb.cmt.ems.fi.request.RegionalCounterpartyExecutionRequest;
+import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionJobNotFoundException;
+import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionJobService;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IpoExecutionJobTest {
+
+    private static final String PREFIX = "ASYNC-";
+    private static final int CHILDREN_PER_COUNTRY = 20;
+
+    @Autowired
+    private IPOExecutionJobService ipoExecutionJobService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private OrderExecutionDetailRepository orderExecutionDetailRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void deleteAsyncOrders() {
+        String like = PREFIX + "%";
+        jdbcTemplate.update("delete from ipo_execution_job where idempotency_key like ?", like);
+        jdbcTemplate.update("delete from order_execution_detail where security_id like ?", like);
+        jdbcTemplate.update("delete from trader_order where security_id like ?", like);
+    }
+
+    @Test
+    void resubmittedKey_returnsSameJobWithoutSplittingAgain() throws Exception {
+        String groupOrderId = seedGroupOrder("RESUBMIT", true);
+
+        IPOExecutionJobDto accepted = ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-1", request());
+        IPOExecutionJobDto done = awaitCompletion(groupOrderId, accepted.getJobId());
+
+        assertThat(done.getStatus()).isEqualTo(IPOExecutionJobStatus.SUCCEEDED);
+        assertThat(done.getAttempts()).isEqualTo(1);
+        assertThat(done.getGroupOrderIds()).hasSize(2);
+        for (String newGroupOrderId : done.getGroupOrderIds()) {
+            assertThat(traderOrderRepository.findByOriginalClientOrderId(newGroupOrderId)).hasSize(CHILDREN_PER_COUNTRY);
+        }
+
+        IPOExecutionJobDto replayed = ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-1", request());
+        assertThat(replayed.getJobId()).isEqualTo(accepted.getJobId());
+        assertThat(replayed.getStatus()).isEqualTo(IPOExecutionJobStatus.SUCCEEDED);
+        assertThat(replayed.getGroupOrderIds()).isEqualTo(done.getGroupOrderIds());
+        assertThat(countOrders("RESUBMIT")).isEqualTo(1 + 2 * CHILDREN_PER_COUNTRY + 2);
+    }
+
+    @Test
+    void concurrentSubmissionsOfOneKey_shareOneJob() throws Exception {
+        String groupOrderId = seedGroupOrder("RACE", true);
+        CountDownLatch startGate = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<IPOExecutionJobDto>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                calls.add(callers.submit(() -> {
+                    startGate.await();
+                    return ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-RACE", request());
+                }));
+            }
+            startGate.countDown();
+            Set<String> jobIds = new HashSet<>();
+            for (Future<IPOExecutionJobDto> call : calls) {
+                jobIds.add(call.get(30, TimeUnit.SECONDS).getJobId());
+            }
+            assertThat(jobIds).hasSize(1);
+
+            IPOExecutionJobDto done = awaitCompletion(groupOrderId, jobIds.iterator().next());
+            assertThat(done.getStatus()).isEqualTo(IPOExecutionJobStatus.SUCCEEDED);
+            assertThat(done.getAttempts()).isEqualTo(1);
+            assertThat(countOrders("RACE")).isEqualTo(1 + 2 * CHILDREN_PER_COUNTRY + 2);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyReusedForDifferentRequest_isRejected() throws Exception {
+        String groupOrderId = seedGroupOrder("REUSE", true);
+        IPOExecutionJobDto accepted = ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-REUSE", request());
+        awaitCompletion(groupOrderId, accepted.getJobId());
+
+        IPOExecRequest different = request();
+        different.setBookingCenter("EMEA");
+        assertThatThrownBy(() -> ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-REUSE", different))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("different IPO execution request");
+
+        // A job is only visible under the order it was submitted for
+        assertThatThrownBy(() -> ipoExecutionJobService.getJob(PREFIX + "OTHER", accepted.getJobId()))
+                .isInstanceOf(IPOExecutionJobNotFoundException.class);
+    }
+
+    @Test
+    void failedJob_runsAgainWhenResubmitted() throws Exception {
+        String groupOrderId = seedGroupOrder("RETRY", false);
+
+        IPOExecutionJobDto accepted = ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-RETRY", request());
+        IPOExecutionJobDto failed = awaitCompletion(groupOrderId, accepted.getJobId());
+        assertThat(failed.getStatus()).isEqualTo(IPOExecutionJobStatus.FAILED);
+        assertThat(failed.getErrorMessage()).contains("No child orders found");
+        assertThat(failed.getGroupOrderIds()).isEmpty();
+
+        seedChildren(groupOrderId, "RETRY");
+        IPOExecutionJobDto requeued = ipoExecutionJobService.submit(groupOrderId, PREFIX + "KEY-RETRY", request());
+        assertThat(requeued.getJobId()).isEqualTo(accepted.getJobId());
+
+        IPOExecutionJobDto done = awaitCompletion(groupOrderId, accepted.getJobId());
+        assertThat(done.getStatus()).isEqualTo(IPOExecutionJobStatus.SUCCEEDED);
+        assertThat(done.getAttempts()).isEqualTo(2);
+        assertThat(done.getErrorMessage()).isNull();
+        assertThat(done.getGroupOrderIds()).hasSize(2);
+    }
+
+    private IPOExecutionJobDto awaitCompletion(String clientOrderId, String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (true) {
+            IPOExecutionJobDto job = ipoExecutionJobService.getJob(clientOrderId, jobId);
+            if (job.getStatus() == IPOExecutionJobStatus.SUCCEEDED || job.getStatus() == IPOExecutionJobStatus.FAILED) {
+                return job;
+            }
+            assertThat(System.nanoTime()).as("job %s still %s", jobId, job.getStatus()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private long countOrders(String name) {
+        return jdbcTemplate.queryForObject("select count(*) from trader_order where security_id = ?",
+                Long.class, PREFIX + name);
+    }
+
+    private String seedGroupOrder(String name, boolean withChildren) {
+        String groupOrderId = PREFIX + name;
+        traderOrderRepository.save(order(groupOrderId, "HK", null, name, BigDecimal.valueOf(CHILDREN_PER_COUNTRY * 20L)));
+        orderExecutionDetailRepository.save(OrderExecutionDetailEntity.builder()
+                .executionId(groupOrderId + "-EXEC")
+                .clientOrderId(groupOrderId)
+                .bookingCenter("HK")
+                .placeMethod("ELECTRONIC")
+                .side('B')
+                .securityId(PREFIX + name)
+                .currency("USD")
+                .executedSize(BigDecimal.valueOf(CHILDREN_PER_COUNTRY * 20L))
+                .build());
+        if (withChildren) {
+            seedChildren(groupOrderId, name);
+        }
+        return groupOrderId;
+    }
+
+    private void seedChildren(String groupOrderId, String name) {
+        List<TraderOrderEntity> children = new ArrayList<>();
+        for (String country : List.of("HK", "SG")) {
+            for (int i = 0; i < CHILDREN_PER_COUNTRY; i++) {
+                children.add(order(groupOrderId + "-" + country + "-" + i, country, groupOrderId, name, BigDecimal.TEN));
+            }
+        }
+        traderOrderRepository.saveAll(children);
+    }
+
+    private static TraderOrderEntity order(String clientOrderId, String countryCode, String groupOrderId,
+                                           String name, BigDecimal quantity) {
+        return TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode(countryCode)
+                .status(IPOOrderStatus.REGIONAL_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION)
+                .originalClientOrderId(groupOrderId)
+                .securityId(PREFIX + name)
+                .orderQuantity(quantity)
+                .build();
+    }
+
+    private static IPOExecRequest request() {
+        return IPOExecRequest.builder()
+                .bookingCenter("APAC")
+                .regionalCounterpartyExecutionRequestList(List.of(
+                        RegionalCounterpartyExecutionRequest.builder().countryCode("HK").counterpartyId("CPTY-HK").build(),
+                        RegionalCounterpartyExecutionRequest.builder().countryCode("SG").counterpartyId("CPTY-SG").build()))
+                .build();
+    }
+}
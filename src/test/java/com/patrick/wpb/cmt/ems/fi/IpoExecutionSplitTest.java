@@ -0,0 +1,170 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.entity.OrderExecutionDetailEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.OrderExecutionDetailRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.request.IPOExecRequest;
+import com.patrick.wpb.cmt.ems.fi.request.RegionalCounterpartyExecutionRequest;
+import com.patrick.wpb.cmt.ems.fi.service.IPOExecutionService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class IpoExecutionSplitTest {
+
+    @Autowired
+    private IPOExecutionService ipoExecutionService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private OrderExecutionDetailRepository orderExecutionDetailRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @ParameterizedTest
+    @ValueSource(ints = {60, 600, 1500})
+    void split_repointsChildrenWithStatementsPerRegionNotPerChild(int childrenPerCountry) {
+        String groupOrderId = "SPLIT-GROUP-" + childrenPerCountry;
+        seedGroupOrder(groupOrderId, childrenPerCountry, List.of("HK", "SG", "GB"));
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        List<TraderOrderEntity> newGroupOrders = ipoExecutionService.executeIPOOrder(groupOrderId, request(
+                regional("HK", "CPTY-HK"), regional("SG", "CPTY-SG"), regional("US", "CPTY-US")));
+        entityManager.flush();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        long statements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+
+        log.info("children={} split into {} regions: {} statement(s) {}ms",
+                childrenPerCountry * 3, newGroupOrders.size(), statements, elapsedMillis);
+        // Group order (plus its non-owning one-to-one), execution detail and children reads, two batched inserts,
+        // the group order update and one re-point per region and thousand children
+        int repointsPerRegion = (childrenPerCountry + 999) / 1000;
+        assertThat(statements).isLessThanOrEqualTo(7 + 2L * repointsPerRegion);
+
+        assertThat(newGroupOrders).extracting(TraderOrderEntity::getCountryCode).containsExactly("HK", "SG");
+        BigDecimal regionalQuantity = BigDecimal.valueOf(childrenPerCountry * 10L);
+        for (TraderOrderEntity newGroupOrder : newGroupOrders) {
+            TraderOrderEntity reloaded = traderOrderRepository.findById(newGroupOrder.getClientOrderId()).orElseThrow();
+            assertThat(reloaded.getOrderQuantity()).isEqualByComparingTo(regionalQuantity);
+            assertThat(reloaded.getOriginalClientOrderId()).isNull();
+            assertThat(traderOrderRepository.findByOriginalClientOrderId(reloaded.getClientOrderId()))
+                    .hasSize(childrenPerCountry)
+                    .allSatisfy(child -> assertThat(child.getCountryCode()).isEqualTo(reloaded.getCountryCode()));
+
+            OrderExecutionDetailEntity execution = orderExecutionDetailRepository
+                    .findByClientOrderId(reloaded.getClientOrderId()).orElseThrow();
+            assertThat(execution.getExecutedSize()).isEqualByComparingTo(regionalQuantity);
+            assertThat(execution.getCounterpartyCode()).isEqualTo("CPTY-" + reloaded.getCountryCode());
+            assertThat(execution.getBookingCenter()).isEqualTo("APAC");
+            assertThat(execution.getPlaceMethod()).isEqualTo("ELECTRONIC");
+        }
+
+        // Unrequested region stays on the original group order, which keeps only its quantity
+        assertThat(traderOrderRepository.findByOriginalClientOrderId(groupOrderId))
+                .hasSize(childrenPerCountry)
+                .allSatisfy(child -> assertThat(child.getCountryCode()).isEqualTo("GB"));
+        assertThat(traderOrderRepository.findById(groupOrderId).orElseThrow().getOrderQuantity())
+                .isEqualByComparingTo(regionalQuantity);
+    }
+
+    @Test
+    void repeatedCountry_takesChildrenOnce() {
+        String groupOrderId = "SPLIT-REPEAT";
+        seedGroupOrder(groupOrderId, 5, List.of("HK", "SG"));
+
+        List<TraderOrderEntity> newGroupOrders = ipoExecutionService.executeIPOOrder(groupOrderId, request(
+                regional("HK", "CPTY-1"), regional("HK", "CPTY-2")));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(newGroupOrders).hasSize(1);
+        Map<String, Long> childrenByCountry = traderOrderRepository.findByOriginalClientOrderId(groupOrderId).stream()
+                .collect(Collectors.groupingBy(TraderOrderEntity::getCountryCode, Collectors.counting()));
+        assertThat(childrenByCountry).containsOnly(Map.entry("SG", 5L));
+        assertThat(traderOrderRepository.findById(groupOrderId).orElseThrow().getOrderQuantity())
+                .isEqualByComparingTo("50");
+    }
+
+    private void seedGroupOrder(String groupOrderId, int childrenPerCountry, List<String> countries) {
+        List<TraderOrderEntity> orders = new ArrayList<>();
+        orders.add(order(groupOrderId, "HK", null, BigDecimal.valueOf(childrenPerCountry * 10L * countries.size())));
+        for (String country : countries) {
+            for (int i = 0; i < childrenPerCountry; i++) {
+                orders.add(order(groupOrderId + "-" + country + "-" + i, country, groupOrderId, BigDecimal.TEN));
+            }
+        }
+        traderOrderRepository.saveAll(orders);
+        orderExecutionDetailRepository.save(OrderExecutionDetailEntity.builder()
+                .executionId(groupOrderId + "-EXEC")
+                .clientOrderId(groupOrderId)
+                .bookingCenter("HK")
+                .placeMethod("ELECTRONIC")
+                .counterpartyCode("CPTY")
+                .side('B')
+                .securityId("BOND-123")
+                .currency("USD")
+                .executedSize(BigDecimal.valueOf(childrenPerCountry * 10L * countries.size()))
+                .executedPrice(new BigDecimal("99.875"))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static TraderOrderEntity order(String clientOrderId, String countryCode, String groupOrderId, BigDecimal quantity) {
+        return TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode(countryCode)
+                .status(IPOOrderStatus.REGIONAL_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION)
+                .originalClientOrderId(groupOrderId)
+                .securityId("BOND-123")
+                .orderQuantity(quantity)
+                .build();
+    }
+
+    private static IPOExecRequest request(RegionalCounterpartyExecutionRequest... regions) {
+        return IPOExecRequest.builder()
+                .bookingCenter("APAC")
+                .regionalCounterpartyExecutionRequestList(List.of(regions))
+                .build();
+    }
+
+    private static RegionalCounterpartyExecutionRequest regional(String countryCode, String counterpartyId) {
+        return RegionalCounterpartyExecutionRequest.builder()
+                .countryCode(countryCode)
+                .counterpartyId(counterpartyId)
+                .build();
+    }
+}
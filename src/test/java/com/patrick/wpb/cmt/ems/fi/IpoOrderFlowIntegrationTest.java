@@ -194,6 +194,7 @@ class IpoOrderFlowIntegrationTest {
         assertThat(approvedBreakdowns)
                 .hasSize(2)
                 .extracting(ClientAllocationBreakdownEntity::getFinalAllocation)
+                .usingElementComparator(BigDecimal::compareTo)
                 .containsExactlyInAnyOrder(new BigDecimal("120"), new BigDecimal("80"));
         assertThat(approvedBreakdowns).extracting(ClientAllocationBreakdownEntity::getClientAllocationStatus)
                 .containsOnly(ClientAllocationStatus.ACCEPTED);
@@ -202,11 +203,8 @@ class IpoOrderFlowIntegrationTest {
     @Test
     @Transactional
     void rejectRegionalAllocation_revertsStatusAndBreakdowns() {
-        TraderOrderEntity order1 = buildOrder("ORDER-1", "HK");
-        traderOrderRepository.save(order1);
-
         TraderOrderEntity groupedOrder = traderOrderService.groupOrders(
-                List.of("ORDER-1"), "test-user");
+                List.of("ORDER-1", "ORDER-2"), "test-user");
 
         traderOrderService.proceedToRegionalAllocation(
                 groupedOrder.getClientOrderId(), "test-user", "Proceed to regional");
@@ -214,23 +212,25 @@ class IpoOrderFlowIntegrationTest {
         regionalAllocationService.upsertAllocation(
                 groupedOrder.getClientOrderId(),
                 new BigDecimal("100"),
-                BigDecimal.ZERO,
+                new BigDecimal("100"),
                 new BigDecimal("1.50"),
                 "YIELD",
-                new BigDecimal("100")
+                new BigDecimal("200")
         );
 
         // Prepare breakdown data for submission
         List<RegionalAllocationBreakdownRequest> regionalBreakdowns = List.of(
-                buildRegionalAllocationRequest("HK", "ACCOUNT-HK", "100", "100")
+                buildRegionalAllocationRequest("HK", "ACCOUNT-HK", "100", "100"),
+                buildRegionalAllocationRequest("SG", "ACCOUNT-SG", "100", "100")
         );
         
         List<FinalPricedAllocationBreakdownRequest> pricedBreakdowns = List.of(
-                buildFinalPricedAllocationRequest("HK", "YIELD", new BigDecimal("99.5"))
+                buildFinalPricedAllocationRequest("HK", "YIELD", new BigDecimal("99.5")),
+                buildFinalPricedAllocationRequest("SG", "YIELD", new BigDecimal("99.5"))
         );
         
         List<FinalRegionalAllocationRequest> regionalAllocations = List.of(
-                buildFinalRegionalAllocationRequest("ASIA", new BigDecimal("100"))
+                buildFinalRegionalAllocationRequest("ASIA", new BigDecimal("200"))
         );
 
         regionalAllocationService.submitForApproval(
@@ -263,11 +263,8 @@ class IpoOrderFlowIntegrationTest {
     @Test
     @Transactional
     void rejectClientAllocation_revertsStatusAndBreakdowns() {
-        TraderOrderEntity order1 = buildOrder("ORDER-1", "HK");
-        traderOrderRepository.save(order1);
-
         TraderOrderEntity groupedOrder = traderOrderService.groupOrders(
-                List.of("ORDER-1"), "test-user");
+                List.of("ORDER-1", "ORDER-2"), "test-user");
 
         traderOrderService.proceedToRegionalAllocation(
                 groupedOrder.getClientOrderId(), "test-user", "Proceed to regional");
@@ -275,23 +272,25 @@ class IpoOrderFlowIntegrationTest {
         regionalAllocationService.upsertAllocation(
                 groupedOrder.getClientOrderId(),
                 new BigDecimal("100"),
-                BigDecimal.ZERO,
+                new BigDecimal("100"),
                 new BigDecimal("1.50"),
                 "YIELD",
-                new BigDecimal("100")
+                new BigDecimal("200")
         );
 
         // Prepare breakdown data for regional allocation submission
         List<RegionalAllocationBreakdownRequest> regionalBreakdowns = List.of(
-                buildRegionalAllocationRequest("HK", "ACCOUNT-HK", "100", "100")
+                buildRegionalAllocationRequest("HK", "ACCOUNT-HK", "100", "100"),
+                buildRegionalAllocationRequest("SG", "ACCOUNT-SG", "100", "100")
         );
         
         List<FinalPricedAllocationBreakdownRequest> pricedBreakdowns = List.of(
-                buildFinalPricedAllocationRequest("HK", "YIELD", new BigDecimal("99.5"))
+                buildFinalPricedAllocationRequest("HK", "YIELD", new BigDecimal("99.5")),
+                buildFinalPricedAllocationRequest("SG", "YIELD", new BigDecimal("99.5"))
         );
         
         List<FinalRegionalAllocationRequest> regionalAllocations = List.of(
-                buildFinalRegionalAllocationRequest("ASIA", new BigDecimal("100"))
+                buildFinalRegionalAllocationRequest("ASIA", new BigDecimal("200"))
         );
 
         regionalAllocationService.submitForApproval(
@@ -307,7 +306,8 @@ class IpoOrderFlowIntegrationTest {
 
         // Submit client allocation for approval
         List<ClientAllocationBreakdownRequest> clientBreakdowns = List.of(
-                buildClientAllocationRequest("HK", "ACCOUNT-HK", "100", "100")
+                buildClientAllocationRequest("HK", "ACCOUNT-HK", "100", "100"),
+                buildClientAllocationRequest("SG", "ACCOUNT-SG", "100", "100")
         );
 
         clientAllocationService.submitForApproval(
@@ -354,6 +354,15 @@ class IpoOrderFlowIntegrationTest {
         
         traderOrderService.proceedToRegionalAllocation(
                 groupedOrder.getClientOrderId(), "user123", "Proceed to regional allocation");
+
+        regionalAllocationService.upsertAllocation(
+                groupedOrder.getClientOrderId(),
+                new BigDecimal("120"),
+                new BigDecimal("80"),
+                new BigDecimal("1.50"),
+                "YIELD",
+                new BigDecimal("200")
+        );
         
         // Create some regional allocation breakdowns
         List<RegionalAllocationBreakdownRequest> regionalBreakdowns = List.of(
@@ -402,6 +411,15 @@ class IpoOrderFlowIntegrationTest {
         // Proceed through regional allocation
         traderOrderService.proceedToRegionalAllocation(
                 groupedOrder.getClientOrderId(), "user123", "Proceed to regional allocation");
+
+        regionalAllocationService.upsertAllocation(
+                groupedOrder.getClientOrderId(),
+                new BigDecimal("120"),
+                new BigDecimal("80"),
+                new BigDecimal("1.50"),
+                "YIELD",
+                new BigDecimal("200")
+        );
         
         List<RegionalAllocationBreakdownRequest> regionalBreakdowns = List.of(
                 buildRegionalAllocationRequest("HK", "ACCOUNT-HK", "120", "120")
@@ -416,7 +434,8 @@ class IpoOrderFlowIntegrationTest {
         
         // Create client allocation breakdowns
         List<ClientAllocationBreakdownRequest> clientBreakdowns = List.of(
-                buildClientAllocationRequest("HK", "ACCOUNT-HK", "110", "110")
+                buildClientAllocationRequest("HK", "ACCOUNT-HK", "120", "120"),
+                buildClientAllocationRequest("SG", "ACCOUNT-SG", "80", "80")
         );
         
         clientAllocationService.submitForApproval(
@@ -425,8 +444,9 @@ class IpoOrderFlowIntegrationTest {
         // Verify client allocation breakdowns exist
         List<ClientAllocationBreakdownEntity> clientBreakdownsBeforeUngroup = clientAllocationBreakdownRepository
                 .findByOrderClientOrderId(groupedOrder.getClientOrderId());
-        assertThat(clientBreakdownsBeforeUngroup).hasSize(1);
-        assertThat(clientBreakdownsBeforeUngroup.get(0).getClientAllocationStatus()).isEqualTo(ClientAllocationStatus.NEW);
+        assertThat(clientBreakdownsBeforeUngroup).hasSize(2);
+        assertThat(clientBreakdownsBeforeUngroup).extracting(ClientAllocationBreakdownEntity::getClientAllocationStatus)
+                .containsOnly(ClientAllocationStatus.NEW);
         
         // Ungroup the order
         TraderOrderEntity ungroupedOrder = traderOrderService.ungroupOrder(
@@ -439,8 +459,9 @@ class IpoOrderFlowIntegrationTest {
         // Verify client allocation breakdowns are marked as INACTIVE
         List<ClientAllocationBreakdownEntity> clientBreakdownsAfterUngroup = clientAllocationBreakdownRepository
                 .findByOrderClientOrderId(groupedOrder.getClientOrderId());
-        assertThat(clientBreakdownsAfterUngroup).hasSize(1);
-        assertThat(clientBreakdownsAfterUngroup.get(0).getClientAllocationStatus()).isEqualTo(ClientAllocationStatus.INACTIVE);
+        assertThat(clientBreakdownsAfterUngroup).hasSize(2);
+        assertThat(clientBreakdownsAfterUngroup).extracting(ClientAllocationBreakdownEntity::getClientAllocationStatus)
+                .containsOnly(ClientAllocationStatus.INACTIVE);
     }
 
     @Test
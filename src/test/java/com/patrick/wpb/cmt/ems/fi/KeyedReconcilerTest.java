@@ -0,0 +1,53 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.service.AccountKey;
+import com.patrick.wpb.cmt.ems.fi.service.KeyedReconciler;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class KeyedReconcilerTest {
+
+    private record Row(String countryCode, String accountNumber, int value) {
+    }
+
+    @Test
+    void matchesRequestRowsInRequestOrder_andListsUnmatchedStoredRowsAsDeletes() {
+        Row keptHk = new Row("HK", "A1", 1);
+        Row droppedHk = new Row("HK", "A2", 2);
+        Row keptSg = new Row("SG", "A1", 3);
+        // Same account in another country is a different row
+        List<Row> existing = List.of(keptHk, droppedHk, keptSg);
+        List<Row> requests = List.of(
+                new Row("SG", "A1", 30),
+                new Row("SG", "A9", 90),
+                new Row("HK", "A1", 10));
+
+        KeyedReconciler.Changes<Row, Row> changes = KeyedReconciler.reconcile(
+                existing, row -> new AccountKey(row.countryCode(), row.accountNumber()),
+                requests, row -> new AccountKey(row.countryCode(), row.accountNumber()));
+
+        assertThat(changes.matches()).extracting(KeyedReconciler.Match::request).containsExactlyElementsOf(requests);
+        assertThat(changes.matches()).extracting(KeyedReconciler.Match::existing).containsExactly(keptSg, null, keptHk);
+        assertThat(changes.matches()).extracting(KeyedReconciler.Match::isInsert).containsExactly(false, true, false);
+        assertThat(changes.deletes()).containsExactly(droppedHk);
+    }
+
+    @Test
+    void duplicateStoredRowsAreDeleted_duplicateRequestRowsAreRejected() {
+        Row first = new Row("HK", "A1", 1);
+        Row second = new Row("HK", "A1", 2);
+
+        KeyedReconciler.Changes<Row, Row> changes = KeyedReconciler.reconcile(
+                List.of(first, second), Row::accountNumber, List.of(new Row("HK", "A1", 5)), Row::accountNumber);
+        assertThat(changes.matches()).extracting(KeyedReconciler.Match::existing).containsExactly(first);
+        assertThat(changes.deletes()).containsExactly(second);
+
+        assertThatThrownBy(() -> KeyedReconciler.reconcile(List.<Row>of(), Row::accountNumber,
+                List.of(new Row("HK", "A1", 1), new Row("HK", "A1", 2)), Row::accountNumber))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("A1");
+    }
+}
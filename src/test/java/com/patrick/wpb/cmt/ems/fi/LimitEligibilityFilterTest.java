@@ -0,0 +1,104 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.ClientAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.FinalPricedAllocationBreakdownEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.LimitBreach;
+import com.patrick.wpb.cmt.ems.fi.service.LimitEligibilityFilter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class LimitEligibilityFilterTest {
+
+    private static final List<FinalPricedAllocationBreakdownEntity> PRICES = List.of(
+            price("HK", LimitEligibilityFilter.YIELD, "4.250000"),
+            price("SG", LimitEligibilityFilter.SPREAD, "1.100000"));
+
+    @Test
+    void limitsAreCheckedAgainstTheirCountrysPriceType() {
+        List<ClientAllocationBreakdownRequest> breakdowns = List.of(
+                // HK prices on yield: 4.25 meets a 4.25 limit, misses 4.30; spread limits do not apply
+                breakdown("HK", "A1", "4.2500", null, "100", null),
+                breakdown("HK", "A2", "4.3000", "9.0000", "100", null),
+                // SG prices on spread
+                breakdown("SG", "B1", "9.0000", "1.2000", "100", null),
+                breakdown("SG", "B2", null, "1.0000", "100", "50"),
+                // No final price for GB
+                breakdown("GB", "C1", "4.0000", null, "100", null),
+                breakdown("GB", "C2", null, null, "100", "100"));
+
+        LimitEligibilityFilter.Result result = LimitEligibilityFilter.evaluate(breakdowns, PRICES);
+
+        assertThat(Arrays.stream(result.breaches()).mapToObj(LimitBreach::of)).containsExactly(
+                List.of(),
+                List.of(LimitBreach.YIELD),
+                List.of(LimitBreach.SPREAD),
+                List.of(LimitBreach.SIZE),
+                List.of(LimitBreach.UNPRICED),
+                List.of());
+        assertThat(result.eligibleAccounts()).isEqualTo(3);
+        assertThat(result.yieldBreaches()).isEqualTo(1);
+        assertThat(result.spreadBreaches()).isEqualTo(1);
+        assertThat(result.sizeBreaches()).isEqualTo(1);
+        assertThat(result.unpricedAccounts()).isEqualTo(1);
+        assertThat(result.isEligible(4)).isTrue();
+    }
+
+    @Test
+    void fullBookIsCheckedAndRepricedWithinASecond() {
+        int accountCount = 50_000;
+        List<ClientAllocationBreakdownRequest> breakdowns = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            breakdowns.add(breakdown(i % 2 == 0 ? "HK" : "SG", "ACCOUNT-" + i,
+                    i % 3 == 0 ? "4.3000" : null, i % 5 == 0 ? "1.0000" : null,
+                    "1000", i % 7 == 0 ? "500" : null));
+        }
+
+        long start = System.nanoTime();
+        LimitEligibilityFilter.Result result = LimitEligibilityFilter.evaluate(breakdowns, PRICES);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(millis).isLessThan(1_000);
+        int expectedEligible = 0;
+        for (int i = 0; i < accountCount; i++) {
+            boolean yieldBreach = i % 2 == 0 && i % 3 == 0;
+            boolean sizeBreach = i % 7 == 0;
+            expectedEligible += yieldBreach || sizeBreach ? 0 : 1;
+        }
+        assertThat(result.eligibleAccounts()).isEqualTo(expectedEligible);
+        assertThat(result.spreadBreaches()).isZero();
+
+        // Repriced wider: HK now yields enough for every limit
+        LimitEligibilityFilter.Result repriced = LimitEligibilityFilter.evaluate(breakdowns, List.of(
+                price("HK", LimitEligibilityFilter.YIELD, "4.400000"),
+                price("SG", LimitEligibilityFilter.SPREAD, "1.100000")));
+        assertThat(repriced.yieldBreaches()).isZero();
+        assertThat(repriced.eligibleAccounts()).isEqualTo(accountCount - repriced.sizeBreaches());
+    }
+
+    private static FinalPricedAllocationBreakdownEntity price(String country, String limitType, String finalPrice) {
+        return FinalPricedAllocationBreakdownEntity.builder()
+                .countryCode(country)
+                .limitType(limitType)
+                .finalPrice(new BigDecimal(finalPrice))
+                .build();
+    }
+
+    private static ClientAllocationBreakdownRequest breakdown(String country, String account, String yieldLimit,
+                                                              String spreadLimit, String finalAllocation,
+                                                              String sizeLimit) {
+        ClientAllocationBreakdownRequest request = new ClientAllocationBreakdownRequest();
+        request.setCountryCode(country);
+        request.setAccountNumber(account);
+        request.setOrderQuantity(new BigDecimal(finalAllocation));
+        request.setFinalAllocation(new BigDecimal(finalAllocation));
+        request.setYieldLimit(yieldLimit == null ? null : new BigDecimal(yieldLimit));
+        request.setSpreadLimit(spreadLimit == null ? null : new BigDecimal(spreadLimit));
+        request.setSizeLimit(sizeLimit == null ? null : new BigDecimal(sizeLimit));
+        return request;
+    }
+}
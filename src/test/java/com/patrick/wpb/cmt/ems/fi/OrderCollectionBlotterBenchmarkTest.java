@@ -0,0 +1,122 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderSubOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.TraderOrderService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Measures the order collection blotter as the number of NEW orders grows.
+ * The set-based query must stay at a single statement regardless of order count,
+ * whereas the legacy per-order COUNT path grows linearly (one COUNT per order, plus the
+ * select Hibernate issues for the inverse-side regional allocation of every hydrated order).
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderCollectionBlotterBenchmarkTest {
+
+    private static final int[] ORDER_COUNTS = {100, 1_000, 5_000};
+
+    // The legacy path issues two statements per order, so it is only sampled at the smallest size
+    private static final int LEGACY_SAMPLE_LIMIT = 100;
+
+    @Autowired
+    private TraderOrderService traderOrderService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private TraderSubOrderRepository traderSubOrderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @Transactional
+    void blotterStatementCount_staysFlatAsOrderCountGrows() {
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        int seeded = 0;
+        for (int orderCount : ORDER_COUNTS) {
+            seedOrders(seeded, orderCount);
+            seeded = orderCount;
+            entityManager.flush();
+            entityManager.clear();
+
+            statistics.clear();
+            long start = System.nanoTime();
+            List<TraderOrderSummaryDto> blotter = traderOrderService.fetchOrderCollectionBlotterSummaries();
+            long setBasedMicros = (System.nanoTime() - start) / 1_000;
+            long setBasedStatements = statistics.getPrepareStatementCount();
+
+            log.info("orders={} set-based: {} statement(s) {}us", orderCount, setBasedStatements, setBasedMicros);
+
+            // Every other order carries an IPO-flagged sub order
+            assertThat(blotter).hasSize(orderCount / 2);
+            assertThat(setBasedStatements).isEqualTo(1);
+
+            if (orderCount <= LEGACY_SAMPLE_LIMIT) {
+                statistics.clear();
+                start = System.nanoTime();
+                long legacyCount = traderOrderRepository.findByStatusAndSubStatus(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE)
+                        .stream()
+                        .filter(order -> traderSubOrderRepository.countByOrderClientOrderIdAndIssueIPOFlagTrue(order.getClientOrderId()) > 0)
+                        .count();
+                long legacyMicros = (System.nanoTime() - start) / 1_000;
+                long legacyStatements = statistics.getPrepareStatementCount();
+                entityManager.clear();
+
+                log.info("orders={} legacy per-order count: {} statement(s) {}us", orderCount, legacyStatements, legacyMicros);
+                assertThat(legacyCount).isEqualTo(orderCount / 2);
+                assertThat(legacyStatements).isGreaterThan(orderCount);
+            }
+        }
+    }
+
+    private void seedOrders(int fromInclusive, int toExclusive) {
+        List<TraderOrderEntity> orders = new ArrayList<>(toExclusive - fromInclusive);
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            TraderOrderEntity order = TraderOrderEntity.builder()
+                    .clientOrderId("BENCH-" + i)
+                    .tradeDate(LocalDate.of(2024, 12, 1))
+                    .countryCode(i % 2 == 0 ? "HK" : "SG")
+                    .status(IPOOrderStatus.NEW)
+                    .subStatus(IPOOrderSubStatus.NONE)
+                    .securityId("BOND-123")
+                    .orderQuantity(new BigDecimal("100"))
+                    .cleanPrice(new BigDecimal("99.5"))
+                    .build();
+            order.getSubOrders().add(TraderSubOrderEntity.builder()
+                    .countryCode(order.getCountryCode())
+                    .order(order)
+                    .accountId("ACCOUNT-" + i)
+                    .issueIPOFlag(i % 2 == 0)
+                    .build());
+            orders.add(order);
+        }
+        traderOrderRepository.saveAll(orders);
+    }
+}
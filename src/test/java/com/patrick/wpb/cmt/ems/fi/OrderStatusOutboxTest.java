@@ -0,0 +1,200 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.OrderStatusEvent;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.OrderStatusEventPublisher;
+import com.patrick.wpb.cmt.ems.fi.service.OrderStatusOutboxRelay;
+import com.patrick.wpb.cmt.ems.fi.service.StatusService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Status changes reach the outbox in their own transaction and the relay delivers them at least once, in change
+ * order per order, through an in-memory publisher that can be told to fail.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStatusOutboxTest {
+
+    private static final String PREFIX = "OUTBOX-";
+
+    @Autowired
+    private StatusService statusService;
+
+    @Autowired
+    private OrderStatusOutboxRelay relay;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private RecordingPublisher publisher;
+    private Object configuredPublisher;
+
+    @BeforeEach
+    void usePublisher() {
+        deleteOutboxOrders();
+        // Drain events left pending by other tests so each test starts with an empty outbox
+        configuredPublisher = ReflectionTestUtils.getField(relay, "publisher");
+        ReflectionTestUtils.setField(relay, "publisher", new RecordingPublisher());
+        relay.relayPending();
+        publisher = new RecordingPublisher();
+        ReflectionTestUtils.setField(relay, "publisher", publisher);
+    }
+
+    @AfterEach
+    void restorePublisher() {
+        ReflectionTestUtils.setField(relay, "publisher", configuredPublisher);
+        deleteOutboxOrders();
+    }
+
+    private void deleteOutboxOrders() {
+        String like = PREFIX + "%";
+        jdbcTemplate.update("delete from order_status_outbox where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order_status_audit where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order where client_order_id like ?", like);
+    }
+
+    @Test
+    void statusChanges_arePublishedOncePerChangeInOrderPerOrder() {
+        createOrder("OUTBOX-A");
+        createOrder("OUTBOX-B");
+        createOrder("OUTBOX-C");
+
+        statusService.updateStatus("OUTBOX-A", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, "desk", null);
+        statusService.updateStatus("OUTBOX-B", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, "desk", null);
+        statusService.updateStatus("OUTBOX-A", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, "desk", null);
+        // Same state: audited, but not a change downstream
+        statusService.updateStatus("OUTBOX-C", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, "desk", null);
+        // Rolled back: neither audited nor published
+        assertThatThrownBy(() -> statusService.updateStatus("OUTBOX-C", IPOOrderStatus.CLIENT_ALLOCATION,
+                IPOOrderSubStatus.DONE, "desk", null))
+                .isInstanceOf(IllegalStateException.class);
+        statusService.updateStatuses(List.of("OUTBOX-A", "OUTBOX-B", "OUTBOX-C"),
+                IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, "desk", null);
+
+        assertThat(relay.relayPending()).isEqualTo(6);
+
+        Map<String, List<String>> changesByOrder = publisher.events().stream()
+                .collect(Collectors.groupingBy(OrderStatusEvent::getClientOrderId,
+                        Collectors.mapping(event -> event.getToStatus() + "/" + event.getToSubStatus(), Collectors.toList())));
+        assertThat(changesByOrder.get("OUTBOX-A")).containsExactly(
+                "REGIONAL_ALLOCATION/PENDING_REGIONAL_ALLOCATION",
+                "REGIONAL_ALLOCATION/PENDING_REGIONAL_ALLOCATION_APPROVAL",
+                "CANCELLED/NONE");
+        assertThat(changesByOrder.get("OUTBOX-B")).containsExactly(
+                "REGIONAL_ALLOCATION/PENDING_REGIONAL_ALLOCATION",
+                "CANCELLED/NONE");
+        assertThat(changesByOrder.get("OUTBOX-C")).containsExactly("CANCELLED/NONE");
+        assertThat(publisher.events()).extracting(OrderStatusEvent::getEventId).isSorted();
+        assertThat(publisher.events().get(0).getFromStatus()).isEqualTo(IPOOrderStatus.NEW);
+
+        assertThat(pendingCount()).isZero();
+        assertThat(relay.relayPending()).isZero();
+        assertThat(publisher.events()).hasSize(6);
+    }
+
+    @Test
+    void failedBatch_isRedeliveredFromItsFirstEvent() {
+        createOrder("OUTBOX-RETRY");
+        statusService.updateStatus("OUTBOX-RETRY", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION, "desk", null);
+        statusService.updateStatus("OUTBOX-RETRY", IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL, "desk", null);
+        double failuresBefore = meterRegistry.counter("ems.outbox.publish.failures").count();
+
+        // The transport takes the batch and then fails, as if its acknowledgement was lost
+        publisher.failNext = true;
+        assertThat(relay.relayPending()).isZero();
+
+        assertThat(pendingCount()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("select attempts from order_status_outbox where client_order_id = ?",
+                Integer.class, "OUTBOX-RETRY")).containsOnly(1);
+        assertThat(meterRegistry.counter("ems.outbox.publish.failures").count()).isEqualTo(failuresBefore + 1);
+        assertThat(meterRegistry.get("ems.outbox.pending").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("ems.outbox.lag").gauge().value()).isGreaterThanOrEqualTo(0);
+
+        assertThat(relay.relayPending()).isEqualTo(2);
+
+        // At-least-once: the failed batch is sent again in full and in order
+        assertThat(publisher.events()).extracting(OrderStatusEvent::getToSubStatus).containsExactly(
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL);
+        assertThat(pendingCount()).isZero();
+        assertThat(meterRegistry.get("ems.outbox.pending").gauge().value()).isZero();
+        assertThat(meterRegistry.get("ems.outbox.lag").gauge().value()).isZero();
+    }
+
+    private long pendingCount() {
+        return jdbcTemplate.queryForObject(
+                "select count(*) from order_status_outbox where client_order_id like ? and published_at is null",
+                Long.class, PREFIX + "%");
+    }
+
+    private void createOrder(String clientOrderId) {
+        traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.now())
+                .countryCode("HK")
+                .status(IPOOrderStatus.NEW)
+                .subStatus(IPOOrderSubStatus.NONE)
+                .securityId("SEC-123")
+                .orderQuantity(BigDecimal.valueOf(1000))
+                .build());
+    }
+
+    private static class RecordingPublisher implements OrderStatusEventPublisher {
+
+        private final List<OrderStatusEvent> received = new ArrayList<>();
+        private boolean failNext;
+
+        @Override
+        public String name() {
+            return "RECORDING";
+        }
+
+        @Override
+        public void publish(List<OrderStatusEvent> events) {
+            received.addAll(events);
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("Broker did not acknowledge");
+            }
+        }
+
+        List<OrderStatusEvent> events() {
+            return received.stream()
+                    .filter(event -> event.getClientOrderId().startsWith(PREFIX))
+                    .toList();
+        }
+    }
+}
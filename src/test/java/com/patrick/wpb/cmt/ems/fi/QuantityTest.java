@@ -0,0 +1,44 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import com.patrick.wpb.cmt.ems.fi.util.QuantityConverter;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class QuantityTest {
+
+    @Test
+    void arithmeticIsExactAtFourDecimals_andOverflowAndOutOfRangeValuesThrow() {
+        Quantity a = Quantity.of(new BigDecimal("1234.5678"));
+        Quantity b = Quantity.of(new BigDecimal("0.0001"));
+
+        assertThat(a.units()).isEqualTo(12_345_678L);
+        assertThat(a.plus(b).toBigDecimal()).isEqualByComparingTo("1234.5679");
+        assertThat(b.minus(a).toString()).isEqualTo("-1234.5677");
+        assertThat(Quantity.of(new BigDecimal("1E+3"))).isEqualTo(Quantity.of(new BigDecimal("1000.0000")));
+        // Extra digits round half up, like numeric(p,4)
+        assertThat(Quantity.unitsOf(new BigDecimal("0.00005"))).isEqualTo(1);
+        assertThat(Quantity.unitsOrZero(null)).isZero();
+
+        assertThatThrownBy(() -> Quantity.ofUnits(Long.MAX_VALUE).plus(b)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Quantity.of(new BigDecimal("1E+15"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void convertsToColumnsAndJsonAsPlainDecimals() throws Exception {
+        QuantityConverter converter = new QuantityConverter();
+        Quantity quantity = Quantity.of(new BigDecimal("250000.5"));
+        assertThat(converter.convertToDatabaseColumn(quantity)).isEqualTo(new BigDecimal("250000.5000"));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("250000.5000"))).isEqualTo(quantity);
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        assertThat(objectMapper.writeValueAsString(quantity)).isEqualTo("250000.5000");
+        assertThat(objectMapper.readValue("250000.5", Quantity.class)).isEqualTo(quantity);
+        assertThat(objectMapper.readValue("\"250000.50\"", Quantity.class)).isEqualTo(quantity);
+    }
+}
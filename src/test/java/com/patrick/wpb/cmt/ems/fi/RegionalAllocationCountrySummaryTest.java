@@ -0,0 +1,221 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.FinalPricedAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.FinalRegionalAllocationRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationCountrySummaryEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationCountrySummaryRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.RegionalAllocationRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.RegionalAllocationService;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The per-country summary follows every insert, update and delete of the regional breakdowns: after each
+ * submission it must match the totals recomputed from the breakdown rows, touching one summary row per country.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class RegionalAllocationCountrySummaryTest {
+
+    private static final String CLIENT_ORDER_ID = "SUMMARY-ORDER";
+    private static final int ACCOUNTS_PER_COUNTRY = 200;
+
+    @Autowired
+    private RegionalAllocationService regionalAllocationService;
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private RegionalAllocationRepository regionalAllocationRepository;
+
+    @Autowired
+    private RegionalAllocationCountrySummaryRepository countrySummaryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        TraderOrderEntity order = traderOrderRepository.save(TraderOrderEntity.builder()
+                .clientOrderId(CLIENT_ORDER_ID)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.REGIONAL_ALLOCATION)
+                .subStatus(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION)
+                .securityId("BOND-123")
+                .orderQuantity(BigDecimal.valueOf(ACCOUNTS_PER_COUNTRY * 40L))
+                .build());
+        regionalAllocationRepository.save(RegionalAllocationEntity.builder()
+                .clientOrderId(CLIENT_ORDER_ID)
+                .order(order)
+                .orderQuantity(order.getOrderQuantity())
+                .hkOrderQuantity(BigDecimal.valueOf(ACCOUNTS_PER_COUNTRY * 20L))
+                .sgOrderQuantity(BigDecimal.valueOf(ACCOUNTS_PER_COUNTRY * 20L))
+                .build());
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void summaryTracksInsertsUpdatesAndDeletes() {
+        List<RegionalAllocationBreakdownRequest> first = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS_PER_COUNTRY; i++) {
+            first.add(request("HK", "HK-" + i, "10", i % 4 == 0 ? null : "7.5"));
+            first.add(request("SG", "SG-" + i, "12", "6"));
+        }
+        submit(first);
+
+        assertThat(summaryTable()).isEqualTo(recomputed());
+        assertThat(summaryTable()).containsOnlyKeys("HK", "SG");
+        assertThat(summaryTable().get("HK")).containsExactly("2000", "1125", "200");
+
+        // Amend HK quantities, drop half of HK and every SG account, add a new country
+        List<RegionalAllocationBreakdownRequest> second = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS_PER_COUNTRY / 2; i++) {
+            second.add(request("HK", "HK-" + i, i % 2 == 0 ? "15" : "10", i % 3 == 0 ? null : "9"));
+        }
+        second.add(request("TW", "TW-0", "5", "5"));
+        second.add(request("TW", "TW-1", "5", null));
+
+        regionalAllocationService.reject(CLIENT_ORDER_ID, "approver", null);
+        statistics.clear();
+        submit(second);
+
+        assertThat(summaryTable()).isEqualTo(recomputed());
+        assertThat(summaryTable()).containsOnlyKeys("HK", "TW");
+        assertThat(summaryTable().get("TW")).containsExactly("10", "5", "2");
+        // One summary row per country is written, however many breakdowns changed
+        EntityStatistics summaryWrites = statistics.getEntityStatistics(RegionalAllocationCountrySummaryEntity.class.getName());
+        assertThat(summaryWrites.getInsertCount()).isEqualTo(1);
+        assertThat(summaryWrites.getUpdateCount()).isEqualTo(1);
+        assertThat(summaryWrites.getDeleteCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unchangedResubmission_leavesSummaryUntouched() {
+        List<RegionalAllocationBreakdownRequest> requests = List.of(
+                request("HK", "HK-0", "10", "5"),
+                request("SG", "SG-0", "10", null));
+        submit(requests);
+        regionalAllocationService.reject(CLIENT_ORDER_ID, "approver", null);
+
+        statistics.clear();
+        submit(requests);
+
+        assertThat(summaryTable()).isEqualTo(recomputed());
+        EntityStatistics summaryWrites = statistics.getEntityStatistics(RegionalAllocationCountrySummaryEntity.class.getName());
+        assertThat(summaryWrites.getInsertCount()).isZero();
+        assertThat(summaryWrites.getUpdateCount()).isZero();
+        assertThat(summaryWrites.getDeleteCount()).isZero();
+    }
+
+    @Test
+    void serverComputedProRata_isSavedWithoutChangingTheRequests() {
+        List<RegionalAllocationBreakdownRequest> requests = List.of(
+                request("HK", "HK-0", "10", null),
+                request("SG", "SG-0", "10", null));
+        FinalPricedAllocationBreakdownRequest priced = new FinalPricedAllocationBreakdownRequest();
+        priced.setCountryCode("HK");
+        priced.setFinalPrice(new BigDecimal("99.875"));
+
+        regionalAllocationService.submitForApproval(CLIENT_ORDER_ID, requests, List.of(priced), null, "allocator", null);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(requests).extracting(RegionalAllocationBreakdownRequest::getAllocatedQuantity).containsOnlyNulls();
+        assertThat(summaryTable()).isEqualTo(recomputed());
+        assertThat(summaryTable().get("HK")).containsExactly("10", "10", "1");
+    }
+
+    private void submit(List<RegionalAllocationBreakdownRequest> breakdowns) {
+        FinalPricedAllocationBreakdownRequest priced = new FinalPricedAllocationBreakdownRequest();
+        priced.setCountryCode("HK");
+        priced.setFinalPrice(new BigDecimal("99.875"));
+        FinalRegionalAllocationRequest finalRegional = new FinalRegionalAllocationRequest();
+        finalRegional.setMarket("HK");
+        finalRegional.setAsiaAllocation(BigDecimal.TEN);
+        finalRegional.setAllocation(BigDecimal.TEN);
+        finalRegional.setEffectiveOrder(BigDecimal.TEN);
+        finalRegional.setProRata(BigDecimal.ONE);
+        finalRegional.setAllocationAmount(BigDecimal.TEN);
+
+        regionalAllocationService.submitForApproval(CLIENT_ORDER_ID, breakdowns, List.of(priced),
+                List.of(finalRegional), "allocator", null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Map<String, List<String>> summaryTable() {
+        Map<String, List<String>> totals = new TreeMap<>();
+        countrySummaryRepository.findByClientOrderId(CLIENT_ORDER_ID).forEach(summary ->
+                totals.put(summary.getCountryCode(), List.of(
+                        plain(summary.getTotalOrderQuantity().toBigDecimal()),
+                        plain(summary.getTotalAllocatedQuantity().toBigDecimal()),
+                        String.valueOf(summary.getBreakdownCount()))));
+        return totals;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<String>> recomputed() {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                SELECT country_code, SUM(order_quantity), COALESCE(SUM(allocated_quantity), 0), COUNT(*)
+                FROM regional_allocation_breakdown
+                WHERE client_order_id = :clientOrderId
+                GROUP BY country_code
+                """)
+                .setParameter("clientOrderId", CLIENT_ORDER_ID)
+                .getResultList();
+        Map<String, List<String>> totals = new TreeMap<>();
+        for (Object[] row : rows) {
+            totals.put((String) row[0], List.of(
+                    plain((BigDecimal) row[1]),
+                    plain((BigDecimal) row[2]),
+                    String.valueOf(((Number) row[3]).intValue())));
+        }
+        return totals;
+    }
+
+    private static String plain(BigDecimal value) {
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    private static RegionalAllocationBreakdownRequest request(String countryCode, String accountNumber,
+                                                              String orderQuantity, String allocatedQuantity) {
+        RegionalAllocationBreakdownRequest request = new RegionalAllocationBreakdownRequest();
+        request.setCountryCode(countryCode);
+        request.setAccountNumber(accountNumber);
+        request.setOrderQuantity(new BigDecimal(orderQuantity));
+        request.setAllocatedQuantity(allocatedQuantity == null ? null : new BigDecimal(allocatedQuantity));
+        request.setFinalAllocation(new BigDecimal(orderQuantity));
+        return request;
+    }
+}
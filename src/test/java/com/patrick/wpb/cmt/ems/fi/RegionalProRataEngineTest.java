@@ -0,0 +1,101 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.patrick.wpb.cmt.ems.fi.dto.FinalRegionalAllocationRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.RegionalAllocationBreakdownRequest;
+import com.patrick.wpb.cmt.ems.fi.entity.RegionalAllocationEntity;
+import com.patrick.wpb.cmt.ems.fi.service.RegionalProRataEngine;
+import com.patrick.wpb.cmt.ems.fi.util.Quantity;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RegionalProRataEngineTest {
+
+    @Test
+    void oversubscribedMarket_splitsExactlyWithLeftoverToLargestRemainder() {
+        List<RegionalAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("HK", "A1", "700", null),
+                breakdown("HK", "A2", "700", null),
+                breakdown("SG", "B1", "50", null),
+                breakdown("HK", "A3", "700", null));
+
+        RegionalProRataEngine.Result result = RegionalProRataEngine.allocate(allocation("1000", "0"), breakdowns);
+
+        // 1000 over three equal orders: 333.3333 each and the last 0.0001 to the first account
+        assertThat(result.allocatedUnits()).containsExactly(
+                units("333.3334"), units("333.3333"), 0, units("333.3333"));
+        FinalRegionalAllocationRequest hk = result.finalRegionalAllocations().get(0);
+        assertThat(hk.getMarket()).isEqualTo("HK");
+        assertThat(hk.getAsiaAllocation()).isEqualByComparingTo("1000");
+        assertThat(hk.getAllocation()).isEqualByComparingTo("1000");
+        assertThat(hk.getEffectiveOrder()).isEqualByComparingTo("2100");
+        assertThat(hk.getProRata()).isEqualByComparingTo("47.6190");
+        assertThat(hk.getAllocationAmount()).isEqualByComparingTo("1000");
+        FinalRegionalAllocationRequest sg = result.finalRegionalAllocations().get(1);
+        assertThat(sg.getMarket()).isEqualTo("SG");
+        assertThat(sg.getEffectiveOrder()).isEqualByComparingTo("50");
+        assertThat(sg.getAllocationAmount()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void undersubscribedMarket_fillsEffectiveOrdersCappedAtSizeLimit() {
+        List<RegionalAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("SG", "B1", "300", "100"),
+                breakdown("SG", "B2", "200", null));
+
+        RegionalProRataEngine.Result result = RegionalProRataEngine.allocate(allocation("0", "500"), breakdowns);
+
+        assertThat(result.allocatedUnits()).containsExactly(units("100"), units("200"));
+        FinalRegionalAllocationRequest sg = result.finalRegionalAllocations().get(1);
+        assertThat(sg.getEffectiveOrder()).isEqualByComparingTo("300");
+        assertThat(sg.getAllocationAmount()).isEqualByComparingTo("300");
+        assertThat(sg.getProRata()).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void equalRemainders_goToEarlierBreakdowns_everyTime() {
+        List<RegionalAllocationBreakdownRequest> breakdowns = List.of(
+                breakdown("HK", "A1", "1", null),
+                breakdown("HK", "A2", "1", null),
+                breakdown("HK", "A3", "1", null));
+
+        for (int run = 0; run < 3; run++) {
+            long[] units = RegionalProRataEngine.allocate(allocation("0.0011", "0"), breakdowns).allocatedUnits();
+            assertThat(units).containsExactly(4, 4, 3);
+        }
+    }
+
+    @Test
+    void breakdownOutsideHkAndSg_isRejected() {
+        assertThatThrownBy(() -> RegionalProRataEngine.allocate(allocation("100", "100"),
+                List.of(breakdown("TW", "C1", "10", null))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("TW");
+    }
+
+    private static long units(String quantity) {
+        return Quantity.unitsOf(new BigDecimal(quantity));
+    }
+
+    private static RegionalAllocationEntity allocation(String hk, String sg) {
+        return RegionalAllocationEntity.builder()
+                .clientOrderId("PRORATA-1")
+                .hkOrderQuantity(new BigDecimal(hk))
+                .sgOrderQuantity(new BigDecimal(sg))
+                .build();
+    }
+
+    private static RegionalAllocationBreakdownRequest breakdown(String country, String account, String orderQuantity,
+                                                                String sizeLimit) {
+        RegionalAllocationBreakdownRequest request = new RegionalAllocationBreakdownRequest();
+        request.setCountryCode(country);
+        request.setAccountNumber(account);
+        request.setOrderQuantity(new BigDecimal(orderQuantity));
+        request.setFinalAllocation(BigDecimal.ZERO);
+        request.setSizeLimit(sizeLimit == null ? null : new BigDecimal(sizeLimit));
+        return request;
+    }
+}
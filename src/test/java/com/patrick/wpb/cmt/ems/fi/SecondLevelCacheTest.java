@@ -0,0 +1,160 @@
+package com.patrick.wpb.cmt.ems.fi;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.patrick.wpb.cmt.ems.fi.dto.TraderOrderSummaryDto;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.entity.TraderSubOrderEntity;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
+import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.service.StatusService;
+import com.patrick.wpb.cmt.ems.fi.service.TraderOrderService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Second-level cache behaviour across transactions: repeated primary-key reads and enum-keyed blotter queries are
+ * served from the cache, and status changes (single and bulk) are visible on the next read.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    private static final String PREFIX = "L2-";
+
+    @Autowired
+    private TraderOrderRepository traderOrderRepository;
+
+    @Autowired
+    private TraderOrderService traderOrderService;
+
+    @Autowired
+    private StatusService statusService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    @AfterEach
+    void deleteCachedOrders() {
+        String like = PREFIX + "%";
+        jdbcTemplate.update("delete from trader_order_status_audit where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_sub_order where client_order_id like ?", like);
+        jdbcTemplate.update("delete from trader_order where client_order_id like ?", like);
+        // Plain JDBC bypasses Hibernate, so drop whatever the cache still holds for those rows
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedFindById_isServedFromCache() {
+        seedOrder(PREFIX + "PK");
+        traderOrderRepository.findById(PREFIX + "PK").orElseThrow();
+
+        statistics.clear();
+        for (int i = 0; i < 5; i++) {
+            assertThat(traderOrderRepository.findById(PREFIX + "PK")).isPresent();
+        }
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics("trader-order");
+        assertThat(region.getHitCount()).isEqualTo(5);
+        assertThat(region.getMissCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(requests("hibernate.second.level.cache.requests", "region", "trader-order", "hit")).isPositive();
+    }
+
+    @Test
+    void statusChange_isVisibleToNextReadAndBlotter() {
+        seedOrder(PREFIX + "STATUS");
+        assertThat(blotterIds()).contains(PREFIX + "STATUS");
+        assertThat(traderOrderRepository.findById(PREFIX + "STATUS").orElseThrow().getStatus())
+                .isEqualTo(IPOOrderStatus.NEW);
+
+        statistics.clear();
+        assertThat(blotterIds()).contains(PREFIX + "STATUS");
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(requests("hibernate.cache.query.requests", null, null, "hit")).isPositive();
+
+        statusService.cancelOrder(PREFIX + "STATUS", "tester", "cache invalidation");
+
+        TraderOrderEntity reloaded = traderOrderRepository.findById(PREFIX + "STATUS").orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(IPOOrderStatus.CANCELLED);
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+        assertThat(blotterIds()).doesNotContain(PREFIX + "STATUS");
+    }
+
+    @Test
+    void bulkStatusUpdate_evictsCachedOrders() {
+        seedOrder(PREFIX + "BULK-1");
+        seedOrder(PREFIX + "BULK-2");
+        traderOrderRepository.findById(PREFIX + "BULK-1").orElseThrow();
+        traderOrderRepository.findById(PREFIX + "BULK-2").orElseThrow();
+        assertThat(blotterIds()).contains(PREFIX + "BULK-1", PREFIX + "BULK-2");
+
+        statusService.updateStatuses(List.of(PREFIX + "BULK-1", PREFIX + "BULK-2"),
+                IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, "tester", "bulk cache invalidation");
+
+        assertThat(traderOrderRepository.findAllById(List.of(PREFIX + "BULK-1", PREFIX + "BULK-2")))
+                .extracting(TraderOrderEntity::getStatus)
+                .containsOnly(IPOOrderStatus.CANCELLED);
+        assertThat(blotterIds()).doesNotContain(PREFIX + "BULK-1", PREFIX + "BULK-2");
+    }
+
+    private List<String> blotterIds() {
+        return traderOrderService.fetchOrderCollectionBlotterSummaries().stream()
+                .map(TraderOrderSummaryDto::getClientOrderId)
+                .toList();
+    }
+
+    private double requests(String meter, String tagKey, String tagValue, String result) {
+        var search = meterRegistry.find(meter).tag("result", result);
+        if (tagKey != null) {
+            search = search.tag(tagKey, tagValue);
+        }
+        FunctionCounter counter = search.functionCounter();
+        assertThat(counter).as(meter).isNotNull();
+        return counter.count();
+    }
+
+    private void seedOrder(String clientOrderId) {
+        TraderOrderEntity order = TraderOrderEntity.builder()
+                .clientOrderId(clientOrderId)
+                .tradeDate(LocalDate.of(2024, 12, 1))
+                .countryCode("HK")
+                .status(IPOOrderStatus.NEW)
+                .subStatus(IPOOrderSubStatus.NONE)
+                .securityId("BOND-123")
+                .orderQuantity(new BigDecimal("1000"))
+                .build();
+        order.getSubOrders().add(TraderSubOrderEntity.builder()
+                .order(order)
+                .countryCode("HK")
+                .accountId("ACCOUNT-1")
+                .issueIPOFlag(true)
+                .build());
+        traderOrderRepository.save(order);
+    }
+}
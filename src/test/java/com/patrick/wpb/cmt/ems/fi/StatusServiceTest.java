@@ -3,13 +3,26 @@ package com.patrick.wpb.cmt.ems.fi;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.patrick.wpb.cmt.ems.fi.dto.BulkStatusUpdateRequest;
+import com.patrick.wpb.cmt.ems.fi.dto.BulkStatusUpdateResultDto;
 import com.patrick.wpb.cmt.ems.fi.entity.TraderOrderEntity;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderStatus;
 import com.patrick.wpb.cmt.ems.fi.enums.IPOOrderSubStatus;
 import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderRepository;
+import com.patrick.wpb.cmt.ems.fi.repo.TraderOrderStatusAuditRepository;
+import com.patrick.wpb.cmt.ems.fi.service.OrderStateConflictException;
 import com.patrick.wpb.cmt.ems.fi.service.StatusService;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable.State;
+import com.patrick.wpb.cmt.ems.fi.service.StatusTransitionTable.Transition;
+import jakarta.validation.Validator;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +40,12 @@ class StatusServiceTest {
     @Autowired
     private TraderOrderRepository traderOrderRepository;
 
+    @Autowired
+    private TraderOrderStatusAuditRepository statusAuditRepository;
+
+    @Autowired
+    private Validator validator;
+
     @BeforeEach
     void setUp() {
         traderOrderRepository.deleteAll();
@@ -90,7 +109,7 @@ class StatusServiceTest {
                 "user", 
                 "Invalid transition"
         ))
-        .isInstanceOf(IllegalStateException.class)
+        .isInstanceOf(OrderStateConflictException.class)
         .hasMessageContaining("Transition from NEW/NONE to CLIENT_ALLOCATION/PENDING_CLIENT_ALLOCATION is not allowed");
     }
 
@@ -112,6 +131,122 @@ class StatusServiceTest {
         assertThat(updated.getSubStatus()).isEqualTo(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION);
     }
 
+    @Test
+    void transitionTable_exposesNextStatesForEachWorkflowState() {
+        StatusTransitionTable table = statusService.getTransitionTable();
+
+        assertThat(table.nextStates(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION_APPROVAL))
+                .containsExactlyInAnyOrder(
+                        new State(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION),
+                        new State(IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
+                        new State(IPOOrderStatus.ACCEPTED, IPOOrderSubStatus.NONE),
+                        new State(IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE));
+        assertThat(table.nextStates(IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE)).isEmpty();
+
+        // Staying put and exempt targets are allowed from anywhere, everything else only if declared
+        assertThat(table.isAllowed(IPOOrderStatus.PLACED, IPOOrderSubStatus.DONE, IPOOrderStatus.PLACED, IPOOrderSubStatus.DONE)).isTrue();
+        assertThat(table.isAllowed(IPOOrderStatus.PLACED, IPOOrderSubStatus.DONE, IPOOrderStatus.CANCELLED, IPOOrderSubStatus.DONE)).isTrue();
+        assertThat(table.isAllowed(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.DONE)).isFalse();
+    }
+
+    @Test
+    void transitionTable_rejectsStatesUnreachableFromInitialState() {
+        assertThatThrownBy(() -> StatusTransitionTable.build(
+                new State(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE),
+                List.of(
+                        Transition.of(IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION),
+                        Transition.of(IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION, IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.DONE)),
+                Set.of(IPOOrderStatus.CANCELLED),
+                IPOOrderSubStatus.NONE))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("CLIENT_ALLOCATION/PENDING_CLIENT_ALLOCATION");
+    }
+
+    @Test
+    @Transactional
+    void bulkStatusUpdate_appliesValidTransitionsAndReportsFailuresPerOrder() {
+        createTestOrder("ORDER-1", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+        createTestOrder("ORDER-2", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+        createTestOrder("ORDER-3", IPOOrderStatus.CLIENT_ALLOCATION, IPOOrderSubStatus.PENDING_CLIENT_ALLOCATION);
+
+        List<BulkStatusUpdateResultDto> results = statusService.updateStatuses(
+                List.of("ORDER-1", "ORDER-2", "ORDER-3", "ORDER-MISSING"),
+                IPOOrderStatus.REGIONAL_ALLOCATION,
+                IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION,
+                "desk",
+                "Close of day");
+
+        assertThat(results).extracting(BulkStatusUpdateResultDto::getClientOrderId)
+                .containsExactly("ORDER-1", "ORDER-2", "ORDER-3", "ORDER-MISSING");
+        assertThat(results).extracting(BulkStatusUpdateResultDto::isUpdated)
+                .containsExactly(true, true, false, false);
+        assertThat(results.get(2).getError()).contains("is not allowed");
+        assertThat(results.get(3).getError()).contains("not found");
+
+        assertThat(traderOrderRepository.findById("ORDER-1").orElseThrow().getSubStatus())
+                .isEqualTo(IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION);
+        assertThat(traderOrderRepository.findById("ORDER-3").orElseThrow().getStatus())
+                .isEqualTo(IPOOrderStatus.CLIENT_ALLOCATION);
+        assertThat(statusAuditRepository.findAll())
+                .filteredOn(audit -> "desk".equals(audit.getChangedBy()))
+                .hasSize(2);
+    }
+
+    @Test
+    @Transactional
+    void bulkCancel_movesOrdersFromDifferentStatesOneUpdatePerGroup() {
+        createTestOrder("ORDER-1", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+        createTestOrder("ORDER-2", IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION);
+        createTestOrder("ORDER-3", IPOOrderStatus.REGIONAL_ALLOCATION, IPOOrderSubStatus.PENDING_REGIONAL_ALLOCATION);
+
+        List<BulkStatusUpdateResultDto> results = statusService.updateStatuses(
+                List.of("ORDER-1", "ORDER-2", "ORDER-3"),
+                IPOOrderStatus.CANCELLED,
+                IPOOrderSubStatus.NONE,
+                "desk",
+                null);
+
+        assertThat(results).allMatch(BulkStatusUpdateResultDto::isUpdated);
+        assertThat(results.get(1).getFromStatus()).isEqualTo(IPOOrderStatus.REGIONAL_ALLOCATION);
+        assertThat(traderOrderRepository.findAllById(List.of("ORDER-1", "ORDER-2", "ORDER-3")))
+                .extracting(TraderOrderEntity::getStatus)
+                .containsOnly(IPOOrderStatus.CANCELLED);
+    }
+
+    @Test
+    @Transactional
+    void bulkUpdate_ordersAnotherCallerAlreadyMovedToTheTarget_areNotCountedAsMovedByThisUpdate() {
+        createTestOrder("ORDER-1", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+        createTestOrder("ORDER-2", IPOOrderStatus.NEW, IPOOrderSubStatus.NONE);
+        Instant earlier = Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.MICROS);
+        traderOrderRepository.updateStatusWhereCurrent(List.of("ORDER-2"), IPOOrderStatus.NEW, IPOOrderSubStatus.NONE,
+                IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, earlier);
+
+        Instant changedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        int updated = traderOrderRepository.updateStatusWhereCurrent(List.of("ORDER-1", "ORDER-2"),
+                IPOOrderStatus.NEW, IPOOrderSubStatus.NONE, IPOOrderStatus.CANCELLED, IPOOrderSubStatus.NONE, changedAt);
+
+        assertThat(updated).isEqualTo(1);
+        assertThat(traderOrderRepository.findClientOrderIdsUpdatedAt(List.of("ORDER-1", "ORDER-2"), changedAt))
+                .containsExactly("ORDER-1");
+    }
+
+    @Test
+    void bulkRequest_withMoreThanAThousandOrders_isRejected() {
+        BulkStatusUpdateRequest request = new BulkStatusUpdateRequest();
+        request.setTargetStatus(IPOOrderStatus.CANCELLED);
+        request.setTargetSubStatus(IPOOrderSubStatus.NONE);
+        request.setChangedBy("admin");
+
+        request.setClientOrderIds(Collections.nCopies(1000, "ORDER-1"));
+        assertThat(validator.validate(request)).isEmpty();
+
+        request.setClientOrderIds(Collections.nCopies(1001, "ORDER-1"));
+        assertThat(validator.validate(request))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactly("clientOrderIds");
+    }
+
     private TraderOrderEntity createTestOrder(String clientOrderId, IPOOrderStatus status, IPOOrderSubStatus subStatus) {
         TraderOrderEntity order = TraderOrderEntity.builder()
                 .clientOrderId(clientOrderId)